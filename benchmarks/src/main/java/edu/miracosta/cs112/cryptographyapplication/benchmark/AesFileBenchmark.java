@@ -0,0 +1,80 @@
+package edu.miracosta.cs112.cryptographyapplication.benchmark;
+
+import edu.miracosta.cs112.cryptographyapplication.Aes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encrypting a file with the memory-mapped {@link Aes#encryptFile(Path, Path)} against
+ * copying it through {@link Aes#encryptingOutputStream(OutputStream)}.
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AesFileBenchmark {
+
+    @Param({"1048576", "67108864", "268435456"})
+    private int fileSize;
+
+    private Aes aes;
+    private Path source;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        aes = new Aes(0, 0, Aes.generateKey(128), Aes.generateIv());
+        source = Files.createTempFile("aes-benchmark-source", ".bin");
+        target = Files.createTempFile("aes-benchmark-target", ".bin");
+
+        byte[] chunk = new byte[1024 * 1024];
+        new Random(42).nextBytes(chunk);
+        try (OutputStream out = Files.newOutputStream(source)) {
+            for (int written = 0; written < fileSize; written += chunk.length) {
+                out.write(chunk, 0, Math.min(chunk.length, fileSize - written));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public void mappedFile() throws IOException {
+        aes.encryptFile(source, target);
+    }
+
+    @Benchmark
+    public void stream() throws IOException {
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = aes.encryptingOutputStream(Files.newOutputStream(target))) {
+            in.transferTo(out);
+        }
+    }
+}
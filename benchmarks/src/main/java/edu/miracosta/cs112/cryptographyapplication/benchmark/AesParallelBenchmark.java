@@ -0,0 +1,91 @@
+package edu.miracosta.cs112.cryptographyapplication.benchmark;
+
+import edu.miracosta.cs112.cryptographyapplication.Aes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link Aes.Mode#CTR} encryption and {@link Aes.Mode#CBC} decryption of a large
+ * direct buffer scale with the parallelism of the pool.
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AesParallelBenchmark {
+
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    private int parallelism;
+
+    @Param({"67108864"})
+    private int size;
+
+    private Aes aes;
+    private Aes cbc;
+    private ForkJoinPool pool;
+    private ByteBuffer plaintext;
+    private ByteBuffer ciphertext;
+    private ByteBuffer cbcCiphertext;
+    private ByteBuffer decrypted;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pool = new ForkJoinPool(parallelism);
+        aes = new Aes(0, 0, Aes.Mode.CTR, Aes.generateKey(128), Aes.generateIv());
+        aes.setPool(pool);
+
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        plaintext = ByteBuffer.allocateDirect(size).put(bytes).flip();
+        ciphertext = ByteBuffer.allocateDirect(aes.getOutputSize(size));
+
+        cbc = new Aes(0, 0, Aes.Mode.CBC, Aes.generateKey(128), Aes.generateIv());
+        cbc.setPool(pool);
+        cbcCiphertext = ByteBuffer.allocateDirect(cbc.getOutputSize(size));
+        cbc.encrypt(plaintext, cbcCiphertext);
+        cbcCiphertext.flip();
+        plaintext.rewind();
+        decrypted = ByteBuffer.allocateDirect(cbc.getOutputSize(cbcCiphertext.remaining()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public ByteBuffer ctrEncrypt() {
+        plaintext.rewind();
+        ciphertext.clear();
+        aes.encrypt(plaintext, ciphertext);
+        return ciphertext;
+    }
+
+    @Benchmark
+    public ByteBuffer cbcDecrypt() {
+        cbcCiphertext.rewind();
+        decrypted.clear();
+        cbc.decrypt(cbcCiphertext, decrypted);
+        return decrypted;
+    }
+}
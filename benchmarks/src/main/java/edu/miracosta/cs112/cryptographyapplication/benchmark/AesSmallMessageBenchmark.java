@@ -0,0 +1,76 @@
+package edu.miracosta.cs112.cryptographyapplication.benchmark;
+
+import edu.miracosta.cs112.cryptographyapplication.Aes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of encrypting a short message with {@link Aes}, which reuses its
+ * ciphers, against creating and initializing a new {@link Cipher} for every message.
+ *
+ * <p>
+ * Run with {@code -t <threads>} to measure the same under concurrent use.
+ * </p>
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AesSmallMessageBenchmark {
+
+    @Param({"64", "256", "1024", "4096"})
+    private int size;
+
+    @Param({"CBC", "CTR"})
+    private Aes.Mode mode;
+
+    private Aes aes;
+    private SecretKeySpec key;
+    private IvParameterSpec iv;
+    private byte[] plaintext;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        byte[] keyBytes = Aes.generateKey(128);
+        byte[] ivBytes = Aes.generateIv(mode);
+        aes = new Aes(0, 0, mode, keyBytes, ivBytes);
+        key = new SecretKeySpec(keyBytes, "AES");
+        iv = new IvParameterSpec(ivBytes);
+
+        plaintext = new byte[size];
+        new Random(42).nextBytes(plaintext);
+    }
+
+    @Benchmark
+    public byte[] reusedCipher() {
+        return aes.encrypt(plaintext);
+    }
+
+    @Benchmark
+    public byte[] newCipher() throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(mode.getTransformation());
+        cipher.init(Cipher.ENCRYPT_MODE, key, iv);
+        return cipher.doFinal(plaintext);
+    }
+}
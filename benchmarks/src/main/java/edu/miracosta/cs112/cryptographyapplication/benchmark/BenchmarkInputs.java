@@ -0,0 +1,81 @@
+package edu.miracosta.cs112.cryptographyapplication.benchmark;
+
+import edu.miracosta.cs112.cryptographyapplication.Aes;
+import edu.miracosta.cs112.cryptographyapplication.CaesarCipher;
+import edu.miracosta.cs112.cryptographyapplication.CryptographyMethod;
+import edu.miracosta.cs112.cryptographyapplication.InvalidKeyLengthException;
+import edu.miracosta.cs112.cryptographyapplication.VigenereCipher;
+
+import java.util.Random;
+
+/**
+ * Creates the ciphers and inputs shared by the cipher and codec benchmarks.
+ *
+ * @version 1.0
+ */
+final class BenchmarkInputs {
+
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz      .,";
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Creates the cipher with the given name.
+     *
+     * @param cipher     {@code Caesar}, {@code Vigenere}, {@code AES-128}, {@code AES-192} or {@code AES-256}
+     * @param inputMode  the input mode
+     * @param outputMode the output mode
+     * @return the cipher
+     * @throws IllegalArgumentException  if the name is unknown
+     * @throws InvalidKeyLengthException never, the AES key sizes are valid
+     */
+    static CryptographyMethod cipher(String cipher, int inputMode, int outputMode) throws InvalidKeyLengthException {
+        return switch (cipher) {
+            case "Caesar" -> new CaesarCipher(inputMode, outputMode, 13);
+            case "Vigenere" -> new VigenereCipher(inputMode, outputMode, "benchmark");
+            case "AES-128", "AES-192", "AES-256" -> {
+                // Fixed key and IV, so every fork encrypts the same bytes
+                byte[] key = new byte[Integer.parseInt(cipher.substring(4)) / 8];
+                byte[] iv = new byte[16];
+                Random random = new Random(42);
+                random.nextBytes(key);
+                random.nextBytes(iv);
+                yield new Aes(inputMode, outputMode, key, iv);
+            }
+            default -> throw new IllegalArgumentException("Unknown cipher: " + cipher);
+        };
+    }
+
+    /**
+     * Returns reproducible ASCII text made of letters, spaces and punctuation.
+     *
+     * @param size the number of characters
+     * @return the text
+     */
+    static String text(int size) {
+        Random random = new Random(42);
+        char[] text = new char[size];
+        for (int i = 0; i < size; i++) {
+            text[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(text);
+    }
+
+    /**
+     * Encodes plaintext the way a cipher with the given input mode expects it.
+     *
+     * @param method the cipher providing the codecs
+     * @param mode   the input mode
+     * @param text   the plaintext
+     * @return {@code text} in plaintext, Base64 or hexadecimal encoding
+     */
+    static String encode(CryptographyMethod method, int mode, String text) {
+        return switch (mode) {
+            case 0 -> text;
+            case 1 -> method.base64Encode(text);
+            case 2 -> method.hexEncode(text);
+            default -> throw new IllegalArgumentException("Invalid mode selected!");
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package edu.miracosta.cs112.cryptographyapplication.benchmark;
+
+import edu.miracosta.cs112.cryptographyapplication.CryptographyMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the {@code String} methods of every cipher, including decoding the
+ * input and encoding the output in each input and output mode.
+ *
+ * <p>
+ * Run with {@code -prof gc} to also report the allocation rate, and narrow the parameters with
+ * {@code -p}, for example {@code -p cipher=Caesar -p size=1048576}.
+ * </p>
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CipherBenchmark {
+
+    @Param({"Caesar", "Vigenere", "AES-128", "AES-192", "AES-256"})
+    private String cipher;
+
+    @Param({"16", "1024", "65536", "1048576", "67108864"})
+    private int size;
+
+    @Param({"0", "1", "2"})
+    private int inputMode;
+
+    @Param({"0", "1", "2"})
+    private int outputMode;
+
+    private CryptographyMethod method;
+    private String plaintext;
+    private String ciphertext;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        method = BenchmarkInputs.cipher(cipher, inputMode, outputMode);
+        String text = BenchmarkInputs.text(size);
+        plaintext = BenchmarkInputs.encode(method, inputMode, text);
+        // Encrypted with the output mode equal to this cipher's input mode, so decrypt accepts it
+        ciphertext = BenchmarkInputs.cipher(cipher, 0, inputMode).encrypt(text);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return method.encrypt(plaintext);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return method.decrypt(ciphertext);
+    }
+}
@@ -0,0 +1,71 @@
+package edu.miracosta.cs112.cryptographyapplication.benchmark;
+
+import edu.miracosta.cs112.cryptographyapplication.CryptographyMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the byte-level methods of every cipher, which apply no input or
+ * output mode. {@link #encryptInto()} writes into a preallocated buffer, so with
+ * {@code -prof gc} it shows the allocation of the cipher alone.
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CipherBytesBenchmark {
+
+    @Param({"Caesar", "Vigenere", "AES-128", "AES-192", "AES-256"})
+    private String cipher;
+
+    @Param({"16", "1024", "65536", "1048576", "67108864"})
+    private int size;
+
+    private CryptographyMethod method;
+    private byte[] plaintext;
+    private byte[] ciphertext;
+    private ByteBuffer output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        method = BenchmarkInputs.cipher(cipher, 0, 0);
+        plaintext = BenchmarkInputs.text(size).getBytes(StandardCharsets.US_ASCII);
+        ciphertext = method.encrypt(plaintext);
+        output = ByteBuffer.allocate(method.getOutputSize(size));
+    }
+
+    @Benchmark
+    public byte[] encrypt() {
+        return method.encrypt(plaintext);
+    }
+
+    @Benchmark
+    public byte[] decrypt() {
+        return method.decrypt(ciphertext);
+    }
+
+    @Benchmark
+    public ByteBuffer encryptInto() {
+        output.clear();
+        method.encrypt(ByteBuffer.wrap(plaintext), output);
+        return output;
+    }
+}
@@ -0,0 +1,70 @@
+package edu.miracosta.cs112.cryptographyapplication.benchmark;
+
+import edu.miracosta.cs112.cryptographyapplication.CaesarCipher;
+import edu.miracosta.cs112.cryptographyapplication.CryptographyMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the Base64 and hexadecimal codecs of {@link CryptographyMethod}
+ * that implement the input and output modes. Run with {@code -prof gc} to also report the
+ * allocation rate.
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CodecBenchmark {
+
+    @Param({"16", "1024", "65536", "1048576", "67108864"})
+    private int size;
+
+    private CryptographyMethod method;
+    private String text;
+    private String base64;
+    private String hex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        method = new CaesarCipher();
+        text = BenchmarkInputs.text(size);
+        base64 = method.base64Encode(text);
+        hex = method.hexEncode(text);
+    }
+
+    @Benchmark
+    public String base64Encode() {
+        return method.base64Encode(text);
+    }
+
+    @Benchmark
+    public String base64Decode() {
+        return method.base64Decode(base64);
+    }
+
+    @Benchmark
+    public String hexEncode() {
+        return method.hexEncode(text);
+    }
+
+    @Benchmark
+    public String hexDecode() {
+        return method.hexDecode(hex);
+    }
+}
@@ -5,10 +5,22 @@ import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Aes class that extends CryptographyMethod to provide encryption and decryption
@@ -23,7 +35,35 @@ import java.util.Base64;
  * Supported key lengths: 128, 192, 256 bits.
  * </p>
  *
+ * <p>
+ * Supported cipher modes are listed in {@link Mode}. The default is {@link Mode#CBC}. In
+ * {@link Mode#CTR}, large buffers and files are split into segments that are encrypted and
+ * decrypted in parallel on a {@link ForkJoinPool}. CBC encryption is inherently serial, but
+ * CBC decryption of large buffers and files is parallelized in the same way.
+ * {@link Mode#GCM} authenticates the ciphertext and is processed in bounded memory. Every CTR
+ * and GCM encryption draws a new random IV or nonce and writes it in front of the ciphertext,
+ * where decryption reads it back, so messages encrypted with the same key never share a
+ * keystream.
+ * </p>
+ *
+ * <p>
+ * Besides the {@code String}, buffer and stream methods inherited from
+ * {@link CryptographyMethod}, files can be encrypted directly with
+ * {@link #encryptFile(Path, Path)} and {@link #decryptFile(Path, Path)}, which map the files
+ * into memory instead of reading them into the Java heap.
+ * </p>
+ *
+ * <p>
+ * Instead of a raw key, a passphrase of any length can be set with
+ * {@link #setPassphrase(char[], int)}. The key is then derived from the passphrase with
+ * PBKDF2-HMAC-SHA256, and every ciphertext starts with a header of {@link #HEADER_LENGTH}
+ * bytes holding the iteration count and salt needed to derive it again, followed by a random
+ * IV of its own in every mode. Derived keys are kept in a {@link DerivedKeyCache}, so only the
+ * first operation with a passphrase pays for the derivation.
+ * </p>
+ *
  * @see CryptographyMethod
+ * @see DerivedKeyCache
  * @see InvalidKeyLengthException
  *
  * @version 1.0
@@ -31,8 +71,104 @@ import java.util.Base64;
 public class Aes extends CryptographyMethod {
 
     private static final int[] VALID_KEY_LENGTHS = { 128, 192, 256 };
+    private static final int BLOCK_SIZE = ParallelAes.BLOCK_SIZE;
+    /** Number of bytes of a file that {@link #encryptFile} and {@link #decryptFile} map at once. */
+    static final int MAPPED_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int PARALLEL_THRESHOLD = 2 * ParallelAes.SEGMENT_SIZE;
+    private static final int WARM_UP_ITERATIONS = 500;
+    private static final int WARM_UP_MESSAGE_SIZE = 4096;
+    private static final int PASSPHRASE_KEY_LENGTH = 256;
+    private static final byte HEADER_VERSION = 1;
+
+    /**
+     * Default number of PBKDF2 iterations used to derive a key from a passphrase.
+     */
+    public static final int DEFAULT_ITERATIONS = 600_000;
+
+    /**
+     * Largest number of PBKDF2 iterations accepted, which bounds the time a forged header can
+     * make a decryption spend deriving its key.
+     */
+    public static final int MAX_ITERATIONS = 10_000_000;
+
+    /**
+     * Length of the random salt used to derive a key from a passphrase, in bytes.
+     */
+    public static final int SALT_LENGTH = 16;
+
+    /**
+     * Length of the header that starts every ciphertext encrypted with a passphrase: a version
+     * byte, the iteration count as a big-endian {@code int}, and the salt.
+     */
+    public static final int HEADER_LENGTH = 1 + Integer.BYTES + SALT_LENGTH;
+
+    /**
+     * Source of generated keys, IVs and salts. {@link SecureRandom} is thread-safe, so one
+     * instance is seeded once and shared instead of creating and seeding a new one on every call.
+     */
+    static final SecureRandom RANDOM = new SecureRandom();
+
+    private Mode mode = Mode.CBC;
     private SecretKey secretKey;
     private IvParameterSpec iv;
+    private char[] passphrase;
+    private int iterations;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * Cipher modes supported by {@link Aes}.
+     */
+    public enum Mode {
+        /**
+         * Cipher block chaining with PKCS#5 padding and a 16-byte IV.
+         */
+        CBC("AES/CBC/PKCS5Padding", 16),
+
+        /**
+         * Counter mode without padding and a 16-byte initial counter block. Every message is
+         * encrypted with a new random initial counter block, which precedes its ciphertext, so
+         * the ciphertext is 16 bytes longer than the plaintext. Every block can be encrypted
+         * independently.
+         */
+        CTR("AES/CTR/NoPadding", 16),
+
+        /**
+         * Galois/Counter mode with a 12-byte nonce. The ciphertext is authenticated, so any
+         * modification is detected when decrypting. It is split into segments of 64 KiB of
+         * plaintext, each followed by its 16-byte tag, so that streams of any length can be
+         * decrypted in bounded memory. Every message is encrypted with a new random nonce,
+         * which precedes its ciphertext.
+         */
+        GCM("AES/GCM/NoPadding", 12);
+
+        private final String transformation;
+        private final int ivLength;
+        private final String algorithmName;
+
+        Mode(String transformation, int ivLength) {
+            this.transformation = transformation;
+            this.ivLength = ivLength;
+            this.algorithmName = "Aes-" + name();
+        }
+
+        /**
+         * Gets the JCE transformation used for this mode.
+         *
+         * @return the transformation, e.g. {@code "AES/CBC/PKCS5Padding"}
+         */
+        public String getTransformation() {
+            return transformation;
+        }
+
+        /**
+         * Gets the length of the IV (or nonce) used by this mode.
+         *
+         * @return the IV length in bytes
+         */
+        public int getIvLength() {
+            return ivLength;
+        }
+    }
 
     /**
      * Constructs a new {@code Aes} object with the specified input and output modes,
@@ -45,9 +181,44 @@ public class Aes extends CryptographyMethod {
      * @throws InvalidKeyLengthException if the key length is not valid
      */
     public Aes(int inputMode, int outputMode, byte[] key, byte[] iv) throws InvalidKeyLengthException {
+        this(inputMode, outputMode, Mode.CBC, key, iv);
+    }
+
+    /**
+     * Constructs a new {@code Aes} object with the specified input and output modes,
+     * cipher mode, key and IV.
+     *
+     * @param inputMode  the input mode
+     * @param outputMode the output mode
+     * @param mode       the cipher mode
+     * @param key        the secret key
+     * @param iv         the initialization vector, or null for a random one, which is enough
+     *                   when the IV travels with the ciphertext
+     * @throws InvalidKeyLengthException if the key length is not valid
+     */
+    public Aes(int inputMode, int outputMode, Mode mode, byte[] key, byte[] iv) throws InvalidKeyLengthException {
         super(inputMode, outputMode);
+        setMode(mode, iv == null ? generateIv(mode) : iv);
         setKey(key);
-        setIv(iv);
+    }
+
+    /**
+     * Constructs a new {@code Aes} object with the specified input and output modes,
+     * cipher mode and IV, and a key derived from a passphrase.
+     *
+     * @param inputMode  the input mode
+     * @param outputMode the output mode
+     * @param mode       the cipher mode
+     * @param passphrase the passphrase
+     * @param iterations the number of PBKDF2 iterations
+     * @param iv         the initialization vector, or null for a random one, which is enough
+     *                   when the IV travels with the ciphertext
+     * @see #setPassphrase(char[], int)
+     */
+    public Aes(int inputMode, int outputMode, Mode mode, char[] passphrase, int iterations, byte[] iv) {
+        super(inputMode, outputMode);
+        setMode(mode, iv == null ? generateIv(mode) : iv);
+        setPassphrase(passphrase, iterations);
     }
 
     /**
@@ -71,6 +242,82 @@ public class Aes extends CryptographyMethod {
         this(DEFAULT_INPUT_MODE, DEFAULT_OUTPUT_MODE, generateKey(128), generateIv());
     }
 
+    /**
+     * Sets the cipher mode. If the current IV does not have the length the new mode needs, for
+     * example when switching from {@link Mode#CBC} to {@link Mode#GCM}, it is replaced with a
+     * random one; use {@link #setMode(Mode, byte[])} to choose it instead.
+     *
+     * @param mode the cipher mode
+     * @throws IllegalArgumentException if the mode is null
+     */
+    public void setMode(Mode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Cipher mode must not be null!");
+        }
+        boolean ivFits = this.iv != null && this.iv.getIV().length == mode.getIvLength();
+        setMode(mode, ivFits ? this.iv.getIV() : generateIv(mode));
+    }
+
+    /**
+     * Sets the cipher mode together with an IV of the length it needs, so that the mode can be
+     * switched to one with another IV length.
+     *
+     * @param mode the cipher mode
+     * @param iv   the initialization vector, see {@link #setIv(byte[])}
+     * @throws IllegalArgumentException if the mode or IV is null, or the IV does not have the
+     *                                  length the mode needs
+     */
+    public void setMode(Mode mode, byte[] iv) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Cipher mode must not be null!");
+        }
+        checkIv(mode, iv);
+        this.mode = mode;
+        this.iv = new IvParameterSpec(iv);
+    }
+
+    /**
+     * Gets the cipher mode.
+     *
+     * @return the cipher mode
+     */
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Returns the name the operations of this cipher are measured under, which includes the
+     * cipher mode, e.g. {@code "Aes-GCM"}.
+     *
+     * @return the name of the algorithm
+     */
+    @Override
+    protected String getAlgorithmName() {
+        return this.mode.algorithmName;
+    }
+
+    /**
+     * Sets the pool used to encrypt and decrypt large inputs in parallel. The default is the
+     * common pool.
+     *
+     * @param pool the pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null!");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Gets the pool used to encrypt large inputs in parallel.
+     *
+     * @return the pool
+     */
+    public ForkJoinPool getPool() {
+        return this.pool;
+    }
+
     /**
      * Sets the secret key for the Aes algorithm.
      *
@@ -81,21 +328,127 @@ public class Aes extends CryptographyMethod {
         if (!isValidKeyLength(key.length * 8)) {
             throw new InvalidKeyLengthException("Invalid Aes key length: " + (key.length * 8));
         }
+        clearPassphrase();
         this.secretKey = new SecretKeySpec(key, "Aes");
     }
 
     /**
-     * Sets the initialization vector (IV) for the Aes algorithm.
+     * Sets a passphrase to derive the secret key from, replacing any key set before.
+     *
+     * <p>
+     * Each encryption derives a 256-bit key from the passphrase and a random salt with
+     * PBKDF2-HMAC-SHA256, and writes the iteration count and salt in a header in front of the
+     * ciphertext. Each decryption reads them back from the header, so a ciphertext can be
+     * decrypted with the passphrase alone, whatever iteration count the decrypting object was
+     * given. The salt of the last key derived from the same passphrase is reused while that key
+     * is cached, so that encrypting several messages derives the key only once. This is safe
+     * because every message encrypted with a passphrase also starts with a random IV of its
+     * own, whatever the cipher mode.
+     * </p>
+     *
+     * @param passphrase the passphrase, which is copied
+     * @param iterations the number of PBKDF2 iterations, at most {@link #MAX_ITERATIONS}
+     * @throws IllegalArgumentException if the passphrase is null or empty, or the iteration
+     *                                  count is out of range
+     */
+    public void setPassphrase(char[] passphrase, int iterations) {
+        if (passphrase == null || passphrase.length == 0) {
+            throw new IllegalArgumentException("Passphrase must not be empty!");
+        }
+        if (iterations < 1 || iterations > MAX_ITERATIONS) {
+            throw new IllegalArgumentException("Invalid iteration count: " + iterations
+                    + ". Iterations must be between 1 and " + MAX_ITERATIONS + ".");
+        }
+        clearPassphrase();
+        this.passphrase = passphrase.clone();
+        this.iterations = iterations;
+        this.secretKey = null;
+    }
+
+    /**
+     * Checks if the secret key is derived from a passphrase.
+     *
+     * @return {@code true} if a passphrase is set, {@code false} if a raw key is set
+     */
+    public boolean usesPassphrase() {
+        return this.passphrase != null;
+    }
+
+    /**
+     * Zeroes and removes every key derived from a passphrase, for example when the user logs
+     * out. Later operations with a passphrase derive their key again.
+     */
+    public static void clearDerivedKeys() {
+        DerivedKeyCache.clear();
+    }
+
+    /**
+     * Zeroes and removes every key derived from a passphrase, like {@link #clearDerivedKeys()},
+     * and drops the ciphers the current thread keeps initialized with raw keys. Other threads
+     * drop their ciphers by themselves once they were not used for a minute.
+     */
+    public static void clearCaches() {
+        DerivedKeyCache.clear();
+        CipherCache.clear();
+    }
+
+    /**
+     * Zeroes the copy of the passphrase, if any.
+     */
+    private void clearPassphrase() {
+        if (this.passphrase != null) {
+            Arrays.fill(this.passphrase, '\0');
+            this.passphrase = null;
+        }
+    }
+
+    /**
+     * Sets the initialization vector (IV) for the Aes algorithm. The IV must have the length
+     * required by the cipher mode: 16 bytes for CBC and CTR, or a 12-byte nonce for GCM.
+     *
+     * <p>
+     * The IV is only used by modes whose ciphertext does not carry its own IV. In
+     * {@link Mode#CTR} and {@link Mode#GCM}, and in every mode with a passphrase, every
+     * encryption draws a new IV or nonce and writes it in front of the ciphertext, and
+     * decryption reads it from there, so the IV set here is not used.
+     * </p>
      *
      * @param iv the initialization vector
+     * @throws IllegalArgumentException if the IV is null or does not have the length the mode
+     *                                  needs
+     * @see #setMode(Mode, byte[])
      */
     public void setIv(byte[] iv) {
-        if (iv.length != 16) {
-            throw new IllegalArgumentException("Invalid IV length: " + iv.length + ". IV must be 16 bytes long.");
-        }
+        checkIv(mode, iv);
         this.iv = new IvParameterSpec(iv);
     }
 
+    /**
+     * Gets a copy of the initialization vector.
+     *
+     * @return the IV
+     */
+    public byte[] getIv() {
+        return this.iv.getIV();
+    }
+
+    /**
+     * Checks that an IV has the length a cipher mode needs.
+     *
+     * @param mode the cipher mode
+     * @param iv   the initialization vector
+     * @throws IllegalArgumentException if the IV is null or does not have the length the mode
+     *                                  needs
+     */
+    private static void checkIv(Mode mode, byte[] iv) {
+        if (iv == null) {
+            throw new IllegalArgumentException("IV must not be null!");
+        }
+        if (iv.length != mode.getIvLength()) {
+            throw new IllegalArgumentException("Invalid IV length: " + iv.length + ". IV must be " + mode.getIvLength() + " bytes long.");
+        }
+    }
+
     /**
      * Checks if the provided key length is valid for Aes.
      *
@@ -119,7 +472,7 @@ public class Aes extends CryptographyMethod {
         }
         try {
             KeyGenerator keyGen = KeyGenerator.getInstance("Aes");
-            keyGen.init(keyLength);
+            keyGen.init(keyLength, RANDOM);
             return keyGen.generateKey().getEncoded();
         } catch (Exception e) {
             throw new RuntimeException("Key generation failed", e);
@@ -132,34 +485,711 @@ public class Aes extends CryptographyMethod {
      * @return the generated IV
      */
     public static byte[] generateIv() {
-        byte[] iv = new byte[16];
-        new SecureRandom().nextBytes(iv);
+        return generateIv(Mode.CBC);
+    }
+
+    /**
+     * Generates a random IV (or nonce) for the given cipher mode.
+     *
+     * @param mode the cipher mode
+     * @return the generated IV
+     */
+    public static byte[] generateIv(Mode mode) {
+        byte[] iv = new byte[mode.getIvLength()];
+        RANDOM.nextBytes(iv);
         return iv;
     }
 
+    /**
+     * Prepares the Aes path so that the first real operation is as fast as later ones.
+     *
+     * <p>
+     * The first key generation, IV and cipher of a JVM pay for loading the JCE providers,
+     * seeding the random source and running the cipher in the interpreter, which together add
+     * a few hundred milliseconds to the first operation. This method generates a key and an IV
+     * and encrypts and decrypts short messages in every {@link Mode}, both as text and through
+     * {@link CryptographyOperation}s, until the JIT compiler has compiled them. None of these
+     * operations is recorded in the {@link OperationMetrics}.
+     * </p>
+     *
+     * @see #startWarmUp()
+     */
+    public static void warmUp() {
+        byte[] key;
+        try {
+            key = generateKey(128);
+        } catch (InvalidKeyLengthException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer plaintext = ByteBuffer.allocate(WARM_UP_MESSAGE_SIZE);
+        for (Mode mode : Mode.values()) {
+            Aes aes;
+            try {
+                aes = new Aes(DEFAULT_INPUT_MODE, DEFAULT_OUTPUT_MODE, mode, key, generateIv(mode));
+            } catch (InvalidKeyLengthException e) {
+                throw new IllegalStateException(e);
+            }
+            ByteBuffer ciphertext = ByteBuffer.allocate(aes.getOutputSize(WARM_UP_MESSAGE_SIZE));
+            ByteBuffer decrypted = ByteBuffer.allocate(WARM_UP_MESSAGE_SIZE + BLOCK_SIZE);
+            for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+                // The unmeasured methods keep the warm-up out of the OperationMetrics
+                aes.decryptText(aes.encryptText("Warm-up"));
+
+                CryptographyOperation encryption = aes.startEncryption();
+                encryption.update(plaintext.clear(), ciphertext.clear());
+                encryption.doFinal(ciphertext);
+                CryptographyOperation decryption = aes.startDecryption();
+                decryption.update(ciphertext.flip(), decrypted.clear());
+                decryption.doFinal(decrypted);
+            }
+        }
+    }
+
+    /**
+     * Runs {@link #warmUp()} on a new daemon thread, so that an application or service can
+     * prepare the Aes path while it starts up. Any failure is ignored, since the warm-up only
+     * affects how fast the first operation is.
+     *
+     * @return the started thread
+     */
+    public static Thread startWarmUp() {
+        Thread thread = new Thread(() -> {
+            try {
+                warmUp();
+            } catch (RuntimeException e) {
+                // The first real operation reports the same failure
+            }
+        }, "aes-warm-up");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Returns the maximum number of bytes produced by encrypting or decrypting
+     * {@code inputLength} bytes, which includes room for the PKCS#5 padding block in
+     * {@link Mode#CBC}, for the tags in {@link Mode#GCM} and for the passphrase header and IV
+     * in front of the ciphertext.
+     *
+     * @param inputLength the number of input bytes
+     * @return the maximum number of output bytes
+     */
+    @Override
+    public int getOutputSize(int inputLength) {
+        return prefixLength() + switch (mode) {
+            case CBC -> inputLength + BLOCK_SIZE - inputLength % BLOCK_SIZE;
+            case CTR -> inputLength;
+            case GCM -> GcmOperation.getEncryptedSize(inputLength);
+        };
+    }
+
+    /**
+     * Encrypts the given plaintext. The plaintext is decoded based on the input mode, and
+     * the ciphertext is always Base64 encoded.
+     *
+     * @param plaintext the plaintext to encrypt
+     * @return the Base64 encoded ciphertext
+     */
+    @Override
+    protected String encryptText(String plaintext) {
+        byte[] ciphertext = encryptBytes(decodeInputBytes(plaintext));
+        return Base64.getEncoder().encodeToString(ciphertext);
+    }
+
+    /**
+     * Decrypts the given Base64 encoded ciphertext. The plaintext is encoded based on the
+     * output mode.
+     *
+     * @param ciphertext the Base64 encoded ciphertext to decrypt
+     * @return the decrypted plaintext
+     */
+    @Override
+    protected String decryptText(String ciphertext) {
+        byte[] plaintext = decryptBytes(Base64.getDecoder().decode(ciphertext));
+        return encodeOutputBytes(plaintext);
+    }
+
+    /**
+     * Encodes the ciphertext as Base64, like {@link #encrypt(String)}, independent of the
+     * output mode.
+     *
+     * @param out the stream receiving the Base64 ciphertext
+     * @return the stream encoding the ciphertext bytes
+     */
+    @Override
+    protected OutputStream encodeCiphertext(OutputStream out) {
+        return Base64Codec.encodingOutputStream(out);
+    }
+
+    /**
+     * Decodes the ciphertext from Base64, like {@link #decrypt(String)}, independent of the
+     * input mode.
+     *
+     * @param in the stream providing the Base64 ciphertext
+     * @return the stream returning the ciphertext bytes
+     */
+    @Override
+    protected InputStream decodeCiphertext(InputStream in) {
+        return Base64Codec.decodingInputStream(in);
+    }
+
+    /**
+     * Encrypts the remaining bytes of {@code src} into {@code dst}. In {@link Mode#CTR},
+     * inputs of 512 KiB or more are encrypted in parallel on the pool. The ciphertext is
+     * preceded by its passphrase header, if any, and by its IV if it carries one.
+     *
+     * @param src the plaintext bytes
+     * @param dst the buffer receiving the ciphertext bytes
+     * @throws RuntimeException if the encryption fails, including when {@code dst} is too small
+     */
     @Override
-    public String encrypt(String plaintext) {
-        plaintext = decodeInput(plaintext);
+    public void encrypt(ByteBuffer src, ByteBuffer dst) {
         try {
-            Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey, iv);
-            return Base64.getEncoder().encodeToString(cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8)));
-        } catch (Exception e) {
+            byte[] prefix = createPrefix();
+            SecretKey key = keyOf(prefix);
+            byte[] messageIv = ivOf(prefix);
+            dst.put(prefix);
+            if (mode == Mode.GCM) {
+                CryptographyOperation operation = startOperation(Cipher.ENCRYPT_MODE, key, messageIv);
+                operation.update(src, dst);
+                operation.doFinal(dst);
+                return;
+            }
+            if (mode == Mode.CTR && src.remaining() >= PARALLEL_THRESHOLD) {
+                ParallelAes.ctr(pool, key, messageIv, 0, src, dst);
+                return;
+            }
+            doFinal(Cipher.ENCRYPT_MODE, key, messageIv, src, dst);
+        } catch (GeneralSecurityException e) {
             throw new RuntimeException("Encryption failed", e);
         }
     }
 
+    /**
+     * Decrypts the remaining bytes of {@code src} into {@code dst}. Inputs of 512 KiB or more
+     * are decrypted in parallel on the pool. With a passphrase, the key is derived from the
+     * header at the start of {@code src}, and the IV is read from {@code src} if the ciphertext
+     * carries one.
+     *
+     * @param src the ciphertext bytes
+     * @param dst the buffer receiving the plaintext bytes
+     * @throws RuntimeException if the decryption fails, including when {@code dst} is too small
+     *                          or the passphrase header or IV is missing or invalid
+     */
     @Override
-    public String decrypt(String ciphertext) {
+    public void decrypt(ByteBuffer src, ByteBuffer dst) {
         try {
-            Cipher cipher = Cipher.getInstance("Aes/CBC/PKCS5Padding");
-            cipher.init(Cipher.DECRYPT_MODE, secretKey, iv);
-            return encodeOutput(new String(cipher.doFinal(Base64.getDecoder().decode(ciphertext))));
-        } catch (Exception e) {
+            byte[] prefix = new byte[prefixLength()];
+            if (src.remaining() < prefix.length) {
+                throw new GeneralSecurityException("Missing ciphertext header");
+            }
+            src.get(prefix);
+            SecretKey key = keyOf(prefix);
+            byte[] messageIv = ivOf(prefix);
+            if (mode == Mode.GCM) {
+                CryptographyOperation operation = startOperation(Cipher.DECRYPT_MODE, key, messageIv);
+                operation.update(src, dst);
+                operation.doFinal(dst);
+                return;
+            }
+            if (src.remaining() >= PARALLEL_THRESHOLD) {
+                switch (mode) {
+                    case CBC -> ParallelAes.cbcDecrypt(pool, key, messageIv, src, dst, true);
+                    case CTR -> ParallelAes.ctr(pool, key, messageIv, 0, src, dst);
+                }
+                return;
+            }
+            doFinal(Cipher.DECRYPT_MODE, key, messageIv, src, dst);
+        } catch (GeneralSecurityException e) {
             throw new RuntimeException("Decryption failed", e);
         }
     }
 
+    /**
+     * Starts an incremental encryption. In {@link Mode#CBC} and {@link Mode#CTR} the input is
+     * fed to {@link Cipher#update} and the last block is padded in
+     * {@link CryptographyOperation#doFinal}; in {@link Mode#GCM} each complete segment is
+     * encrypted as soon as it is known not to be the last one. With a passphrase, the key is
+     * derived here. The passphrase header and the IV of the message, if it carries one, are
+     * written before the first ciphertext bytes.
+     *
+     * @return a new encryption operation
+     * @throws RuntimeException if the cipher cannot be initialized or the key cannot be derived
+     */
+    @Override
+    public CryptographyOperation startEncryption() {
+        if (prefixLength() == 0) {
+            return startOperation(Cipher.ENCRYPT_MODE, secretKey, iv.getIV());
+        }
+        try {
+            byte[] prefix = createPrefix();
+            return new PrefixOperation(prefix, startOperation(Cipher.ENCRYPT_MODE, keyOf(prefix), ivOf(prefix)));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Encryption failed", e);
+        }
+    }
+
+    /**
+     * Starts an incremental decryption. In {@link Mode#GCM} the plaintext of each segment is
+     * released only after its tag has been checked, so memory use is bounded by the segment
+     * size. The cipher is only initialized once the passphrase header and the IV, if the
+     * ciphertext carries them, have been read.
+     *
+     * @return a new decryption operation
+     * @throws RuntimeException if the cipher cannot be initialized
+     */
+    @Override
+    public CryptographyOperation startDecryption() {
+        if (prefixLength() == 0) {
+            return startOperation(Cipher.DECRYPT_MODE, secretKey, iv.getIV());
+        }
+        return new PrefixOperation(null, null);
+    }
+
+    /**
+     * Starts an incremental operation for the current cipher mode.
+     *
+     * @param opmode    {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}
+     * @param key       the secret key
+     * @param messageIv the IV of the message
+     * @return a new operation
+     * @throws RuntimeException if the cipher cannot be initialized
+     */
+    private CryptographyOperation startOperation(int opmode, SecretKey key, byte[] messageIv) {
+        String failureMessage = opmode == Cipher.ENCRYPT_MODE ? "Encryption failed" : "Decryption failed";
+        try {
+            if (mode == Mode.GCM) {
+                return new GcmOperation(Cipher.getInstance(mode.getTransformation()), opmode, key, messageIv);
+            }
+            return new CipherOperation(initCipher(opmode, key, messageIv), failureMessage);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(failureMessage, e);
+        }
+    }
+
+    /**
+     * Returns whether every ciphertext starts with its own random IV instead of using the IV
+     * of this object.
+     *
+     * @return {@code true} in {@link Mode#CTR} and {@link Mode#GCM}, and in every mode with a
+     *         passphrase
+     */
+    private boolean ivInCiphertext() {
+        return mode != Mode.CBC || usesPassphrase();
+    }
+
+    /**
+     * Returns the length of what precedes the encrypted data in a ciphertext: the passphrase
+     * header, if any, followed by the IV, if the ciphertext carries it.
+     *
+     * @return the length of the prefix in bytes
+     */
+    private int prefixLength() {
+        return (usesPassphrase() ? HEADER_LENGTH : 0) + (ivInCiphertext() ? mode.getIvLength() : 0);
+    }
+
+    /**
+     * Creates the prefix of a new ciphertext, with a new random IV if the ciphertext carries
+     * one.
+     *
+     * @return the prefix, which may be empty
+     * @throws GeneralSecurityException if the passphrase cannot be looked up in the cache
+     */
+    private byte[] createPrefix() throws GeneralSecurityException {
+        ByteBuffer prefix = ByteBuffer.allocate(prefixLength());
+        if (usesPassphrase()) {
+            prefix.put(createHeader());
+        }
+        if (ivInCiphertext()) {
+            prefix.put(generateIv(mode));
+        }
+        return prefix.array();
+    }
+
+    /**
+     * Returns the key of a ciphertext, derived from its passphrase header if it has one.
+     *
+     * @param prefix the prefix of the ciphertext
+     * @return the key
+     * @throws GeneralSecurityException if the header is invalid or the key cannot be derived
+     */
+    private SecretKey keyOf(byte[] prefix) throws GeneralSecurityException {
+        return usesPassphrase() ? deriveKey(prefix) : secretKey;
+    }
+
+    /**
+     * Returns the IV of a ciphertext: the one at the end of its prefix if it carries one, and
+     * the IV of this object otherwise.
+     *
+     * @param prefix the prefix of the ciphertext
+     * @return the IV
+     */
+    private byte[] ivOf(byte[] prefix) {
+        return ivInCiphertext() ? Arrays.copyOfRange(prefix, prefix.length - mode.getIvLength(), prefix.length) : iv.getIV();
+    }
+
+    /**
+     * Creates the passphrase header of a new ciphertext, reusing the salt of the last key
+     * derived from the passphrase if it is still cached.
+     *
+     * @return the header
+     * @throws GeneralSecurityException if the passphrase cannot be looked up in the cache
+     */
+    private byte[] createHeader() throws GeneralSecurityException {
+        byte[] salt = DerivedKeyCache.latestSalt(passphrase, iterations, PASSPHRASE_KEY_LENGTH);
+        if (salt == null) {
+            salt = new byte[SALT_LENGTH];
+            RANDOM.nextBytes(salt);
+        }
+        return ByteBuffer.allocate(HEADER_LENGTH).put(HEADER_VERSION).putInt(iterations).put(salt).array();
+    }
+
+    /**
+     * Derives the key of a ciphertext from the passphrase and the iteration count and salt in
+     * its header.
+     *
+     * @param header the passphrase header, or a prefix starting with it
+     * @return the derived key
+     * @throws GeneralSecurityException if the header is invalid or the key cannot be derived
+     */
+    private SecretKey deriveKey(byte[] header) throws GeneralSecurityException {
+        ByteBuffer buffer = ByteBuffer.wrap(header);
+        byte version = buffer.get();
+        int headerIterations = buffer.getInt();
+        if (version != HEADER_VERSION || headerIterations < 1 || headerIterations > MAX_ITERATIONS) {
+            throw new GeneralSecurityException("Invalid passphrase header");
+        }
+        byte[] salt = new byte[SALT_LENGTH];
+        buffer.get(salt);
+        return DerivedKeyCache.derive(passphrase, salt, headerIterations, PASSPHRASE_KEY_LENGTH);
+    }
+
+    /**
+     * Encrypts the {@code source} file into the {@code target} file. The ciphertext is written
+     * to a temporary file next to {@code target}, which replaces {@code target} once it is
+     * complete, so a failed encryption leaves {@code target} unchanged.
+     *
+     * <p>
+     * Both files are memory-mapped in windows of 64 MiB, and each mapped input window is
+     * passed to {@link Cipher#update(ByteBuffer, ByteBuffer)} together with the mapped output
+     * window, so the file content is never copied into a heap buffer and files of any size
+     * can be encrypted. In {@link Mode#CTR}, each window is encrypted in parallel on the pool.
+     * The input and output modes are not applied.
+     * </p>
+     *
+     * @param source the plaintext file
+     * @param target the file receiving the ciphertext
+     * @throws IOException      if either file cannot be read, written or mapped
+     * @throws RuntimeException if the encryption fails
+     */
+    public void encryptFile(Path source, Path target) throws IOException {
+        try {
+            transformFile(Cipher.ENCRYPT_MODE, source, target);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Encryption failed", e);
+        }
+    }
+
+    /**
+     * Decrypts the {@code source} file into the {@code target} file. Each mapped window is
+     * decrypted in parallel on the pool. As with {@link #encryptFile(Path, Path)}, a failed
+     * decryption, for example with the wrong key, leaves {@code target} unchanged.
+     *
+     * @param source the ciphertext file
+     * @param target the file receiving the plaintext
+     * @throws IOException      if either file cannot be read, written or mapped
+     * @throws RuntimeException if the decryption fails
+     * @see #encryptFile(Path, Path)
+     */
+    public void decryptFile(Path source, Path target) throws IOException {
+        try {
+            transformFile(Cipher.DECRYPT_MODE, source, target);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Decryption failed", e);
+        }
+    }
+
+    /**
+     * Encrypts or decrypts the {@code source} file into the {@code target} file, recording the
+     * operation in the {@link OperationMetrics} of this algorithm.
+     *
+     * @param opmode {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}
+     * @param source the input file
+     * @param target the output file
+     * @throws IOException              if either file cannot be read, written or mapped
+     * @throws GeneralSecurityException if the cipher fails
+     */
+    private void transformFile(int opmode, Path source, Path target) throws IOException, GeneralSecurityException {
+        if (!OperationMetrics.isEnabled()) {
+            replaceFile(opmode, source, target);
+            return;
+        }
+        OperationMetrics metrics = opmode == Cipher.ENCRYPT_MODE ? encryptionMetrics() : decryptionMetrics();
+        long start = System.nanoTime();
+        try {
+            long inputLength = Files.size(source);
+            metrics.recordSuccess(inputLength, replaceFile(opmode, source, target), 1, start);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            metrics.recordFailure(1, start);
+            throw e;
+        }
+    }
+
+    /**
+     * Encrypts or decrypts the {@code source} file into a temporary file in the directory of
+     * {@code target}, and moves it over {@code target} once the whole output is written. A
+     * failure, such as a wrong key or a truncated ciphertext, deletes the temporary file and
+     * leaves {@code target} as it was, and {@code source} and {@code target} may be the same
+     * file. The temporary file, and so the new {@code target}, is only accessible to its owner
+     * where the file system supports permissions.
+     *
+     * @param opmode {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}
+     * @param source the input file
+     * @param target the output file
+     * @return the number of bytes written to {@code target}
+     * @throws IOException              if a file cannot be read, written, mapped or moved
+     * @throws GeneralSecurityException if the cipher fails
+     */
+    private long replaceFile(int opmode, Path source, Path target) throws IOException, GeneralSecurityException {
+        Path temporary = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            long written = mapFile(opmode, source, temporary);
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return written;
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Encrypts or decrypts the {@code source} file into the {@code target} file, one mapped
+     * window at a time.
+     *
+     * <p>
+     * CTR mode and CBC decryption run on the pool; everything else goes through a single
+     * {@link CryptographyOperation}. The output window for each step is mapped with room for
+     * the largest possible output, which grows the target file as needed. The target is
+     * truncated to the number of bytes actually written at the end.
+     * </p>
+     *
+     * @param opmode {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}
+     * @param source the input file
+     * @param target the output file, which must exist
+     * @return the number of bytes written to {@code target}
+     * @throws IOException              if either file cannot be read, written or mapped
+     * @throws GeneralSecurityException if the cipher fails
+     */
+    private long mapFile(int opmode, Path source, Path target) throws IOException, GeneralSecurityException {
+        boolean parallel = mode == Mode.CTR || (mode == Mode.CBC && opmode == Cipher.DECRYPT_MODE);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long inPosition = 0;
+            long outPosition = 0;
+            // The prefix is copied as is, and the encrypted data and its counter blocks start after it
+            ByteBuffer prefix = ByteBuffer.allocate(prefixLength());
+            if (opmode == Cipher.ENCRYPT_MODE) {
+                prefix.put(createPrefix()).flip();
+                outPosition = out.write(prefix, 0);
+            } else {
+                inPosition = in.read(prefix, 0);
+                if (prefix.hasRemaining()) {
+                    throw new GeneralSecurityException("Missing ciphertext header");
+                }
+            }
+            SecretKey key = keyOf(prefix.array());
+            byte[] messageIv = ivOf(prefix.array());
+            byte[] previousBlock = messageIv;
+            long dataStart = inPosition;
+            CryptographyOperation operation = parallel ? null : startOperation(opmode, key, messageIv);
+            while (inPosition < size) {
+                int window = (int) Math.min(MAPPED_WINDOW_SIZE, size - inPosition);
+                MappedByteBuffer input = in.map(FileChannel.MapMode.READ_ONLY, inPosition, window);
+                if (mode == Mode.CTR) {
+                    MappedByteBuffer output = out.map(FileChannel.MapMode.READ_WRITE, outPosition, window);
+                    ParallelAes.ctr(pool, key, messageIv, (inPosition - dataStart) / BLOCK_SIZE, input, output);
+                    outPosition += window;
+                } else if (parallel) {
+                    // CBC decryption: the next window is chained to the last ciphertext block of this one
+                    byte[] lastBlock = new byte[BLOCK_SIZE];
+                    if (window >= BLOCK_SIZE) {
+                        input.get(window - BLOCK_SIZE, lastBlock);
+                    }
+                    boolean last = inPosition + window == size;
+                    MappedByteBuffer output = out.map(FileChannel.MapMode.READ_WRITE, outPosition, window);
+                    outPosition += ParallelAes.cbcDecrypt(pool, key, previousBlock, input, output, last);
+                    previousBlock = lastBlock;
+                } else {
+                    MappedByteBuffer output = out.map(FileChannel.MapMode.READ_WRITE, outPosition, operation.getOutputSize(window));
+                    operation.update(input, output);
+                    outPosition += output.position();
+                }
+                inPosition += window;
+            }
+
+            if (operation != null) {
+                MappedByteBuffer output = out.map(FileChannel.MapMode.READ_WRITE, outPosition, operation.getOutputSize(0));
+                operation.doFinal(output);
+                outPosition += output.position();
+            }
+            out.truncate(outPosition);
+            return outPosition;
+        }
+    }
+
+    /**
+     * Encrypts or decrypts {@code src} into {@code dst} in a single call, using a cipher from
+     * the current thread's {@link CipherCache}.
+     *
+     * @param opmode    {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}
+     * @param key       the secret key
+     * @param messageIv the IV of the message
+     * @param src       the input bytes
+     * @param dst       the buffer receiving the output bytes
+     * @throws GeneralSecurityException if the cipher fails
+     */
+    private void doFinal(int opmode, SecretKey key, byte[] messageIv, ByteBuffer src, ByteBuffer dst) throws GeneralSecurityException {
+        CipherCache.Entry entry = CipherCache.acquire(mode.getTransformation(), opmode, key, messageIv);
+        entry.cipher().doFinal(src, dst);
+        CipherCache.release(entry);
+    }
+
+    /**
+     * Creates a cipher initialized with a key and an IV. Used for operations that keep
+     * their cipher across calls, which must not share it with the {@link CipherCache}.
+     *
+     * @param opmode    {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}
+     * @param key       the secret key
+     * @param messageIv the IV of the message
+     * @return the initialized cipher
+     * @throws GeneralSecurityException if the cipher cannot be created or initialized
+     */
+    private Cipher initCipher(int opmode, SecretKey key, byte[] messageIv) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(mode.getTransformation());
+        cipher.init(opmode, key, new IvParameterSpec(messageIv));
+        return cipher;
+    }
+
+    /**
+     * Incremental operation on a ciphertext with a prefix. Encryption writes the prefix before
+     * the output of the wrapped operation. Decryption collects the prefix from the input and
+     * only then derives the key and starts the wrapped operation with the IV of the prefix.
+     */
+    private final class PrefixOperation implements CryptographyOperation {
+        private byte[] prefix;
+        private int prefixPosition;
+        private CryptographyOperation operation;
+
+        /**
+         * Constructs an encryption writing {@code prefix}, or a decryption reading it if both
+         * arguments are null.
+         *
+         * @param prefix    the prefix to write, or null to read it
+         * @param operation the operation encrypting with the key and IV of the prefix, or null
+         */
+        private PrefixOperation(byte[] prefix, CryptographyOperation operation) {
+            this.prefix = prefix == null ? new byte[prefixLength()] : prefix;
+            this.prefixPosition = prefix == null ? 0 : prefix.length;
+            this.operation = operation;
+        }
+
+        @Override
+        public int getOutputSize(int inputLength) {
+            if (operation == null) {
+                return Aes.this.getOutputSize(inputLength);
+            }
+            return operation.getOutputSize(inputLength) + (prefix == null ? 0 : prefix.length);
+        }
+
+        @Override
+        public void update(ByteBuffer src, ByteBuffer dst) {
+            if (operation == null) {
+                int length = Math.min(src.remaining(), prefix.length - prefixPosition);
+                src.get(prefix, prefixPosition, length);
+                prefixPosition += length;
+                if (prefixPosition < prefix.length) {
+                    return;
+                }
+                try {
+                    operation = startOperation(Cipher.DECRYPT_MODE, keyOf(prefix), ivOf(prefix));
+                } catch (GeneralSecurityException e) {
+                    throw new RuntimeException("Decryption failed", e);
+                }
+                prefix = null;
+            }
+            writePrefix(dst);
+            operation.update(src, dst);
+        }
+
+        @Override
+        public void doFinal(ByteBuffer dst) {
+            if (operation == null) {
+                throw new RuntimeException("Decryption failed", new GeneralSecurityException("Missing ciphertext header"));
+            }
+            writePrefix(dst);
+            operation.doFinal(dst);
+        }
+
+        /**
+         * Writes the prefix of an encryption before its first output.
+         *
+         * @param dst the buffer receiving the ciphertext
+         */
+        private void writePrefix(ByteBuffer dst) {
+            if (prefix != null) {
+                dst.put(prefix);
+                prefix = null;
+            }
+        }
+    }
+
+    /**
+     * Incremental operation backed by an initialized {@link Cipher}.
+     */
+    private static final class CipherOperation implements CryptographyOperation {
+        private final Cipher cipher;
+        private final String failureMessage;
+
+        private CipherOperation(Cipher cipher, String failureMessage) {
+            this.cipher = cipher;
+            this.failureMessage = failureMessage;
+        }
+
+        @Override
+        public int getOutputSize(int inputLength) {
+            return cipher.getOutputSize(inputLength);
+        }
+
+        @Override
+        public void update(ByteBuffer src, ByteBuffer dst) {
+            try {
+                cipher.update(src, dst);
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException(failureMessage, e);
+            }
+        }
+
+        @Override
+        public void doFinal(ByteBuffer dst) {
+            try {
+                cipher.doFinal(ByteBuffer.allocate(0), dst);
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException(failureMessage, e);
+            }
+        }
+    }
+
     /**
      * Returns a string representation of the Aes object.
      *
@@ -168,7 +1198,8 @@ public class Aes extends CryptographyMethod {
     @Override
     public String toString() {
         String inputOutput = super.toString();
-        return "Aes:\n" + inputOutput.substring(inputOutput.indexOf(':') + 2) + "\nSecret Key: " + Arrays.toString(this.secretKey.getEncoded()) + "\nIV: " + Arrays.toString(this.iv.getIV());
+        String key = usesPassphrase() ? "derived from passphrase (" + this.iterations + " iterations)" : Arrays.toString(this.secretKey.getEncoded());
+        return "Aes:\n" + inputOutput.substring(inputOutput.indexOf(':') + 2) + "\nCipher Mode: " + this.mode + "\nSecret Key: " + key + "\nIV: " + Arrays.toString(this.iv.getIV());
     }
 
     /**
@@ -182,7 +1213,10 @@ public class Aes extends CryptographyMethod {
         if (!(other instanceof Aes otherAes)) {
             return false;
         }
-        return super.equals(otherAes) && Arrays.equals(this.secretKey.getEncoded(), otherAes.secretKey.getEncoded()) &&
+        boolean sameKey = usesPassphrase()
+                ? Arrays.equals(this.passphrase, otherAes.passphrase) && this.iterations == otherAes.iterations
+                : !otherAes.usesPassphrase() && Arrays.equals(this.secretKey.getEncoded(), otherAes.secretKey.getEncoded());
+        return super.equals(otherAes) && this.mode == otherAes.mode && sameKey &&
                 Arrays.equals(this.iv.getIV(), otherAes.iv.getIV());
     }
 }
\ No newline at end of file
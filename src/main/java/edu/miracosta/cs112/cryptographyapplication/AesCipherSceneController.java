@@ -1,20 +1,17 @@
 package edu.miracosta.cs112.cryptographyapplication;
 
-import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
-import javafx.stage.Stage;
+import javafx.scene.layout.HBox;
 import java.io.IOException;
 import java.net.URL;
-import java.util.Objects;
 import java.util.ResourceBundle;
 
 public class AesCipherSceneController implements Initializable {
@@ -30,6 +27,9 @@ public class AesCipherSceneController implements Initializable {
     @FXML
     private TextField ivTextField;
 
+    @FXML
+    private CheckBox passphraseCheckBox;
+
     @FXML
     private TextArea inputTextArea;
 
@@ -39,8 +39,23 @@ public class AesCipherSceneController implements Initializable {
     @FXML
     private Label messageLabel;
 
+    @FXML
+    private Button encryptButton;
+
+    @FXML
+    private Button decryptButton;
+
+    @FXML
+    private HBox progressBox;
+
+    @FXML
+    private ProgressBar progressBar;
+
     private final String[] modes = {"Plaintext", "Base64", "Hex"};
 
+    // Runs the operations in the background
+    private CipherTaskRunner taskRunner;
+
     // Convert the String modes to corresponding integers
     private int stringToMode(String mode) {
         mode = mode.toLowerCase();
@@ -60,6 +75,11 @@ public class AesCipherSceneController implements Initializable {
         String iv = ivTextField.getText();
 
         try {
+            // A passphrase of any length is stretched into a key with PBKDF2 when the operation runs, off the FX thread.
+            // Every message then gets a fresh IV, which travels in front of the ciphertext, so the IV field is ignored
+            if (passphraseCheckBox.isSelected()) {
+                return new Aes(inputMode, outputMode, Aes.Mode.CBC, key.toCharArray(), Aes.DEFAULT_ITERATIONS, null);
+            }
             return new Aes(inputMode, outputMode, key.getBytes(), iv.getBytes());
         } catch (IllegalArgumentException | InvalidKeyLengthException e) {
             messageLabel.setText(e.getMessage());
@@ -76,18 +96,26 @@ public class AesCipherSceneController implements Initializable {
         // Set the default modes to Plaintext
         inputModeBox.setValue("Plaintext");
         outputModeBox.setValue("Plaintext");
+
+        taskRunner = new CipherTaskRunner(outputTextArea, messageLabel, progressBox, progressBar, () -> false,
+                encryptButton, decryptButton);
+
+        // A passphrase draws a new IV for every message, so no IV can be entered
+        ivTextField.disableProperty().bind(passphraseCheckBox.selectedProperty());
+    }
+
+    // Report an operation that succeeded in the message label
+    private void showSuccess(boolean succeeded, String message) {
+        if (succeeded) {
+            messageLabel.setText(message);
+        }
     }
 
     @FXML
     protected void onEncryptButtonClick() {
         Aes aes = createAesObject();
         if (aes != null) {
-            try {
-                outputTextArea.setText(aes.encrypt(inputTextArea.getText()));
-                messageLabel.setText("Encryption successful!");
-            } catch (RuntimeException e) {
-                messageLabel.setText(e.getMessage());
-            }
+            taskRunner.run(new CipherTask(aes, true, inputTextArea.getText()), succeeded -> showSuccess(succeeded, "Encryption successful!"));
         }
     }
 
@@ -95,24 +123,18 @@ public class AesCipherSceneController implements Initializable {
     protected void onDecryptButtonClick() {
         Aes aes = createAesObject();
         if (aes != null) {
-            try {
-                outputTextArea.setText(aes.decrypt(inputTextArea.getText()));
-                messageLabel.setText("Decryption successful!");
-            } catch (RuntimeException e) {
-                messageLabel.setText(e.getMessage());
-            }
+            taskRunner.run(new CipherTask(aes, false, inputTextArea.getText()), succeeded -> showSuccess(succeeded, "Decryption successful!"));
         }
     }
 
-    // Load the start menu
     @FXML
-    protected void onBackButtonClick(ActionEvent actionEvent) throws IOException {
-        Parent startView = FXMLLoader.load(Objects.requireNonNull(getClass().getResource("StartScene.fxml")));
-        Scene startScene = new Scene(startView);
-
-        Stage window = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
+    protected void onCancelButtonClick() {
+        taskRunner.cancel();
+    }
 
-        window.setScene(startScene);
-        window.show();
+    // Show the start menu. The scene keeps its state, and an operation still running finishes in the background.
+    @FXML
+    protected void onBackButtonClick() throws IOException {
+        SceneNavigator.show(SceneNavigator.View.START);
     }
 }
\ No newline at end of file
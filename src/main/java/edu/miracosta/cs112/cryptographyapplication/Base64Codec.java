@@ -0,0 +1,240 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Incremental Base64 codec built on {@link Base64.Encoder} and {@link Base64.Decoder}.
+ *
+ * <p>
+ * The encoded form is the basic Base64 alphabet of RFC 4648 with padding, as ASCII bytes. Text
+ * is always converted to bytes as UTF-8 before it is encoded, independent of the platform's
+ * default charset.
+ * </p>
+ *
+ * <p>
+ * {@link #encodingOutputStream(OutputStream)} and {@link #decodingInputStream(InputStream)} are
+ * the streams returned by {@link Base64.Encoder#wrap(OutputStream)} and, with the MIME decoder,
+ * {@link Base64.Decoder#wrap(InputStream)}. The other direction of each, and chunks of
+ * {@link ByteBuffer}s, are handled by {@link #startEncoding()} and {@link #startDecoding()},
+ * which convert whole groups of three bytes or four characters at a time and carry the rest
+ * over to the next chunk. None of them hold more than one chunk in memory.
+ * </p>
+ *
+ * @see CryptographyMethod#base64Encode(String)
+ *
+ * @version 1.0
+ */
+public final class Base64Codec {
+
+    private static final byte PADDING = '=';
+
+    private Base64Codec() {
+    }
+
+    /**
+     * Starts an incremental encoding.
+     *
+     * @return a new operation encoding its input into Base64 characters
+     */
+    public static CryptographyOperation startEncoding() {
+        return new Encoding();
+    }
+
+    /**
+     * Starts an incremental decoding. Padding is accepted but not required at the end of the
+     * input, and any character after it is rejected.
+     *
+     * @return a new operation decoding Base64 characters into bytes
+     */
+    public static CryptographyOperation startDecoding() {
+        return new Decoding();
+    }
+
+    /**
+     * Returns an output stream that encodes everything written to it and writes the characters
+     * to {@code out}. The stream must be closed to write the final characters and padding.
+     *
+     * @param out the stream receiving the Base64 characters
+     * @return the encoding output stream
+     */
+    public static OutputStream encodingOutputStream(OutputStream out) {
+        return Base64.getEncoder().wrap(out);
+    }
+
+    /**
+     * Returns an output stream that decodes the Base64 characters written to it and writes the
+     * bytes to {@code out}. The stream must be closed to write the final bytes.
+     *
+     * @param out the stream receiving the decoded bytes
+     * @return the decoding output stream
+     */
+    public static OutputStream decodingOutputStream(OutputStream out) {
+        return new CryptographyOutputStream(out, startDecoding());
+    }
+
+    /**
+     * Returns an input stream that reads bytes from {@code in} and returns their Base64
+     * characters.
+     *
+     * @param in the stream providing the bytes
+     * @return the encoding input stream
+     */
+    public static InputStream encodingInputStream(InputStream in) {
+        return new CryptographyInputStream(in, startEncoding());
+    }
+
+    /**
+     * Returns an input stream that reads Base64 characters from {@code in} and returns the
+     * decoded bytes. Line breaks and other characters outside the Base64 alphabet are skipped,
+     * so wrapped and newline-terminated input is accepted.
+     *
+     * @param in the stream providing the Base64 characters
+     * @return the decoding input stream
+     */
+    public static InputStream decodingInputStream(InputStream in) {
+        return Base64.getMimeDecoder().wrap(in);
+    }
+
+    /**
+     * Moves up to {@code length} bytes from {@code src} into the carry-over buffer.
+     *
+     * @param src     the input
+     * @param pending the carry-over buffer
+     * @param length  the number of bytes the carry-over buffer should hold
+     */
+    private static void fill(ByteBuffer src, ByteBuffer pending, int length) {
+        while (pending.position() < length && src.hasRemaining()) {
+            pending.put(src.get());
+        }
+    }
+
+    /**
+     * Puts a converted group into {@code dst}.
+     *
+     * @param converted the output of the JDK codec
+     * @param dst       the buffer receiving it
+     * @throws BufferOverflowException if {@code dst} is too small
+     */
+    private static void put(ByteBuffer converted, ByteBuffer dst) {
+        if (dst.remaining() < converted.remaining()) {
+            throw new BufferOverflowException();
+        }
+        dst.put(converted);
+    }
+
+    /**
+     * Incremental encoding that carries up to two bytes over to the next chunk.
+     */
+    private static final class Encoding implements CryptographyOperation {
+        private final Base64.Encoder encoder = Base64.getEncoder();
+        private final ByteBuffer pending = ByteBuffer.allocate(3);
+
+        @Override
+        public int getOutputSize(int inputLength) {
+            long total = (long) pending.position() + inputLength;
+            return (int) Math.min(Integer.MAX_VALUE, (total + 2) / 3 * 4);
+        }
+
+        @Override
+        public void update(ByteBuffer src, ByteBuffer dst) {
+            if (pending.position() > 0) {
+                fill(src, pending, 3);
+                if (pending.hasRemaining()) {
+                    return;
+                }
+                pending.flip();
+                put(encoder.encode(pending), dst);
+                pending.clear();
+            }
+
+            int length = src.remaining() / 3 * 3;
+            if (length > 0) {
+                put(encoder.encode(src.slice(src.position(), length)), dst);
+                src.position(src.position() + length);
+            }
+            pending.put(src);
+        }
+
+        @Override
+        public void doFinal(ByteBuffer dst) {
+            pending.flip();
+            put(encoder.encode(pending), dst);
+            pending.clear();
+        }
+    }
+
+    /**
+     * Incremental decoding that carries up to three characters over to the next chunk.
+     */
+    private static final class Decoding implements CryptographyOperation {
+        private final Base64.Decoder decoder = Base64.getDecoder();
+        private final ByteBuffer pending = ByteBuffer.allocate(4);
+        private boolean padded;
+
+        @Override
+        public int getOutputSize(int inputLength) {
+            long total = (long) pending.position() + inputLength;
+            return (int) Math.min(Integer.MAX_VALUE, total / 4 * 3 + 2);
+        }
+
+        @Override
+        public void update(ByteBuffer src, ByteBuffer dst) {
+            if (pending.position() > 0) {
+                fill(src, pending, 4);
+                if (pending.hasRemaining()) {
+                    return;
+                }
+                pending.flip();
+                decode(pending, dst);
+                pending.clear();
+            }
+
+            int length = src.remaining() / 4 * 4;
+            if (length > 0) {
+                decode(src.slice(src.position(), length), dst);
+                src.position(src.position() + length);
+            }
+            if (src.hasRemaining()) {
+                checkNotPadded();
+                pending.put(src);
+            }
+        }
+
+        @Override
+        public void doFinal(ByteBuffer dst) {
+            pending.flip();
+            if (pending.hasRemaining()) {
+                decode(pending, dst);
+            }
+            pending.clear();
+        }
+
+        /**
+         * Decodes whole groups of characters, or the unpadded final group.
+         *
+         * @param src the characters
+         * @param dst the buffer receiving the bytes
+         * @throws IllegalArgumentException if the characters are not valid Base64, or follow the padding
+         */
+        private void decode(ByteBuffer src, ByteBuffer dst) {
+            checkNotPadded();
+            padded = src.get(src.limit() - 1) == PADDING;
+            put(decoder.decode(src), dst);
+        }
+
+        /**
+         * Rejects input following the padding that ends the encoded data.
+         *
+         * @throws IllegalArgumentException if padding was already decoded
+         */
+        private void checkNotPadded() {
+            if (padded) {
+                throw new IllegalArgumentException("Input byte array has incorrect ending byte");
+            }
+        }
+    }
+}
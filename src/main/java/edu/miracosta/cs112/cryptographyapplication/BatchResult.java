@@ -0,0 +1,90 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+/**
+ * Outcome of encrypting or decrypting one item of a batch: either the resulting text, or the
+ * exception the item failed with.
+ *
+ * @see CryptographyMethod#encryptAll(java.util.List)
+ * @see CryptographyMethod#decryptAll(java.util.List)
+ *
+ * @version 1.0
+ */
+public final class BatchResult {
+    private final String value;
+    private final RuntimeException error;
+
+    private BatchResult(String value, RuntimeException error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Creates the result of an item that succeeded.
+     *
+     * @param value the resulting text
+     * @return the result
+     */
+    static BatchResult success(String value) {
+        return new BatchResult(value, null);
+    }
+
+    /**
+     * Creates the result of an item that failed.
+     *
+     * @param error the exception the item failed with
+     * @return the result
+     */
+    static BatchResult failure(RuntimeException error) {
+        return new BatchResult(null, error);
+    }
+
+    /**
+     * Returns whether the item succeeded.
+     *
+     * @return {@code true} if the item succeeded, {@code false} if it failed
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Gets the resulting text.
+     *
+     * @return the resulting text, or {@code null} if the item failed
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the exception the item failed with.
+     *
+     * @return the exception, or {@code null} if the item succeeded
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+
+    /**
+     * Returns the resulting text, or throws the exception the item failed with.
+     *
+     * @return the resulting text
+     * @throws RuntimeException the exception the item failed with
+     */
+    public String orElseThrow() {
+        if (error != null) {
+            throw error;
+        }
+        return value;
+    }
+
+    /**
+     * Returns a string representation of the result.
+     *
+     * @return the resulting text, or the exception the item failed with
+     */
+    @Override
+    public String toString() {
+        return isSuccess() ? "Success: " + value : "Failure: " + error;
+    }
+}
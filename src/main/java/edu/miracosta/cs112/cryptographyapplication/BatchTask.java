@@ -0,0 +1,72 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Task that applies an operation to every item of a list, splitting the list in half until the
+ * parts are small enough to run on a single thread.
+ *
+ * <p>
+ * Each result is stored at the index of its item, so the results keep the order of the items
+ * whichever thread computed them. An item whose operation throws a {@link RuntimeException}
+ * gets a failed {@link BatchResult} and does not affect the other items.
+ * </p>
+ *
+ * @see CryptographyMethod#encryptAll(List, java.util.concurrent.ForkJoinPool)
+ *
+ * @version 1.0
+ */
+final class BatchTask extends RecursiveAction {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Largest number of items processed by a single task. Short messages take about a
+     * microsecond each, so smaller parts would spend more time on scheduling than on work.
+     */
+    static final int SEGMENT_SIZE = 256;
+
+    private final List<String> items;
+    private final BatchResult[] results;
+    private final UnaryOperator<String> operation;
+    private final int from;
+    private final int to;
+
+    /**
+     * Constructs a new {@code BatchTask} for the items between {@code from} and {@code to}.
+     *
+     * @param items     the items, which must support fast random access
+     * @param results   the array receiving the result of every item
+     * @param operation the operation applied to every item
+     * @param from      the index of the first item, inclusive
+     * @param to        the index of the last item, exclusive
+     */
+    BatchTask(List<String> items, BatchResult[] results, UnaryOperator<String> operation, int from, int to) {
+        this.items = items;
+        this.results = results;
+        this.operation = operation;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= SEGMENT_SIZE) {
+            for (int i = from; i < to; i++) {
+                try {
+                    results[i] = BatchResult.success(operation.apply(items.get(i)));
+                } catch (RuntimeException e) {
+                    results[i] = BatchResult.failure(e);
+                }
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new BatchTask(items, results, operation, from, middle),
+                new BatchTask(items, results, operation, middle, to));
+    }
+}
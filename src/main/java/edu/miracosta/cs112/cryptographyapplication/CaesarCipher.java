@@ -1,8 +1,16 @@
 package edu.miracosta.cs112.cryptographyapplication;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * <p>Represents a Caesar cipher encryption and decryption method.</p>
  * <p>This class extends the {@link CryptographyMethod} abstract class.</p>
+ * <p>Encryption and decryption look every character up in a translation table precomputed for each of the 26
+ * possible shifts, and never modify the cipher, so a single instance can be shared by any number of threads.</p>
+ * <p>When the application is started with {@code --add-modules jdk.incubator.vector}, byte arrays and ASCII strings of
+ * at least {@link #VECTOR_THRESHOLD} characters are translated by the SIMD kernel in {@link VectorKernels} instead.</p>
  *
  * @author Matin Sadeghian
  * @version 1.0
@@ -11,6 +19,38 @@ public class CaesarCipher extends CryptographyMethod {
     /** Default number of rotations for the Caesar cipher. */
     public static final int DEFAULT_ROTATIONS = 13;
 
+    /**
+     * Whether the incubating Vector API module is present at runtime. It is looked up by name, so no vector class is
+     * loaded when the module is absent.
+     */
+    static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /** The shortest input translated by the SIMD kernels. */
+    static final int VECTOR_THRESHOLD = 64;
+
+    /** Byte translation tables, indexed by the shift (0 to 25) and then by the unsigned byte value. */
+    private static final byte[][] BYTE_TABLES = new byte[26][256];
+
+    /** Character translation tables for the ASCII range, indexed by the shift (0 to 25) and then by the character. */
+    private static final char[][] CHAR_TABLES = new char[26][128];
+
+    static {
+        for (int shift = 0; shift < 26; shift++) {
+            for (int c = 0; c < 256; c++) {
+                int shifted = c;
+                if (c >= 'A' && c <= 'Z') { // Uppercase letters
+                    shifted = (c - 'A' + shift) % 26 + 'A';
+                } else if (c >= 'a' && c <= 'z') { // Lowercase letters
+                    shifted = (c - 'a' + shift) % 26 + 'a';
+                }
+                BYTE_TABLES[shift][c] = (byte) shifted;
+                if (c < 128) {
+                    CHAR_TABLES[shift][c] = (char) shifted;
+                }
+            }
+        }
+    }
+
     /** The number of rotations for the Caesar cipher. */
     private int rotations;
 
@@ -82,35 +122,17 @@ public class CaesarCipher extends CryptographyMethod {
      * characters remain unchanged.</p>
      *
      * <p>The plaintext is first decoded based on the input mode of the cryptography method. Then, each character
-     * in the plaintext is shifted by the specified number of rotations, considering both positive and negative rotations.
-     * Uppercase and lowercase letters are shifted separately while non-alphabetic characters remain unchanged.</p>
+     * is translated through the precomputed table for the shift, considering both positive and negative
+     * rotations. Only the ASCII letters are shifted, so every other character remains unchanged.</p>
      *
      * @param plaintext The plaintext to encrypt.
      * @return The ciphertext produced by encrypting the plaintext using the Caesar cipher algorithm.
      * @throws IllegalArgumentException If an invalid input mode is selected during decoding, or if an invalid output mode is selected during encoding.
      */
     @Override
-    public String encrypt(String plaintext) {
-        plaintext = decodeInput(plaintext); // Decode plaintext based on inputMode
-        StringBuilder ciphertext = new StringBuilder();
-
-        // Check if rotation is negative
-        if (rotations < 0) {
-            rotations = 26 + rotations % 26;
-        }
-
-        for (int i = 0; i < plaintext.length(); i++) {
-            if (Character.isUpperCase(plaintext.charAt(i))) { // Uppercase letters
-                char encryptedChar = (char)(((int)plaintext.charAt(i) + rotations - 65) % 26 + 65);
-                ciphertext.append(encryptedChar);
-            } else if (Character.isLowerCase(plaintext.charAt(i))){ // Lowercase letters
-                char encryptedChar = (char)(((int)plaintext.charAt(i) + rotations - 97) % 26 + 97);
-                ciphertext.append(encryptedChar);
-            } else { // Non-alphanumeric characters
-                ciphertext.append(plaintext.charAt(i));
-            }
-        }
-        return encodeOutput(ciphertext.toString()); // Encode ciphertext based on outputMode
+    protected String encryptText(String plaintext) {
+        String text = decodeInput(plaintext); // Decode plaintext based on inputMode
+        return encodeOutput(translate(text, encryptionShift())); // Encode ciphertext based on outputMode
     }
 
     /**
@@ -123,13 +145,263 @@ public class CaesarCipher extends CryptographyMethod {
      * @return The plaintext produced by decrypting the ciphertext using the Caesar cipher algorithm.
      */
     @Override
-    public String decrypt(String ciphertext) {
-        int originalRotations = this.rotations; // temp variable to store rotations
-        this.rotations = 26 - this.rotations;
-        String plaintext = encrypt(ciphertext);
-        this.rotations = originalRotations;
+    protected String decryptText(String ciphertext) {
+        return encodeOutput(translate(decodeInput(ciphertext), decryptionShift()));
+    }
+
+    /**
+     * <p>Encrypts {@code length} characters of {@code src} starting at {@code srcOffset} into {@code dst} starting
+     * at {@code dstOffset}.</p>
+     *
+     * <p>Nothing is allocated and the input and output modes are not applied. {@code src} and {@code dst} may be
+     * the same array.</p>
+     *
+     * @param src       The plaintext characters.
+     * @param srcOffset The index of the first plaintext character.
+     * @param dst       The array receiving the ciphertext characters.
+     * @param dstOffset The index of the first ciphertext character.
+     * @param length    The number of characters to encrypt.
+     * @throws IndexOutOfBoundsException If a range is outside of its array.
+     */
+    public void encrypt(char[] src, int srcOffset, char[] dst, int dstOffset, int length) {
+        translate(src, srcOffset, dst, dstOffset, length, CHAR_TABLES[encryptionShift()]);
+    }
 
-        return plaintext;
+    /**
+     * <p>Decrypts {@code length} characters of {@code src} starting at {@code srcOffset} into {@code dst} starting
+     * at {@code dstOffset}.</p>
+     *
+     * @param src       The ciphertext characters.
+     * @param srcOffset The index of the first ciphertext character.
+     * @param dst       The array receiving the plaintext characters.
+     * @param dstOffset The index of the first plaintext character.
+     * @param length    The number of characters to decrypt.
+     * @throws IndexOutOfBoundsException If a range is outside of its array.
+     * @see #encrypt(char[], int, char[], int, int)
+     */
+    public void decrypt(char[] src, int srcOffset, char[] dst, int dstOffset, int length) {
+        translate(src, srcOffset, dst, dstOffset, length, CHAR_TABLES[decryptionShift()]);
+    }
+
+    /**
+     * <p>Encrypts the remaining bytes of {@code src} into {@code dst} using the Caesar cipher algorithm.</p>
+     *
+     * <p>Each ASCII letter is shifted forwards by the number of rotations. Every other byte, including the bytes
+     * of multibyte UTF-8 sequences, is copied unchanged.</p>
+     *
+     * @param src The plaintext bytes to encrypt.
+     * @param dst The buffer receiving the ciphertext bytes.
+     * @throws BufferOverflowException If {@code dst} has less space remaining than {@code src}.
+     */
+    @Override
+    public void encrypt(ByteBuffer src, ByteBuffer dst) {
+        translate(src, dst, encryptionShift());
+    }
+
+    /**
+     * <p>Decrypts the remaining bytes of {@code src} into {@code dst} using the Caesar cipher algorithm.</p>
+     *
+     * <p>Each ASCII letter is shifted backwards by the number of rotations. Every other byte is copied
+     * unchanged.</p>
+     *
+     * @param src The ciphertext bytes to decrypt.
+     * @param dst The buffer receiving the plaintext bytes.
+     * @throws BufferOverflowException If {@code dst} has less space remaining than {@code src}.
+     */
+    @Override
+    public void decrypt(ByteBuffer src, ByteBuffer dst) {
+        translate(src, dst, decryptionShift());
+    }
+
+    /**
+     * <p>Starts an incremental encryption using the current number of rotations.</p>
+     *
+     * @return A new encryption operation.
+     */
+    @Override
+    public CryptographyOperation startEncryption() {
+        return new ShiftOperation(encryptionShift());
+    }
+
+    /**
+     * <p>Starts an incremental decryption using the current number of rotations.</p>
+     *
+     * @return A new decryption operation.
+     */
+    @Override
+    public CryptographyOperation startDecryption() {
+        return new ShiftOperation(decryptionShift());
+    }
+
+    /**
+     * <p>Returns the forward shift used for encryption, between 0 and 25.</p>
+     *
+     * @return The number of rotations reduced modulo 26.
+     */
+    private int encryptionShift() {
+        return Math.floorMod(this.rotations, 26);
+    }
+
+    /**
+     * <p>Returns the forward shift used for decryption, between 0 and 25.</p>
+     *
+     * @return The negated number of rotations reduced modulo 26.
+     */
+    private int decryptionShift() {
+        return Math.floorMod(-this.rotations, 26);
+    }
+
+    /**
+     * <p>Shifts every ASCII letter of a string forwards.</p>
+     *
+     * @param text  The string to translate.
+     * @param shift The number of positions to shift forwards, between 0 and 25.
+     * @return The translated string.
+     */
+    private static String translate(String text, int shift) {
+        if (VECTORIZED && text.length() >= VECTOR_THRESHOLD && isAscii(text)) {
+            byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+            translate(bytes, 0, bytes, 0, bytes.length, shift);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+        char[] chars = text.toCharArray();
+        translate(chars, 0, chars, 0, chars.length, CHAR_TABLES[shift]);
+        return new String(chars);
+    }
+
+    /**
+     * <p>Translates the remaining bytes of {@code src} into {@code dst}.</p>
+     *
+     * <p>Heap buffers are processed directly on their backing arrays.</p>
+     *
+     * @param src   The bytes to translate.
+     * @param dst   The buffer receiving the translated bytes.
+     * @param shift The number of positions to shift forwards, between 0 and 25.
+     * @throws BufferOverflowException If {@code dst} has less space remaining than {@code src}.
+     */
+    private static void translate(ByteBuffer src, ByteBuffer dst, int shift) {
+        int length = src.remaining();
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        int srcPosition = src.position();
+        int dstPosition = dst.position();
+        if (src.hasArray() && dst.hasArray()) {
+            translate(src.array(), src.arrayOffset() + srcPosition, dst.array(), dst.arrayOffset() + dstPosition, length, shift);
+        } else {
+            byte[] table = BYTE_TABLES[shift];
+            for (int i = 0; i < length; i++) {
+                dst.put(dstPosition + i, table[src.get(srcPosition + i) & 0xFF]);
+            }
+        }
+        src.position(srcPosition + length);
+        dst.position(dstPosition + length);
+    }
+
+    /**
+     * <p>Shifts every ASCII letter in a range of bytes forwards.</p>
+     *
+     * @param src       The bytes to translate.
+     * @param srcOffset The index of the first byte to translate.
+     * @param dst       The array receiving the translated bytes.
+     * @param dstOffset The index of the first translated byte.
+     * @param length    The number of bytes to translate.
+     * @param shift     The number of positions to shift forwards, between 0 and 25.
+     */
+    private static void translate(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length, int shift) {
+        byte[] table = BYTE_TABLES[shift];
+        if (VECTORIZED && length >= VECTOR_THRESHOLD) {
+            VectorKernels.caesar(src, srcOffset, dst, dstOffset, length, shift, table);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            dst[dstOffset + i] = table[src[srcOffset + i] & 0xFF];
+        }
+    }
+
+    /**
+     * <p>Translates a range of characters through {@code table}. Characters outside the ASCII range are copied
+     * unchanged.</p>
+     *
+     * @param src       The characters to translate.
+     * @param srcOffset The index of the first character to translate.
+     * @param dst       The array receiving the translated characters.
+     * @param dstOffset The index of the first translated character.
+     * @param length    The number of characters to translate.
+     * @param table     The translation table for the ASCII range.
+     * @throws IndexOutOfBoundsException If a range is outside of its array.
+     */
+    private static void translate(char[] src, int srcOffset, char[] dst, int dstOffset, int length, char[] table) {
+        if ((srcOffset | dstOffset | length) < 0 || srcOffset > src.length - length || dstOffset > dst.length - length) {
+            throw new IndexOutOfBoundsException("Range [" + srcOffset + ", " + length + ") -> [" + dstOffset + ", " + length + ")");
+        }
+        for (int i = 0; i < length; i++) {
+            char c = src[srcOffset + i];
+            dst[dstOffset + i] = c < 128 ? table[c] : c;
+        }
+    }
+
+    /**
+     * <p>Returns whether the given byte is an ASCII letter.</p>
+     *
+     * @param b The byte to check.
+     * @return {@code true} if the byte is in the range {@code A-Z} or {@code a-z}, {@code false} otherwise.
+     */
+    static boolean isLetter(byte b) {
+        return (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z');
+    }
+
+    /**
+     * <p>Returns whether every character of the given string is in the ASCII range.</p>
+     *
+     * @param text The string to check.
+     * @return {@code true} if no character is above {@code \u007f}, {@code false} otherwise.
+     */
+    static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <p>Returns the byte translation table for a forward shift.</p>
+     *
+     * @param shift The number of positions to shift forwards, between 0 and 25.
+     * @return The shared table, indexed by unsigned byte value, which must not be modified.
+     */
+    static byte[] byteTable(int shift) {
+        return BYTE_TABLES[shift];
+    }
+
+    /**
+     * <p>Incremental Caesar cipher operation. Every byte is shifted independently, so no state is carried between
+     * calls.</p>
+     */
+    private static final class ShiftOperation implements CryptographyOperation {
+        /** The number of positions this operation shifts forwards. */
+        private final int shift;
+
+        private ShiftOperation(int shift) {
+            this.shift = shift;
+        }
+
+        @Override
+        public int getOutputSize(int inputLength) {
+            return inputLength;
+        }
+
+        @Override
+        public void update(ByteBuffer src, ByteBuffer dst) {
+            translate(src, dst, this.shift);
+        }
+
+        @Override
+        public void doFinal(ByteBuffer dst) {
+        }
     }
 
     /**
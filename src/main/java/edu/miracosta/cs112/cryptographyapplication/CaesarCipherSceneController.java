@@ -1,20 +1,17 @@
 package edu.miracosta.cs112.cryptographyapplication;
 
-import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
-import javafx.stage.Stage;
+import javafx.scene.layout.HBox;
 import java.io.IOException;
 import java.net.URL;
-import java.util.Objects;
 import java.util.ResourceBundle;
 
 public class CaesarCipherSceneController implements Initializable {
@@ -36,8 +33,32 @@ public class CaesarCipherSceneController implements Initializable {
     @FXML
     private Label messageLabel;
 
+    @FXML
+    private Button encryptButton;
+
+    @FXML
+    private Button decryptButton;
+
+    @FXML
+    private HBox progressBox;
+
+    @FXML
+    private ProgressBar progressBar;
+
+    @FXML
+    private CheckBox liveCheckBox;
+
     private final String[] modes = {"Plaintext", "Base64", "Hex"};
 
+    // Runs the operations in the background
+    private CipherTaskRunner taskRunner;
+
+    // Updates the output as the user types while live mode is on
+    private LiveEncryption liveEncryption;
+
+    // The cipher the output was last fully encrypted with in live mode
+    private CaesarCipher liveCipher;
+
     // Convert the String modes to corresponding integers
     private int stringToMode(String mode) {
         mode = mode.toLowerCase();
@@ -72,17 +93,60 @@ public class CaesarCipherSceneController implements Initializable {
         // Set the default modes to Plaintext
         inputModeBox.setValue("Plaintext");
         outputModeBox.setValue("Plaintext");
+
+        // The buttons stay disabled in live mode, which keeps the output encrypted by itself
+        taskRunner = new CipherTaskRunner(outputTextArea, messageLabel, progressBox, progressBar, liveCheckBox::isSelected,
+                encryptButton, decryptButton);
+
+        // Re-encrypt the whole input in live mode whenever the rotations or the modes change
+        liveEncryption = new LiveEncryption(inputTextArea, this::recomputeLive, this::updateLive);
+        liveCheckBox.selectedProperty().addListener((observable, wasSelected, selected) -> {
+            liveEncryption.setEnabled(selected);
+            taskRunner.updateControls();
+        });
+        rotationsTextField.textProperty().addListener(observable -> liveEncryption.invalidate());
+        inputModeBox.valueProperty().addListener(observable -> liveEncryption.invalidate());
+        outputModeBox.valueProperty().addListener(observable -> liveEncryption.invalidate());
+    }
+
+    // Finish a full recompute in live mode once its operation ended
+    private void endRecompute(boolean succeeded) {
+        if (succeeded) {
+            liveEncryption.endRecompute(isPlaintext());
+        } else {
+            liveEncryption.cancelRecompute();
+        }
+    }
+
+    // Whether both modes are Plaintext, so every input character encrypts into one output character
+    private boolean isPlaintext() {
+        return stringToMode(inputModeBox.getValue()) == 0 && stringToMode(outputModeBox.getValue()) == 0;
+    }
+
+    // Encrypt the whole input again in live mode, replacing any operation still running
+    private void recomputeLive() {
+        CaesarCipher caesarCipher = createCaesarCipherObject();
+        if (caesarCipher == null) {
+            return;
+        }
+        taskRunner.supersede();
+        liveCipher = caesarCipher;
+        String input = liveEncryption.beginRecompute();
+        taskRunner.run(new CipherTask(caesarCipher, true, input), this::endRecompute);
+    }
+
+    // Encrypt an edited range of the input in live mode. Every character is encrypted independently.
+    private void updateLive(int start, int oldEnd, int end) {
+        char[] chars = inputTextArea.getText(start, end).toCharArray();
+        liveCipher.encrypt(chars, 0, chars, 0, chars.length);
+        outputTextArea.replaceText(start, oldEnd, new String(chars));
     }
 
     @FXML
     protected void onEncryptButtonClick() {
         CaesarCipher caesarCipher = createCaesarCipherObject();
         if (caesarCipher != null) {
-            try {
-                outputTextArea.setText(caesarCipher.encrypt(inputTextArea.getText()));
-            } catch (IllegalArgumentException iae) {
-                messageLabel.setText(iae.getMessage());
-            }
+            taskRunner.run(new CipherTask(caesarCipher, true, inputTextArea.getText()), null);
         }
     }
 
@@ -90,23 +154,18 @@ public class CaesarCipherSceneController implements Initializable {
     protected void onDecryptButtonClick() {
         CaesarCipher caesarCipher = createCaesarCipherObject();
         if (caesarCipher != null) {
-            try {
-                outputTextArea.setText(caesarCipher.decrypt(inputTextArea.getText()));
-            } catch (IllegalArgumentException iae) {
-                messageLabel.setText(iae.getMessage());
-            }
+            taskRunner.run(new CipherTask(caesarCipher, false, inputTextArea.getText()), null);
         }
     }
 
-    // Load the start menu
     @FXML
-    protected void onBackButtonClick(ActionEvent actionEvent) throws IOException {
-        Parent startView = FXMLLoader.load(Objects.requireNonNull(getClass().getResource("StartScene.fxml")));
-        Scene startScene = new Scene(startView);
-
-        Stage window = (Stage) ((Node)actionEvent.getSource()).getScene().getWindow();
+    protected void onCancelButtonClick() {
+        taskRunner.cancel();
+    }
 
-        window.setScene(startScene);
-        window.show();
+    // Show the start menu. The scene keeps its state, and an operation still running finishes in the background.
+    @FXML
+    protected void onBackButtonClick() throws IOException {
+        SceneNavigator.show(SceneNavigator.View.START);
     }
 }
@@ -0,0 +1,207 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>Recovers the number of rotations of a Caesar ciphertext by scoring all 26 possible decryptions against the
+ * statistics of English in {@link EnglishStatistics}.</p>
+ * <p>Each decryption gets two scores: the chi-squared distance between its letter counts and the English letter
+ * frequencies, and the log-likelihood of its quadgrams. Neither needs the decryption itself. The ciphertext is read
+ * only once, into its letter numbers and a histogram of them. Rotating a text rotates its histogram, so the
+ * chi-squared score of every rotation is computed from the same 26 counts, and the quadgrams of every rotation are
+ * read from the letter numbers by shifting each of them in place. Only the first {@link #QUADGRAM_SAMPLE} letters
+ * are scored with quadgrams, so cracking takes a bounded time however long the ciphertext is.</p>
+ * <p>Many ciphertexts can be cracked in parallel with {@link #crackAll(List)}.</p>
+ *
+ * @see CaesarCipher
+ *
+ * @version 1.0
+ */
+public final class CaesarCracker {
+
+    /**
+     * Largest number of ciphertexts cracked by a single task. Cracking a short ciphertext takes a few microseconds,
+     * so smaller parts would spend more time on scheduling than on work.
+     */
+    static final int SEGMENT_SIZE = 16;
+
+    /**
+     * Largest number of letters whose quadgrams are scored. The quadgrams of an English text are each about a hundred
+     * times more likely than those of its other rotations, so a few hundred letters already tell them apart by
+     * hundreds of orders of magnitude. Scoring the rest of a long text would not change the ranking, but would make
+     * the cost grow with its length.
+     */
+    static final int QUADGRAM_SAMPLE = 2048;
+
+    /**
+     * Order of the candidates, from the most to the least likely. The quadgram score decides, since it also weighs
+     * the order of the letters; the chi-squared distance breaks ties, and ranks alone the texts of fewer than four
+     * letters, whose quadgram score is 0 for every rotation.
+     */
+    private static final Comparator<Candidate> RANKING = Comparator.comparingDouble(Candidate::getQuadgramScore)
+            .reversed()
+            .thenComparingDouble(Candidate::getChiSquared);
+
+    private CaesarCracker() {
+    }
+
+    /**
+     * A possible number of rotations of a ciphertext and the scores of the decryption it gives.
+     */
+    public static final class Candidate {
+        private final int rotations;
+        private final double chiSquared;
+        private final double quadgramScore;
+
+        private Candidate(int rotations, double chiSquared, double quadgramScore) {
+            this.rotations = rotations;
+            this.chiSquared = chiSquared;
+            this.quadgramScore = quadgramScore;
+        }
+
+        /**
+         * Gets the number of rotations the ciphertext was encrypted with.
+         *
+         * @return The number of rotations, from 0 to 25.
+         */
+        public int getRotations() {
+            return rotations;
+        }
+
+        /**
+         * Gets the chi-squared distance between the letter counts of the decryption and those expected of English
+         * text of the same length. Lower is more likely.
+         *
+         * @return The chi-squared score.
+         */
+        public double getChiSquared() {
+            return chiSquared;
+        }
+
+        /**
+         * Gets the base-10 log-likelihood of the quadgrams in the first {@link #QUADGRAM_SAMPLE} letters of the
+         * decryption in English. Higher is more likely. The score is 0 for texts of fewer than four letters, which are
+         * ranked by their chi-squared score alone.
+         *
+         * @return The quadgram score.
+         */
+        public double getQuadgramScore() {
+            return quadgramScore;
+        }
+
+        /**
+         * Decrypts a ciphertext with the number of rotations of this candidate.
+         *
+         * @param ciphertext The ciphertext this candidate was found for.
+         * @return The decrypted plaintext.
+         */
+        public String decrypt(String ciphertext) {
+            return new CaesarCipher(CryptographyMethod.DEFAULT_INPUT_MODE, CryptographyMethod.DEFAULT_OUTPUT_MODE,
+                    rotations).decrypt(ciphertext);
+        }
+
+        @Override
+        public String toString() {
+            return "Rotations: " + rotations + ", Chi-squared: " + chiSquared + ", Quadgram score: " + quadgramScore;
+        }
+    }
+
+    /**
+     * Scores every number of rotations of a ciphertext. Only the ASCII letters of the ciphertext are considered.
+     *
+     * @param ciphertext The ciphertext.
+     * @return The 26 candidates, from the most to the least likely.
+     * @throws IllegalArgumentException If the ciphertext contains no letters, since every rotation of it is the same.
+     */
+    public static List<Candidate> crack(String ciphertext) {
+        byte[] letters = EnglishStatistics.letters(ciphertext);
+        if (letters.length == 0) {
+            throw new IllegalArgumentException("Ciphertext must contain letters!");
+        }
+        int[] counts = new int[26];
+        for (byte letter : letters) {
+            counts[letter]++;
+        }
+
+        int sample = Math.min(letters.length, QUADGRAM_SAMPLE);
+        byte[] shift = new byte[1];
+        Candidate[] candidates = new Candidate[26];
+        for (int rotations = 0; rotations < 26; rotations++) {
+            shift[0] = (byte) rotations;
+            candidates[rotations] = new Candidate(rotations,
+                    EnglishStatistics.chiSquared(counts, 0, letters.length, rotations),
+                    EnglishStatistics.quadgramScore(letters, sample, shift));
+        }
+        Arrays.sort(candidates, RANKING);
+        return List.of(candidates);
+    }
+
+    /**
+     * Cracks every ciphertext of a batch in parallel on the common {@link ForkJoinPool}.
+     *
+     * @param ciphertexts The ciphertexts.
+     * @return The ranked candidates of every ciphertext, in the same order.
+     * @throws IllegalArgumentException If a ciphertext contains no letters.
+     * @see #crackAll(List, ForkJoinPool)
+     */
+    public static List<List<Candidate>> crackAll(List<String> ciphertexts) {
+        return crackAll(ciphertexts, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Cracks every ciphertext of a batch in parallel on the given pool. The batch is split in half until the parts
+     * have at most {@link #SEGMENT_SIZE} ciphertexts, and the results keep the order of the ciphertexts.
+     *
+     * @param ciphertexts The ciphertexts.
+     * @param pool        The pool running the cracking.
+     * @return The ranked candidates of every ciphertext, in the same order.
+     * @throws IllegalArgumentException If a ciphertext contains no letters.
+     */
+    public static List<List<Candidate>> crackAll(List<String> ciphertexts, ForkJoinPool pool) {
+        List<String> indexed = ciphertexts instanceof RandomAccess ? ciphertexts : new ArrayList<>(ciphertexts);
+        // Filled in place by index, so the list never changes size while the tasks run
+        List<List<Candidate>> results = new ArrayList<>(Collections.nCopies(indexed.size(), null));
+        pool.invoke(new CrackTask(indexed, results, 0, results.size()));
+        return List.copyOf(results);
+    }
+
+    /**
+     * Task that cracks every ciphertext of a part of a batch, splitting the part in half until it is small enough.
+     */
+    private static final class CrackTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> ciphertexts;
+        private final List<List<Candidate>> results;
+        private final int from;
+        private final int to;
+
+        private CrackTask(List<String> ciphertexts, List<List<Candidate>> results, int from, int to) {
+            this.ciphertexts = ciphertexts;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEGMENT_SIZE) {
+                for (int i = from; i < to; i++) {
+                    results.set(i, crack(ciphertexts.get(i)));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new CrackTask(ciphertexts, results, from, middle), new CrackTask(ciphertexts, results, middle, to));
+        }
+    }
+}
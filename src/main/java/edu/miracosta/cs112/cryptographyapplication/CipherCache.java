@@ -0,0 +1,175 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-thread cache of initialized {@link Cipher} instances for one-shot operations.
+ *
+ * <p>
+ * {@link Cipher#getInstance(String)} looks up the provider and {@link Cipher#init} expands the
+ * key schedule, which together cost far more than encrypting a short message. Each thread
+ * keeps up to {@link #MAX_ENTRIES} ciphers, keyed by transformation, direction and key, in
+ * least-recently-used order. A cipher resets itself to its initialized state after a
+ * successful {@code doFinal}, so it is only re-initialized when the IV changes.
+ * </p>
+ *
+ * <p>
+ * A cipher is removed from the cache by {@link #acquire} and only put back by
+ * {@link #release} after the caller finished with it successfully. A cipher left in an
+ * unknown state by a failed operation is therefore never reused, and nested operations on
+ * the same thread never share a cipher. Since every thread has its own cache, a cipher is
+ * never used by two threads at once.
+ * </p>
+ *
+ * <p>
+ * Only modes that allow the same key and IV to be used again may be cached, so GCM
+ * encryption is excluded. Ciphers initialized with a key derived from a passphrase are never
+ * put back, since the cache would keep the key alive beyond the lifetime and zeroing that
+ * {@link DerivedKeyCache} guarantees. A cipher that was not used for
+ * {@link #IDLE_TIMEOUT_NANOS} is dropped the next time its thread acquires a cipher, so a raw
+ * key does not stay reachable from a pool thread long after its last operation, and
+ * {@link #clear()} drops every cipher of the current thread at once.
+ * </p>
+ *
+ * @see Aes
+ *
+ * @version 1.0
+ */
+final class CipherCache {
+
+    /**
+     * Maximum number of ciphers cached by each thread.
+     */
+    static final int MAX_ENTRIES = 16;
+
+    /**
+     * Time after its last use after which a cipher is dropped, in nanoseconds.
+     */
+    static final long IDLE_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final ThreadLocal<Map<Key, Entry>> CACHE = ThreadLocal.withInitial(() ->
+            new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    private CipherCache() {
+    }
+
+    /**
+     * Takes a cipher initialized with the given parameters out of the current thread's cache,
+     * or creates one if none is cached.
+     *
+     * @param transformation the JCE transformation
+     * @param opmode         {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}
+     * @param key            the secret key
+     * @param iv             the IV
+     * @return the cache entry holding the initialized cipher
+     * @throws GeneralSecurityException if the cipher cannot be created or initialized
+     */
+    static Entry acquire(String transformation, int opmode, SecretKey key, byte[] iv) throws GeneralSecurityException {
+        Map<Key, Entry> cache = CACHE.get();
+        long now = System.nanoTime();
+        evictIdle(cache, now);
+        Key cacheKey = new Key(transformation, opmode, key);
+        Entry entry = cache.remove(cacheKey);
+        if (entry == null) {
+            entry = new Entry(cacheKey, Cipher.getInstance(transformation));
+        }
+        entry.lastUsed = now;
+        if (!Arrays.equals(entry.iv, iv)) {
+            entry.iv = null;
+            entry.cipher.init(opmode, key, new IvParameterSpec(iv));
+            entry.iv = iv.clone();
+        }
+        return entry;
+    }
+
+    /**
+     * Returns a cipher to the current thread's cache. Must only be called after the last
+     * operation on the cipher completed successfully. A cipher whose key was derived from a
+     * passphrase is dropped instead.
+     *
+     * @param entry the entry returned by {@link #acquire}
+     */
+    static void release(Entry entry) {
+        if (!DerivedKeyCache.isDerived(entry.key.key())) {
+            CACHE.get().put(entry.key, entry);
+        }
+    }
+
+    /**
+     * Drops every cipher cached by the current thread.
+     */
+    static void clear() {
+        CACHE.remove();
+    }
+
+    /**
+     * Drops the ciphers of the current thread that were last used {@link #IDLE_TIMEOUT_NANOS}
+     * or more before a given time.
+     *
+     * @param now the time, as given by {@link System#nanoTime()}
+     */
+    static void evictIdle(long now) {
+        evictIdle(CACHE.get(), now);
+    }
+
+    /**
+     * Drops the idle ciphers of a cache. Ciphers are put back in about the order they were
+     * acquired in, so the scan stops at the first one that is not idle.
+     *
+     * @param cache the cache of the current thread
+     * @param now   the time, as given by {@link System#nanoTime()}
+     */
+    private static void evictIdle(Map<Key, Entry> cache, long now) {
+        Iterator<Entry> entries = cache.values().iterator();
+        while (entries.hasNext() && now - entries.next().lastUsed >= IDLE_TIMEOUT_NANOS) {
+            entries.remove();
+        }
+    }
+
+    /**
+     * Identifies the ciphers that can be shared.
+     *
+     * @param transformation the JCE transformation
+     * @param opmode         the direction
+     * @param key            the secret key, compared by its encoded bytes
+     */
+    private record Key(String transformation, int opmode, SecretKey key) {
+    }
+
+    /**
+     * Cached cipher together with the IV it was last initialized with.
+     */
+    static final class Entry {
+        private final Key key;
+        private final Cipher cipher;
+        private byte[] iv;
+        private long lastUsed;
+
+        private Entry(Key key, Cipher cipher) {
+            this.key = key;
+            this.cipher = cipher;
+        }
+
+        /**
+         * Gets the initialized cipher.
+         *
+         * @return the cipher
+         */
+        Cipher cipher() {
+            return cipher;
+        }
+    }
+}
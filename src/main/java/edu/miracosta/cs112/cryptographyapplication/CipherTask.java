@@ -0,0 +1,119 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import javafx.concurrent.Task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Background task that encrypts or decrypts the text of a scene, so the JavaFX Application
+ * Thread stays responsive however long the text is.
+ *
+ * <p>
+ * The text goes through {@link CryptographyMethod#encrypt(InputStream, java.io.OutputStream)} or
+ * {@link CryptographyMethod#decrypt(InputStream, java.io.OutputStream)}, which read it in chunks of at
+ * most {@link CryptographyOutputStream#CHUNK_SIZE} bytes. The progress is updated after every
+ * chunk, and a cancelled task stops at the next one. The result is the same as
+ * {@link CryptographyMethod#encrypt(String)} or {@link CryptographyMethod#decrypt(String)}.
+ * </p>
+ *
+ * @see CipherTaskRunner
+ *
+ * @version 1.0
+ */
+final class CipherTask extends Task<String> {
+
+    private final CryptographyMethod method;
+    private final boolean encrypt;
+    private final String input;
+
+    /**
+     * Constructs a new {@code CipherTask}.
+     *
+     * @param method  the cryptography method
+     * @param encrypt {@code true} to encrypt the input, {@code false} to decrypt it
+     * @param input   the text to encrypt or decrypt
+     */
+    CipherTask(CryptographyMethod method, boolean encrypt, String input) {
+        this.method = method;
+        this.encrypt = encrypt;
+        this.input = input;
+    }
+
+    /**
+     * Starts the task on a new daemon thread, so a running task never keeps the application
+     * from exiting.
+     */
+    void start() {
+        Thread thread = new Thread(this, "cipher-task");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    protected String call() throws IOException {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        InputStream in = new ProgressInputStream(bytes);
+        if (encrypt) {
+            method.encrypt(in, out);
+        } else {
+            method.decrypt(in, out);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Input stream over the bytes of the text that returns at most one chunk per read, reports
+     * the progress and stops once the task is cancelled.
+     */
+    private final class ProgressInputStream extends InputStream {
+        private final byte[] bytes;
+        private int position;
+
+        ProgressInputStream(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkCancelled();
+            return position < bytes.length ? bytes[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkCancelled();
+            if (len == 0) {
+                return 0;
+            }
+            if (position == bytes.length) {
+                return -1;
+            }
+            int n = Math.min(Math.min(len, bytes.length - position), CryptographyOutputStream.CHUNK_SIZE);
+            System.arraycopy(bytes, position, b, off, n);
+            position += n;
+            updateProgress(position, bytes.length);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return bytes.length - position;
+        }
+
+        /**
+         * Stops reading once the task is cancelled.
+         *
+         * @throws InterruptedIOException if the task is cancelled
+         */
+        private void checkCancelled() throws InterruptedIOException {
+            if (isCancelled()) {
+                throw new InterruptedIOException("Cancelled");
+            }
+        }
+    }
+}
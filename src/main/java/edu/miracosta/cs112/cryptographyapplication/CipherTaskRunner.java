@@ -0,0 +1,160 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.HBox;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs the {@link CipherTask}s of a scene one at a time, showing their progress and result.
+ *
+ * <p>
+ * While a task runs, its progress is shown in the progress bar and the encrypt and decrypt
+ * buttons are disabled. The output is only replaced once the task succeeds; a failure or a
+ * cancellation is reported in the message label instead, and the output keeps its last result.
+ * </p>
+ *
+ * @see AesCipherSceneController
+ * @see CaesarCipherSceneController
+ * @see VigenereCipherSceneController
+ *
+ * @version 1.0
+ */
+final class CipherTaskRunner {
+
+    private final TextArea output;
+    private final Label messageLabel;
+    private final HBox progressBox;
+    private final ProgressBar progressBar;
+    private final BooleanSupplier locked;
+    private final Button[] buttons;
+
+    // The task running in the background, if any
+    private CipherTask task;
+
+    /**
+     * Called on the JavaFX Application Thread once a task ended.
+     */
+    @FunctionalInterface
+    interface Completion {
+
+        /**
+         * Reacts to the end of a task, after the output or the message label was updated.
+         *
+         * @param succeeded {@code true} if the task succeeded, {@code false} if it failed or was
+         *                  cancelled
+         */
+        void completed(boolean succeeded);
+    }
+
+    /**
+     * Constructs a new {@code CipherTaskRunner}. The progress box only takes up space while a
+     * task runs.
+     *
+     * @param output       the text area receiving the result of a task
+     * @param messageLabel the label receiving failures and cancellations
+     * @param progressBox  the box holding the progress bar and the cancel button
+     * @param progressBar  the bar showing the progress of a task
+     * @param locked       whether the buttons stay disabled even when no task runs
+     * @param buttons      the buttons starting a task
+     */
+    CipherTaskRunner(TextArea output, Label messageLabel, HBox progressBox, ProgressBar progressBar,
+            BooleanSupplier locked, Button... buttons) {
+        this.output = output;
+        this.messageLabel = messageLabel;
+        this.progressBox = progressBox;
+        this.progressBar = progressBar;
+        this.locked = locked;
+        this.buttons = buttons;
+        progressBox.managedProperty().bind(progressBox.visibleProperty());
+    }
+
+    /**
+     * Starts a task.
+     *
+     * @param cipherTask the task
+     * @param completion called once the task ended, or null
+     */
+    void run(CipherTask cipherTask, Completion completion) {
+        task = cipherTask;
+        progressBar.progressProperty().bind(cipherTask.progressProperty());
+        setRunning(true);
+        cipherTask.setOnSucceeded(event -> {
+            output.setText(cipherTask.getValue());
+            end(completion, true);
+        });
+        cipherTask.setOnFailed(event -> {
+            messageLabel.setText(cipherTask.getException().getMessage());
+            end(completion, false);
+        });
+        cipherTask.setOnCancelled(event -> {
+            messageLabel.setText("Operation cancelled.");
+            end(completion, false);
+        });
+        cipherTask.start();
+    }
+
+    /**
+     * Hides the progress of the task that ended and reports its end.
+     *
+     * @param completion called once the task ended, or null
+     * @param succeeded  whether the task succeeded
+     */
+    private void end(Completion completion, boolean succeeded) {
+        setRunning(false);
+        if (completion != null) {
+            completion.completed(succeeded);
+        }
+    }
+
+    /**
+     * Returns whether a task is running.
+     *
+     * @return {@code true} if a task is running
+     */
+    boolean isRunning() {
+        return task != null && task.isRunning();
+    }
+
+    /**
+     * Cancels the running task, if any, reporting the cancellation.
+     */
+    void cancel() {
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Cancels the running task, if any, without reporting it, because a new task replaces it.
+     */
+    void supersede() {
+        if (isRunning()) {
+            task.setOnCancelled(null);
+            task.cancel();
+        }
+    }
+
+    /**
+     * Shows the progress bar and disables the buttons while a task runs or the buttons are
+     * {@code locked}, and does the opposite otherwise.
+     */
+    void updateControls() {
+        setRunning(isRunning());
+    }
+
+    /**
+     * Shows or hides the progress bar and disables or enables the buttons.
+     *
+     * @param running whether a task is running
+     */
+    private void setRunning(boolean running) {
+        for (Button button : buttons) {
+            button.setDisable(running || locked.getAsBoolean());
+        }
+        progressBox.setVisible(running);
+    }
+}
@@ -1,8 +1,6 @@
 package edu.miracosta.cs112.cryptographyapplication;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
@@ -10,11 +8,12 @@ import java.io.IOException;
 public class CryptographyApplication extends Application {
     @Override
     public void start(Stage stage) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(CryptographyApplication.class.getResource("StartScene.fxml"));
-        Scene scene = new Scene(fxmlLoader.load());
         stage.setTitle("Cryptography Application");
-        stage.setScene(scene);
+        stage.setScene(SceneNavigator.createScene());
         stage.show();
+
+        // Prepare the Aes path in the background so the first click is as fast as later ones
+        Aes.startWarmUp();
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,332 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Command-line entry point that encrypts or decrypts a stream without starting the GUI.
+ *
+ * <p>
+ * This class never refers to JavaFX, so it starts quickly and runs on headless machines when
+ * launched from the class path:
+ * </p>
+ *
+ * <pre>
+ * java -cp CryptographyApplication.jar edu.miracosta.cs112.cryptographyapplication.CryptographyCli \
+ *     vigenere encrypt --key lemon &lt; plain.txt &gt; cipher.txt
+ * </pre>
+ *
+ * <p>
+ * The input is read from standard input or {@code --in}, and the output is written to standard
+ * output or {@code --out}. Everything is processed in chunks, so memory use does not depend on
+ * the size of the input. Text goes through the input and output modes like in the GUI, while
+ * {@code --binary} encrypts raw bytes. When both files are given in binary mode, Aes maps them
+ * into memory instead of streaming them.
+ * </p>
+ *
+ * <p>
+ * Exit status is 0 on success, 1 if the operation fails and 2 if the arguments are invalid.
+ * </p>
+ *
+ * @see CryptographyMethod#encrypt(InputStream, OutputStream)
+ *
+ * @version 1.0
+ */
+public final class CryptographyCli {
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "usage: CryptographyCli <caesar|vigenere|aes> <encrypt|decrypt> [options]",
+            "",
+            "  -i, --input-mode <mode>    plaintext, base64 or hex, or 0, 1 or 2 (default plaintext)",
+            "  -o, --output-mode <mode>   plaintext, base64 or hex, or 0, 1 or 2 (default plaintext)",
+            "  -k, --key <key>            Caesar: rotations, Vigenere: keyword, Aes: key text",
+            "      --key-hex <hex>        Aes: key bytes in hexadecimal",
+            "      --iv <iv>              Aes: IV text",
+            "      --iv-hex <hex>         Aes: IV bytes in hexadecimal",
+            "  -m, --mode <mode>          Aes: CBC, CTR or GCM (default CBC)",
+            "      --in <file>            read from the file instead of standard input",
+            "      --out <file>           write to the file instead of standard output",
+            "      --binary               process raw bytes, without input and output modes",
+            "  -h, --help                 print this message",
+            "",
+            "Aes encryption without a key or IV generates one and prints it to standard error.",
+            "CTR and GCM ciphertexts start with their own random IV, so only CBC takes an IV.");
+
+    private CryptographyCli() {
+    }
+
+    /**
+     * Runs the command line and exits with its status.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.err));
+    }
+
+    /**
+     * Runs the command line over standard input and output.
+     *
+     * @param args the command-line arguments
+     * @param err  the stream receiving usage, errors and generated keys
+     * @return the exit status
+     */
+    static int run(String[] args, PrintStream err) {
+        return run(args, new FileInputStream(FileDescriptor.in), new FileOutputStream(FileDescriptor.out), err);
+    }
+
+    /**
+     * Runs the command line over the given standard input and output, which are closed once
+     * the operation ends unless {@code --in} and {@code --out} replace them.
+     *
+     * @param args   the command-line arguments
+     * @param stdin  the stream read when {@code --in} is not given
+     * @param stdout the stream written when {@code --out} is not given
+     * @param err    the stream receiving usage, errors and generated keys
+     * @return the exit status
+     */
+    static int run(String[] args, InputStream stdin, OutputStream stdout, PrintStream err) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println("error: " + e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        if (options.help) {
+            err.println(USAGE);
+            return 0;
+        }
+
+        try {
+            CryptographyMethod method = createMethod(options, err);
+            process(method, options, stdin, stdout);
+            return 0;
+        } catch (IllegalArgumentException | InvalidKeyLengthException e) {
+            err.println("error: " + e.getMessage());
+            return 2;
+        } catch (IOException | RuntimeException e) {
+            err.println("error: " + describe(e));
+            return 1;
+        }
+    }
+
+    /**
+     * Creates the cryptography method selected by the options.
+     *
+     * @param options the parsed options
+     * @param err     the stream receiving generated keys
+     * @return the configured cryptography method
+     * @throws IllegalArgumentException  if a required option is missing or invalid
+     * @throws InvalidKeyLengthException if the Aes key length is not valid
+     */
+    private static CryptographyMethod createMethod(Options options, PrintStream err) throws InvalidKeyLengthException {
+        return switch (options.algorithm) {
+            case "caesar" -> {
+                try {
+                    yield new CaesarCipher(options.inputMode, options.outputMode, Integer.parseInt(require(options.key, "--key")));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Caesar key must be a number of rotations: " + options.key);
+                }
+            }
+            case "vigenere" -> new VigenereCipher(options.inputMode, options.outputMode, require(options.key, "--key"));
+            case "aes" -> {
+                byte[] key = options.keyBytes != null ? options.keyBytes
+                        : options.key != null ? options.key.getBytes(StandardCharsets.UTF_8) : null;
+                byte[] iv = options.iv;
+                // CTR and GCM ciphertexts start with their own IV, so only CBC needs one
+                boolean ivNeeded = options.aesMode == Aes.Mode.CBC;
+                if (!options.encrypt) {
+                    require(key, "--key or --key-hex");
+                    if (ivNeeded) {
+                        require(iv, "--iv or --iv-hex");
+                    }
+                }
+                if (key == null) {
+                    key = Aes.generateKey(256);
+                    err.println("key-hex=" + Hex.encode(key));
+                }
+                if (iv == null && ivNeeded) {
+                    iv = Aes.generateIv(options.aesMode);
+                    err.println("iv-hex=" + Hex.encode(iv));
+                }
+                yield new Aes(options.inputMode, options.outputMode, options.aesMode, key, iv);
+            }
+            default -> throw new IllegalArgumentException("Unknown algorithm: " + options.algorithm);
+        };
+    }
+
+    /**
+     * Encrypts or decrypts the input into the output.
+     *
+     * @param method  the cryptography method
+     * @param options the parsed options
+     * @param stdin   the stream read when {@code --in} is not given
+     * @param stdout  the stream written when {@code --out} is not given
+     * @throws IOException if reading or writing fails
+     */
+    private static void process(CryptographyMethod method, Options options, InputStream stdin, OutputStream stdout)
+            throws IOException {
+        if (options.binary && method instanceof Aes aes && options.in != null && options.out != null) {
+            if (options.encrypt) {
+                aes.encryptFile(options.in, options.out);
+            } else {
+                aes.decryptFile(options.in, options.out);
+            }
+            return;
+        }
+
+        try (InputStream in = options.in != null ? Files.newInputStream(options.in) : stdin;
+             OutputStream out = options.out != null ? Files.newOutputStream(options.out) : stdout) {
+            if (!options.binary) {
+                if (options.encrypt) {
+                    method.encrypt(in, out);
+                } else {
+                    method.decrypt(in, out);
+                }
+            } else {
+                try (OutputStream sink = options.encrypt ? method.encryptingOutputStream(out) : method.decryptingOutputStream(out)) {
+                    in.transferTo(sink);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the message of an exception followed by the message of its cause, unless the
+     * cause's message is already part of it.
+     *
+     * @param e the exception
+     * @return the message to print
+     */
+    private static String describe(Exception e) {
+        String message = String.valueOf(e.getMessage());
+        if (e instanceof NoSuchFileException) {
+            return "No such file: " + message;
+        }
+        Throwable cause = e.getCause();
+        if (cause != null && cause.getMessage() != null && !message.contains(cause.getMessage())) {
+            message += ": " + cause.getMessage();
+        }
+        return message;
+    }
+
+    /**
+     * Returns a required option value.
+     *
+     * @param value the value, or {@code null} if the option was not given
+     * @param name  the name of the option
+     * @param <T>   the type of the value
+     * @return {@code value}
+     * @throws IllegalArgumentException if {@code value} is {@code null}
+     */
+    private static <T> T require(T value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Parsed command-line arguments.
+     */
+    private static final class Options {
+        private String algorithm;
+        private boolean encrypt;
+        private int inputMode = CryptographyMethod.DEFAULT_INPUT_MODE;
+        private int outputMode = CryptographyMethod.DEFAULT_OUTPUT_MODE;
+        private Aes.Mode aesMode = Aes.Mode.CBC;
+        private String key;
+        private byte[] keyBytes;
+        private byte[] iv;
+        private Path in;
+        private Path out;
+        private boolean binary;
+        private boolean help;
+
+        /**
+         * Parses the command-line arguments.
+         *
+         * @param args the command-line arguments
+         * @return the parsed options
+         * @throws IllegalArgumentException if the arguments are invalid
+         */
+        static Options parse(String[] args) {
+            Options options = new Options();
+            String operation = null;
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "-h", "--help" -> options.help = true;
+                    case "-i", "--input-mode" -> options.inputMode = parseMode(value(args, ++i, arg));
+                    case "-o", "--output-mode" -> options.outputMode = parseMode(value(args, ++i, arg));
+                    case "-k", "--key" -> options.key = value(args, ++i, arg);
+                    case "--key-hex" -> options.keyBytes = Hex.decode(value(args, ++i, arg));
+                    case "--iv" -> options.iv = value(args, ++i, arg).getBytes(StandardCharsets.UTF_8);
+                    case "--iv-hex" -> options.iv = Hex.decode(value(args, ++i, arg));
+                    case "-m", "--mode" -> options.aesMode = parseAesMode(value(args, ++i, arg));
+                    case "--in" -> options.in = Path.of(value(args, ++i, arg));
+                    case "--out" -> options.out = Path.of(value(args, ++i, arg));
+                    case "--binary" -> options.binary = true;
+                    default -> {
+                        if (arg.startsWith("-")) {
+                            throw new IllegalArgumentException("Unknown option: " + arg);
+                        } else if (options.algorithm == null) {
+                            options.algorithm = arg.toLowerCase(Locale.ROOT);
+                        } else if (operation == null) {
+                            operation = arg.toLowerCase(Locale.ROOT);
+                        } else {
+                            throw new IllegalArgumentException("Unexpected argument: " + arg);
+                        }
+                    }
+                }
+            }
+            if (options.help) {
+                return options;
+            }
+            if (options.algorithm == null || operation == null) {
+                throw new IllegalArgumentException("Missing algorithm or operation");
+            }
+            if (!operation.equals("encrypt") && !operation.equals("decrypt")) {
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+            }
+            options.encrypt = operation.equals("encrypt");
+            return options;
+        }
+
+        private static String value(String[] args, int index, String option) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            return args[index];
+        }
+
+        private static int parseMode(String mode) {
+            return switch (mode.toLowerCase(Locale.ROOT)) {
+                case "0", "plaintext" -> 0;
+                case "1", "base64" -> 1;
+                case "2", "hex" -> 2;
+                default -> throw new IllegalArgumentException("Invalid mode selected!");
+            };
+        }
+
+        private static Aes.Mode parseAesMode(String mode) {
+            try {
+                return Aes.Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown Aes mode: " + mode);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream that reads from an underlying stream and passes the bytes through a
+ * {@link CryptographyOperation} before returning them.
+ *
+ * <p>
+ * The underlying stream is read in chunks of at most {@link CryptographyOutputStream#CHUNK_SIZE}
+ * bytes, so memory use stays constant no matter how much data is read. The operation is
+ * finished when the underlying stream reaches its end.
+ * </p>
+ *
+ * @see CryptographyMethod#encryptingInputStream(InputStream)
+ * @see CryptographyMethod#decryptingInputStream(InputStream)
+ *
+ * @version 1.0
+ */
+final class CryptographyInputStream extends FilterInputStream {
+
+    private final CryptographyOperation operation;
+    private final byte[] input = new byte[CryptographyOutputStream.CHUNK_SIZE];
+    private final byte[] singleByte = new byte[1];
+    private ByteBuffer output;
+    private boolean finished;
+
+    /**
+     * Constructs a new {@code CryptographyInputStream} reading from the given stream.
+     *
+     * @param in        the underlying input stream
+     * @param operation the operation applied to the bytes read
+     */
+    CryptographyInputStream(InputStream in, CryptographyOperation operation) {
+        super(in);
+        this.operation = operation;
+        this.output = ByteBuffer.allocate(operation.getOutputSize(input.length)).flip();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int n = read(singleByte, 0, 1);
+        return n == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (!output.hasRemaining()) {
+            if (finished) {
+                return -1;
+            }
+            fill();
+        }
+        int n = Math.min(len, output.remaining());
+        output.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long remaining = n;
+        while (remaining > 0) {
+            if (!output.hasRemaining()) {
+                if (finished) {
+                    break;
+                }
+                fill();
+                continue;
+            }
+            int skipped = (int) Math.min(remaining, output.remaining());
+            output.position(output.position() + skipped);
+            remaining -= skipped;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public int available() {
+        return output.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Reads the next chunk from the underlying stream and refills the output buffer, or
+     * finishes the operation if the underlying stream has ended.
+     *
+     * @throws IOException if the operation fails or an I/O error occurs
+     */
+    private void fill() throws IOException {
+        int n = in.read(input);
+        try {
+            if (n == -1) {
+                reserve(operation.getOutputSize(0));
+                operation.doFinal(output);
+                finished = true;
+            } else {
+                reserve(operation.getOutputSize(n));
+                operation.update(ByteBuffer.wrap(input, 0, n), output);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        output.flip();
+    }
+
+    /**
+     * Makes sure the output buffer is empty and can hold at least {@code size} bytes.
+     *
+     * @param size the number of bytes the next operation call may write
+     */
+    private void reserve(int size) {
+        if (output.capacity() < size) {
+            output = ByteBuffer.allocate(size);
+        }
+        output.clear();
+    }
+}
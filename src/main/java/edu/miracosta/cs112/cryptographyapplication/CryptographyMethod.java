@@ -1,12 +1,19 @@
 package edu.miracosta.cs112.cryptographyapplication;
 
-import javax.crypto.BadPaddingException;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 /**
  * Abstract class representing a cryptography method for encryption and
@@ -19,6 +26,27 @@ import java.util.Base64;
  *
  *
  * <p>
+ * Besides the {@code String} methods, every cryptography method can work directly on
+ * bytes through {@link #encrypt(ByteBuffer, ByteBuffer)} and
+ * {@link #decrypt(ByteBuffer, ByteBuffer)}. The binary methods do not apply the input and
+ * output modes, so arbitrary binary data passes through without being converted to text.
+ * Inputs that do not fit in memory can be processed incrementally with
+ * {@link #startEncryption()} and {@link #startDecryption()}, or with the streams returned by
+ * {@link #encryptingOutputStream(OutputStream)} and {@link #decryptingInputStream(InputStream)}.
+ * {@link #encrypt(InputStream, OutputStream)} and {@link #decrypt(InputStream, OutputStream)}
+ * stream text through the input and output modes as well.
+ * Many independent messages can be processed in parallel with {@link #encryptAll(List)} and
+ * {@link #decryptAll(List)}.
+ *
+ *
+ * <p>
+ * Every {@code String}, {@code byte[]} and stream operation is recorded once in the
+ * {@link OperationMetrics} of its algorithm. {@link #encrypt(String)} and
+ * {@link #decrypt(String)} are final so that no subclass bypasses the measurement; subclasses
+ * implement {@link #encryptText(String)} and {@link #decryptText(String)} instead.
+ *
+ *
+ * <p>
  * Supported input and output modes:
  * <ul>
  * <li>0: plaintext</li>
@@ -52,6 +80,17 @@ public abstract class CryptographyMethod {
      */
     private int outputMode;
 
+    /**
+     * Name of the algorithm returned by default by {@link #getAlgorithmName()}.
+     */
+    private final String algorithmName = getClass().getSimpleName();
+
+    /**
+     * Metrics of the last encryption and decryption, reused while the algorithm name is the same.
+     */
+    private OperationMetrics encryptionMetrics;
+    private OperationMetrics decryptionMetrics;
+
     /**
      * Constructs a new {@code CryptographyMethod} object with the specified input and
      * output modes.
@@ -223,76 +262,729 @@ public abstract class CryptographyMethod {
         };
     }
 
+    /**
+     * Decodes the input string based on the input mode into the UTF-8 bytes of the text it
+     * encodes.
+     *
+     * <p>
+     * Unlike {@link #decodeInput(String)}, base64 and hexadecimal input is decoded straight to
+     * bytes without building an intermediate string.
+     * </p>
+     *
+     * @param input The input string to decode.
+     * @return The decoded input bytes.
+     * @throws IllegalArgumentException If an invalid input mode is selected, or the input is not valid in that mode.
+     */
+    public byte[] decodeInputBytes(String input) throws IllegalArgumentException {
+        return switch (this.inputMode) {
+            case 0 -> input.getBytes(StandardCharsets.UTF_8);
+            case 1 -> Base64.getDecoder().decode(input);
+            case 2 -> Hex.decode(input);
+            default -> throw new IllegalArgumentException("Invalid mode selected!");
+        };
+    }
+
+    /**
+     * Encodes the given output bytes based on the output mode.
+     *
+     * <p>
+     * In plaintext mode the bytes are decoded as UTF-8. In base64 and hexadecimal mode they are
+     * encoded straight from bytes without building an intermediate string.
+     * </p>
+     *
+     * @param output The UTF-8 output bytes to encode.
+     * @return The encoded output string.
+     * @throws IllegalArgumentException If an invalid output mode is selected.
+     */
+    public String encodeOutputBytes(byte[] output) throws IllegalArgumentException {
+        return switch (this.outputMode) {
+            case 0 -> new String(output, StandardCharsets.UTF_8);
+            case 1 -> Base64.getEncoder().encodeToString(output);
+            case 2 -> Hex.encode(output);
+            default -> throw new IllegalArgumentException("Invalid mode selected!");
+        };
+    }
+
+    /**
+     * Returns a stream that decodes the input read from {@code in} based on the input mode.
+     *
+     * <p>
+     * The input is decoded incrementally, so memory use does not depend on its length. In
+     * plaintext mode {@code in} itself is returned.
+     * </p>
+     *
+     * @param in The stream providing the encoded input.
+     * @return The stream returning the decoded input bytes.
+     * @throws IllegalArgumentException If an invalid input mode is selected.
+     * @see Base64Codec
+     * @see Hex
+     */
+    public InputStream decodeInput(InputStream in) throws IllegalArgumentException {
+        return switch (this.inputMode) {
+            case 0 -> in;
+            case 1 -> Base64Codec.decodingInputStream(in);
+            case 2 -> Hex.decodingInputStream(in);
+            default -> throw new IllegalArgumentException("Invalid mode selected!");
+        };
+    }
+
+    /**
+     * Returns a stream that encodes everything written to it based on the output mode and
+     * writes the result to {@code out}.
+     *
+     * <p>
+     * The output is encoded incrementally, so memory use does not depend on its length. The
+     * returned stream must be closed to write the final characters, which also closes
+     * {@code out}. In plaintext mode {@code out} itself is returned.
+     * </p>
+     *
+     * @param out The stream receiving the encoded output.
+     * @return The stream encoding the output bytes.
+     * @throws IllegalArgumentException If an invalid output mode is selected.
+     */
+    public OutputStream encodeOutput(OutputStream out) throws IllegalArgumentException {
+        return switch (this.outputMode) {
+            case 0 -> out;
+            case 1 -> Base64Codec.encodingOutputStream(out);
+            case 2 -> Hex.encodingOutputStream(out);
+            default -> throw new IllegalArgumentException("Invalid mode selected!");
+        };
+    }
+
     /**
      * Encodes the given message to base64 format.
      *
-     * @param message The message to encode.
+     * @param message The message to encode, which is converted to bytes as UTF-8.
      * @return The base64-encoded message.
      */
     public String base64Encode(String message) {
-        return Base64.getEncoder().encodeToString(message.getBytes());
+        return Base64.getEncoder().encodeToString(message.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
      * Decodes the given base64-encoded message.
      *
-     * @param encoded The base64-encoded message to decode.
+     * @param encoded The base64-encoded UTF-8 bytes of the message.
      * @return The decoded plaintext message.
+     * @throws IllegalArgumentException If the message is not valid base64.
      */
-    public String base64Decode(String encoded) {
-        return new String(Base64.getDecoder().decode(encoded));
+    public String base64Decode(String encoded) throws IllegalArgumentException {
+        return new String(Base64.getDecoder().decode(encoded), StandardCharsets.UTF_8);
     }
 
     /**
      * Encodes the given message to hexadecimal format.
      *
+     * <p>
+     * Every UTF-8 byte of the message is encoded as two lowercase hexadecimal digits, so
+     * {@link #hexDecode(String)} returns the original message.
+     * </p>
+     *
      * @param message The message to encode.
      * @return The hexadecimal-encoded message.
+     * @see Hex
      */
     public String hexEncode(String message) {
-        StringBuilder hexString = new StringBuilder();
-        for (char character : message.toCharArray()) {
-            hexString.append(Integer.toHexString(character));
-        }
-        return hexString.toString();
+        return Hex.encode(message.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
      * Decodes the given hexadecimal-encoded message.
      *
-     * @param encoded The hexadecimal-encoded message to decode.
+     * @param encoded The hexadecimal-encoded UTF-8 bytes of the message.
      * @return The decoded plaintext message.
+     * @throws IllegalArgumentException If the length is odd or a character is not a hexadecimal digit.
      */
     public String hexDecode(String encoded) throws IllegalArgumentException {
-        if (encoded.length() % 2 != 0) {
-            throw new IllegalArgumentException("Hexadecimal string length must be even.");
+        return new String(Hex.decode(encoded), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns an upper bound on the number of bytes written by
+     * {@link #encrypt(ByteBuffer, ByteBuffer)} or {@link #decrypt(ByteBuffer, ByteBuffer)}
+     * for an input of the given length.
+     *
+     * <p>
+     * The default implementation returns {@code inputLength}, which is exact for ciphers
+     * that map every input byte to exactly one output byte.
+     * </p>
+     *
+     * @param inputLength the number of input bytes
+     * @return the maximum number of output bytes
+     */
+    public int getOutputSize(int inputLength) {
+        return inputLength;
+    }
+
+    /**
+     * Encrypts the given plaintext bytes.
+     *
+     * <p>
+     * The input and output modes are not applied. The call is recorded in the
+     * {@link OperationMetrics} of this algorithm.
+     * </p>
+     *
+     * @param plaintext The plaintext bytes to encrypt.
+     * @return The ciphertext bytes.
+     */
+    public byte[] encrypt(byte[] plaintext) {
+        if (!OperationMetrics.isEnabled()) {
+            return encryptBytes(plaintext);
+        }
+        OperationMetrics metrics = encryptionMetrics();
+        int weight = OperationMetrics.sampleWeight(plaintext.length);
+        long start = weight != 0 ? System.nanoTime() : 0;
+        try {
+            byte[] ciphertext = encryptBytes(plaintext);
+            metrics.recordSuccess(plaintext.length, ciphertext.length, weight, start);
+            return ciphertext;
+        } catch (RuntimeException e) {
+            metrics.recordFailure(weight, start);
+            throw e;
+        }
+    }
+
+    /**
+     * Decrypts the given ciphertext bytes.
+     *
+     * <p>
+     * The input and output modes are not applied. The call is recorded in the
+     * {@link OperationMetrics} of this algorithm.
+     * </p>
+     *
+     * @param ciphertext The ciphertext bytes to decrypt.
+     * @return The plaintext bytes.
+     */
+    public byte[] decrypt(byte[] ciphertext) {
+        if (!OperationMetrics.isEnabled()) {
+            return decryptBytes(ciphertext);
+        }
+        OperationMetrics metrics = decryptionMetrics();
+        int weight = OperationMetrics.sampleWeight(ciphertext.length);
+        long start = weight != 0 ? System.nanoTime() : 0;
+        try {
+            byte[] plaintext = decryptBytes(ciphertext);
+            metrics.recordSuccess(ciphertext.length, plaintext.length, weight, start);
+            return plaintext;
+        } catch (RuntimeException e) {
+            metrics.recordFailure(weight, start);
+            throw e;
+        }
+    }
+
+    /**
+     * Encrypts the given plaintext bytes like {@link #encrypt(byte[])}, without recording the
+     * call in the {@link OperationMetrics}. Used by subclasses whose {@code String} operations,
+     * which are already measured, are built on the binary ones.
+     *
+     * @param plaintext The plaintext bytes to encrypt.
+     * @return The ciphertext bytes.
+     */
+    protected final byte[] encryptBytes(byte[] plaintext) {
+        ByteBuffer ciphertext = ByteBuffer.allocate(getOutputSize(plaintext.length));
+        encrypt(ByteBuffer.wrap(plaintext), ciphertext);
+        return toArray(ciphertext);
+    }
+
+    /**
+     * Decrypts the given ciphertext bytes like {@link #decrypt(byte[])}, without recording the
+     * call in the {@link OperationMetrics}.
+     *
+     * @param ciphertext The ciphertext bytes to decrypt.
+     * @return The plaintext bytes.
+     * @see #encryptBytes(byte[])
+     */
+    protected final byte[] decryptBytes(byte[] ciphertext) {
+        ByteBuffer plaintext = ByteBuffer.allocate(getOutputSize(ciphertext.length));
+        decrypt(ByteBuffer.wrap(ciphertext), plaintext);
+        return toArray(plaintext);
+    }
+
+    /**
+     * Returns the bytes written to the given heap buffer, without copying if the buffer is full.
+     *
+     * @param buffer The heap buffer that was written from position zero.
+     * @return The written bytes.
+     */
+    private static byte[] toArray(ByteBuffer buffer) {
+        if (buffer.position() == buffer.capacity()) {
+            return buffer.array();
         }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
 
-        StringBuilder result = new StringBuilder();
-        for (int i = 0; i < encoded.length(); i += 2) {
-            String hex = encoded.substring(i, i + 2);
+    /**
+     * Abstract method that encrypts the remaining bytes of {@code src} into {@code dst}.
+     *
+     * <p>
+     * On return, the position of {@code src} is advanced to its limit and the position of
+     * {@code dst} is advanced by the number of bytes written. Both heap and direct buffers
+     * are supported. The input and output modes are not applied. The call is not recorded in
+     * the {@link OperationMetrics}, since the measured operations are built on it.
+     * </p>
+     *
+     * @param src The plaintext bytes to encrypt.
+     * @param dst The buffer receiving the ciphertext bytes.
+     * @throws java.nio.BufferOverflowException If {@code dst} has fewer than
+     *                                          {@link #getOutputSize(int)} bytes remaining.
+     */
+    public abstract void encrypt(ByteBuffer src, ByteBuffer dst);
+
+    /**
+     * Abstract method that decrypts the remaining bytes of {@code src} into {@code dst}.
+     *
+     * <p>
+     * On return, the position of {@code src} is advanced to its limit and the position of
+     * {@code dst} is advanced by the number of bytes written. Both heap and direct buffers
+     * are supported. The input and output modes are not applied.
+     * </p>
+     *
+     * @param src The ciphertext bytes to decrypt.
+     * @param dst The buffer receiving the plaintext bytes.
+     * @throws java.nio.BufferOverflowException If {@code dst} has fewer than
+     *                                          {@link #getOutputSize(int)} bytes remaining.
+     */
+    public abstract void decrypt(ByteBuffer src, ByteBuffer dst);
+
+    /**
+     * Abstract method that starts an incremental encryption. The operation is not recorded in
+     * the {@link OperationMetrics}; the streams built on it are.
+     *
+     * @return A new encryption operation using the current settings of this cryptography method.
+     */
+    public abstract CryptographyOperation startEncryption();
+
+    /**
+     * Abstract method that starts an incremental decryption.
+     *
+     * @return A new decryption operation using the current settings of this cryptography method.
+     */
+    public abstract CryptographyOperation startDecryption();
+
+    /**
+     * Returns an output stream that encrypts everything written to it and writes the
+     * ciphertext to {@code out}.
+     *
+     * <p>
+     * The data is processed in fixed-size chunks, so memory use does not depend on the amount
+     * written. The stream must be closed to write the final block of ciphertext. The input and
+     * output modes are not applied. The stream is recorded in the {@link OperationMetrics} of
+     * this algorithm as one operation when it is closed, timed from its creation.
+     * </p>
+     *
+     * @param out The stream receiving the ciphertext.
+     * @return The encrypting output stream.
+     */
+    public OutputStream encryptingOutputStream(OutputStream out) {
+        return new CryptographyOutputStream(out, measure(startEncryption(), true));
+    }
+
+    /**
+     * Returns an output stream that decrypts everything written to it and writes the
+     * plaintext to {@code out}.
+     *
+     * @param out The stream receiving the plaintext.
+     * @return The decrypting output stream.
+     * @see #encryptingOutputStream(OutputStream)
+     */
+    public OutputStream decryptingOutputStream(OutputStream out) {
+        return new CryptographyOutputStream(out, measure(startDecryption(), false));
+    }
+
+    /**
+     * Returns an input stream that reads plaintext from {@code in} and returns it encrypted.
+     *
+     * @param in The stream providing the plaintext.
+     * @return The encrypting input stream.
+     * @see #decryptingInputStream(InputStream)
+     */
+    public InputStream encryptingInputStream(InputStream in) {
+        return new CryptographyInputStream(in, measure(startEncryption(), true));
+    }
+
+    /**
+     * Returns an input stream that reads ciphertext from {@code in} and returns it decrypted.
+     *
+     * <p>
+     * The data is processed in fixed-size chunks, so memory use does not depend on the amount
+     * read. The input and output modes are not applied.
+     * </p>
+     *
+     * @param in The stream providing the ciphertext.
+     * @return The decrypting input stream.
+     */
+    public InputStream decryptingInputStream(InputStream in) {
+        return new CryptographyInputStream(in, measure(startDecryption(), false));
+    }
+
+    /**
+     * Encrypts the text read from {@code in} and writes the ciphertext to {@code out}.
+     *
+     * <p>
+     * This is the streaming form of {@link #encrypt(String)}: the plaintext is decoded based on
+     * the input mode and the ciphertext is encoded like the {@code String} method encodes it.
+     * Everything is processed in chunks, so memory use does not depend on the length of the
+     * text. Neither stream is closed.
+     * </p>
+     *
+     * @param in  The stream providing the plaintext.
+     * @param out The stream receiving the ciphertext.
+     * @throws IOException If reading or writing fails, or the input is not valid in the input mode.
+     */
+    public void encrypt(InputStream in, OutputStream out) throws IOException {
+        try (OutputStream sink = encryptingOutputStream(encodeCiphertext(new UnclosedOutputStream(out)))) {
+            decodeInput(in).transferTo(sink);
+        }
+    }
+
+    /**
+     * Decrypts the ciphertext read from {@code in} and writes the text to {@code out}.
+     *
+     * <p>
+     * This is the streaming form of {@link #decrypt(String)}. Neither stream is closed.
+     * </p>
+     *
+     * @param in  The stream providing the ciphertext.
+     * @param out The stream receiving the plaintext, encoded based on the output mode.
+     * @throws IOException If reading or writing fails, or the ciphertext is not valid.
+     * @see #encrypt(InputStream, OutputStream)
+     */
+    public void decrypt(InputStream in, OutputStream out) throws IOException {
+        try (OutputStream sink = decryptingOutputStream(encodeOutput(new UnclosedOutputStream(out)))) {
+            decodeCiphertext(in).transferTo(sink);
+        }
+    }
+
+    /**
+     * Returns the stream encoding the ciphertext written by {@link #encrypt(InputStream, OutputStream)}.
+     *
+     * <p>
+     * The default implementation encodes based on the output mode, like {@link #encodeOutput(OutputStream)}.
+     * Subclasses whose {@code String} ciphertext is always in one encoding override this
+     * together with {@link #decodeCiphertext(InputStream)}.
+     * </p>
+     *
+     * @param out The stream receiving the encoded ciphertext.
+     * @return The stream encoding the ciphertext bytes.
+     */
+    protected OutputStream encodeCiphertext(OutputStream out) {
+        return encodeOutput(out);
+    }
+
+    /**
+     * Returns the stream decoding the ciphertext read by {@link #decrypt(InputStream, OutputStream)}.
+     *
+     * <p>
+     * The default implementation decodes based on the input mode, like {@link #decodeInput(InputStream)}.
+     * </p>
+     *
+     * @param in The stream providing the encoded ciphertext.
+     * @return The stream returning the ciphertext bytes.
+     */
+    protected InputStream decodeCiphertext(InputStream in) {
+        return decodeInput(in);
+    }
+
+    /**
+     * Operation that records itself in the {@link OperationMetrics} once, when it finishes or
+     * fails. It is always timed, from its creation to the end of {@link #doFinal(ByteBuffer)},
+     * which for a stream includes the time spent reading and writing. An operation that is
+     * abandoned before {@code doFinal} is not recorded.
+     */
+    private static final class MeasuredOperation implements CryptographyOperation {
+        private final CryptographyOperation operation;
+        private final OperationMetrics metrics;
+        private final long start = System.nanoTime();
+        private long inputLength;
+        private long outputLength;
+        private boolean recorded;
+
+        private MeasuredOperation(CryptographyOperation operation, OperationMetrics metrics) {
+            this.operation = operation;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public int getOutputSize(int inputLength) {
+            return operation.getOutputSize(inputLength);
+        }
+
+        @Override
+        public void update(ByteBuffer src, ByteBuffer dst) {
+            int srcPosition = src.position();
+            int dstPosition = dst.position();
             try {
-                result.append((char) Integer.parseInt(hex, 16));
-            } catch (NumberFormatException nfe) {
-                throw new IllegalArgumentException("Invalid hexadecimal character: " + hex, nfe);
+                operation.update(src, dst);
+            } catch (RuntimeException e) {
+                recordFailure();
+                throw e;
             }
+            inputLength += src.position() - srcPosition;
+            outputLength += dst.position() - dstPosition;
+        }
+
+        @Override
+        public void doFinal(ByteBuffer dst) {
+            int dstPosition = dst.position();
+            try {
+                operation.doFinal(dst);
+            } catch (RuntimeException e) {
+                recordFailure();
+                throw e;
+            }
+            outputLength += dst.position() - dstPosition;
+            if (!recorded) {
+                recorded = true;
+                metrics.recordSuccess(inputLength, outputLength, 1, start);
+            }
+        }
+
+        private void recordFailure() {
+            if (!recorded) {
+                recorded = true;
+                metrics.recordFailure(1, start);
+            }
+        }
+    }
+
+    /**
+     * Output stream that flushes instead of closing the stream it wraps, so the stages built on
+     * top of it can be closed without closing the caller's stream.
+     */
+    private static final class UnclosedOutputStream extends FilterOutputStream {
+        private UnclosedOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * Encrypts every plaintext of a batch in parallel on the common {@link ForkJoinPool}.
+     *
+     * @param plaintexts The plaintexts to encrypt.
+     * @return The result of every plaintext, in the same order.
+     * @see #encryptAll(List, ForkJoinPool)
+     */
+    public List<BatchResult> encryptAll(List<String> plaintexts) {
+        return encryptAll(plaintexts, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Encrypts every plaintext of a batch in parallel on the given pool.
+     *
+     * <p>
+     * Each plaintext is encrypted with {@link #encrypt(String)}, so the input and output modes
+     * apply. The results are in the order of the plaintexts. A plaintext that fails to encrypt
+     * gets a failed {@link BatchResult} holding the exception, and the rest of the batch is
+     * still encrypted. The number of threads is the parallelism of {@code pool}. This method
+     * must not be called while the settings of this cryptography method are being changed.
+     * </p>
+     *
+     * @param plaintexts The plaintexts to encrypt.
+     * @param pool       The pool running the encryption.
+     * @return The result of every plaintext, in the same order.
+     */
+    public List<BatchResult> encryptAll(List<String> plaintexts, ForkJoinPool pool) {
+        return processAll(plaintexts, pool, this::encrypt);
+    }
+
+    /**
+     * Encrypts every plaintext of a stream in parallel on the given pool.
+     *
+     * @param plaintexts The plaintexts to encrypt, which are collected before encrypting them.
+     * @param pool       The pool running the encryption.
+     * @return The result of every plaintext, in encounter order.
+     * @see #encryptAll(List, ForkJoinPool)
+     */
+    public List<BatchResult> encryptAll(Stream<String> plaintexts, ForkJoinPool pool) {
+        return encryptAll(plaintexts.toList(), pool);
+    }
+
+    /**
+     * Decrypts every ciphertext of a batch in parallel on the common {@link ForkJoinPool}.
+     *
+     * @param ciphertexts The ciphertexts to decrypt.
+     * @return The result of every ciphertext, in the same order.
+     * @see #encryptAll(List, ForkJoinPool)
+     */
+    public List<BatchResult> decryptAll(List<String> ciphertexts) {
+        return decryptAll(ciphertexts, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Decrypts every ciphertext of a batch in parallel on the given pool. A ciphertext that
+     * fails to decrypt gets a failed {@link BatchResult} and does not affect the others.
+     *
+     * @param ciphertexts The ciphertexts to decrypt.
+     * @param pool        The pool running the decryption.
+     * @return The result of every ciphertext, in the same order.
+     * @see #encryptAll(List, ForkJoinPool)
+     */
+    public List<BatchResult> decryptAll(List<String> ciphertexts, ForkJoinPool pool) {
+        return processAll(ciphertexts, pool, this::decrypt);
+    }
+
+    /**
+     * Decrypts every ciphertext of a stream in parallel on the given pool.
+     *
+     * @param ciphertexts The ciphertexts to decrypt, which are collected before decrypting them.
+     * @param pool        The pool running the decryption.
+     * @return The result of every ciphertext, in encounter order.
+     * @see #encryptAll(List, ForkJoinPool)
+     */
+    public List<BatchResult> decryptAll(Stream<String> ciphertexts, ForkJoinPool pool) {
+        return decryptAll(ciphertexts.toList(), pool);
+    }
+
+    /**
+     * Applies an operation to every item of a batch in parallel.
+     *
+     * @param items     The items.
+     * @param pool      The pool running the operation.
+     * @param operation The operation applied to every item.
+     * @return The result of every item, in the same order.
+     */
+    private static List<BatchResult> processAll(List<String> items, ForkJoinPool pool, UnaryOperator<String> operation) {
+        List<String> indexed = items instanceof RandomAccess ? items : new ArrayList<>(items);
+        BatchResult[] results = new BatchResult[indexed.size()];
+        pool.invoke(new BatchTask(indexed, results, operation, 0, results.length));
+        return List.of(results);
+    }
+
+    /**
+     * Encrypts the given plaintext.
+     *
+     * <p>
+     * While {@link OperationMetrics#isEnabled() metrics are enabled}, the call is counted, and
+     * timed or sampled, in the {@link OperationMetrics} of this algorithm, which are published
+     * over JMX.
+     * </p>
+     *
+     * @param plaintext The plaintext to encrypt.
+     * @return The encrypted ciphertext.
+     */
+    public final String encrypt(String plaintext) {
+        if (!OperationMetrics.isEnabled()) {
+            return encryptText(plaintext);
+        }
+        OperationMetrics metrics = encryptionMetrics();
+        int weight = OperationMetrics.sampleWeight(plaintext.length());
+        long start = weight != 0 ? System.nanoTime() : 0;
+        try {
+            String ciphertext = encryptText(plaintext);
+            metrics.recordSuccess(plaintext.length(), ciphertext.length(), weight, start);
+            return ciphertext;
+        } catch (RuntimeException e) {
+            metrics.recordFailure(weight, start);
+            throw e;
+        }
+    }
+
+    /**
+     * Decrypts the given ciphertext.
+     *
+     * <p>
+     * While {@link OperationMetrics#isEnabled() metrics are enabled}, the call is counted, and
+     * timed or sampled, in the {@link OperationMetrics} of this algorithm, which are published
+     * over JMX.
+     * </p>
+     *
+     * @param ciphertext The ciphertext to decrypt.
+     * @return The decrypted plaintext.
+     */
+    public final String decrypt(String ciphertext) {
+        if (!OperationMetrics.isEnabled()) {
+            return decryptText(ciphertext);
+        }
+        OperationMetrics metrics = decryptionMetrics();
+        int weight = OperationMetrics.sampleWeight(ciphertext.length());
+        long start = weight != 0 ? System.nanoTime() : 0;
+        try {
+            String plaintext = decryptText(ciphertext);
+            metrics.recordSuccess(ciphertext.length(), plaintext.length(), weight, start);
+            return plaintext;
+        } catch (RuntimeException e) {
+            metrics.recordFailure(weight, start);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the name the operations of this cryptography method are measured under.
+     *
+     * @return The name of the algorithm, by default the simple name of the class.
+     */
+    protected String getAlgorithmName() {
+        return algorithmName;
+    }
+
+    /**
+     * Wraps an operation so that it is recorded in the {@link OperationMetrics} when it
+     * finishes, if metrics are enabled.
+     *
+     * @param operation The operation.
+     * @param encrypt   Whether it is an encryption.
+     * @return The measured operation, or {@code operation} itself if metrics are disabled.
+     */
+    private CryptographyOperation measure(CryptographyOperation operation, boolean encrypt) {
+        if (!OperationMetrics.isEnabled()) {
+            return operation;
+        }
+        return new MeasuredOperation(operation, encrypt ? encryptionMetrics() : decryptionMetrics());
+    }
+
+    /**
+     * Returns the metrics of the encryptions of the current algorithm.
+     *
+     * @return The encryption metrics.
+     */
+    OperationMetrics encryptionMetrics() {
+        OperationMetrics metrics = encryptionMetrics;
+        String algorithm = getAlgorithmName();
+        if (metrics == null || !metrics.getAlgorithm().equals(algorithm)) {
+            metrics = OperationMetrics.of(algorithm, OperationMetrics.ENCRYPT);
+            encryptionMetrics = metrics;
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics of the decryptions of the current algorithm.
+     *
+     * @return The decryption metrics.
+     */
+    OperationMetrics decryptionMetrics() {
+        OperationMetrics metrics = decryptionMetrics;
+        String algorithm = getAlgorithmName();
+        if (metrics == null || !metrics.getAlgorithm().equals(algorithm)) {
+            metrics = OperationMetrics.of(algorithm, OperationMetrics.DECRYPT);
+            decryptionMetrics = metrics;
         }
-        return result.toString();
+        return metrics;
     }
 
     /**
-     * Abstract method that encrypts the given plaintext.
+     * Abstract method that encrypts the given plaintext, applying the input and output modes.
      *
      * @param plaintext The plaintext to encrypt.
      * @return The encrypted ciphertext.
      */
-    public abstract String encrypt(String plaintext);
+    protected abstract String encryptText(String plaintext);
 
     /**
-     * Abstract method that decrypts the given ciphertext.
+     * Abstract method that decrypts the given ciphertext, applying the input and output modes.
      *
      * @param ciphertext The ciphertext to decrypt.
      * @return The decrypted plaintext.
      */
-    public abstract String decrypt(String ciphertext);
-}
\ No newline at end of file
+    protected abstract String decryptText(String ciphertext);
+}
@@ -0,0 +1,56 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An encryption or decryption in progress, started by
+ * {@link CryptographyMethod#startEncryption()} or {@link CryptographyMethod#startDecryption()}.
+ *
+ * <p>
+ * An operation processes its input in any number of {@link #update(ByteBuffer, ByteBuffer)}
+ * calls followed by exactly one {@link #doFinal(ByteBuffer)} call, in the same way as
+ * {@link javax.crypto.Cipher}. State that depends on earlier input, such as the position in a
+ * Vigenere key or a partially filled Aes block, is carried from one call to the next, so the
+ * input can be split at any byte.
+ * </p>
+ *
+ * <p>
+ * Operations are not thread-safe. The input and output modes are not applied.
+ * </p>
+ *
+ * @see CryptographyMethod
+ *
+ * @version 1.0
+ */
+public interface CryptographyOperation {
+
+    /**
+     * Returns an upper bound on the number of bytes written by an {@code update} call with
+     * {@code inputLength} bytes of input followed by {@code doFinal}, given the input this
+     * operation has already processed.
+     *
+     * @param inputLength the number of input bytes
+     * @return the maximum number of output bytes
+     */
+    int getOutputSize(int inputLength);
+
+    /**
+     * Processes the remaining bytes of {@code src} and writes any output that is ready into
+     * {@code dst}.
+     *
+     * @param src the input bytes
+     * @param dst the buffer receiving the output bytes
+     * @throws java.nio.BufferOverflowException if {@code dst} has fewer than
+     *                                          {@link #getOutputSize(int)} bytes remaining
+     */
+    void update(ByteBuffer src, ByteBuffer dst);
+
+    /**
+     * Finishes the operation and writes any remaining output into {@code dst}.
+     *
+     * @param dst the buffer receiving the output bytes
+     * @throws java.nio.BufferOverflowException if {@code dst} has fewer than
+     *                                          {@code getOutputSize(0)} bytes remaining
+     */
+    void doFinal(ByteBuffer dst);
+}
@@ -0,0 +1,129 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Output stream that passes everything written to it through a {@link CryptographyOperation}
+ * before writing it to the underlying stream.
+ *
+ * <p>
+ * Input is processed in chunks of at most {@link #CHUNK_SIZE} bytes, so memory use stays
+ * constant no matter how much data is written. The operation is finished when the stream
+ * is closed.
+ * </p>
+ *
+ * @see CryptographyMethod#encryptingOutputStream(OutputStream)
+ * @see CryptographyMethod#decryptingOutputStream(OutputStream)
+ *
+ * @version 1.0
+ */
+final class CryptographyOutputStream extends FilterOutputStream {
+
+    /**
+     * Maximum number of input bytes passed to the operation at once.
+     */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private final CryptographyOperation operation;
+    private final byte[] singleByte = new byte[1];
+    private ByteBuffer output;
+    private boolean closed;
+
+    /**
+     * Constructs a new {@code CryptographyOutputStream} writing to the given stream.
+     *
+     * @param out       the underlying output stream
+     * @param operation the operation applied to the written bytes
+     */
+    CryptographyOutputStream(OutputStream out, CryptographyOperation operation) {
+        super(out);
+        this.operation = operation;
+        this.output = ByteBuffer.allocate(operation.getOutputSize(CHUNK_SIZE));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        singleByte[0] = (byte) b;
+        write(singleByte, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        ByteBuffer input = ByteBuffer.wrap(b, off, len);
+        while (input.hasRemaining()) {
+            int limit = input.limit();
+            input.limit(input.position() + Math.min(input.remaining(), CHUNK_SIZE));
+            reserve(operation.getOutputSize(input.remaining()));
+            try {
+                operation.update(input, output);
+            } catch (RuntimeException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            input.limit(limit);
+            writeOutput();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        out.flush();
+    }
+
+    /**
+     * Finishes the operation, writes its remaining output and closes the underlying stream.
+     *
+     * @throws IOException if the operation fails or an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (OutputStream underlying = out) {
+            reserve(operation.getOutputSize(0));
+            try {
+                operation.doFinal(output);
+            } catch (RuntimeException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            writeOutput();
+            underlying.flush();
+        }
+    }
+
+    /**
+     * Makes sure the output buffer is empty and can hold at least {@code size} bytes.
+     *
+     * @param size the number of bytes the next operation call may write
+     */
+    private void reserve(int size) {
+        if (output.capacity() < size) {
+            output = ByteBuffer.allocate(size);
+        }
+        output.clear();
+    }
+
+    /**
+     * Writes the contents of the output buffer to the underlying stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeOutput() throws IOException {
+        if (output.position() > 0) {
+            out.write(output.array(), 0, output.position());
+            output.clear();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,624 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded HTTP service exposing the ciphers to other processes, built on the JDK's
+ * {@code com.sun.net.httpserver}. Like {@link CryptographyCli}, it never loads JavaFX.
+ *
+ * <p>
+ * Every cipher has an encrypt and a decrypt endpoint, which take the request body as input and
+ * return the result as the response body:
+ * </p>
+ *
+ * <pre>
+ * POST /caesar/encrypt            X-Key: 3
+ * POST /vigenere/decrypt?input=hex X-Key: lemon
+ * POST /aes/encrypt?mode=GCM      X-Key-Hex: ...
+ * GET  /stats
+ * </pre>
+ *
+ * <p>
+ * The parameters are those of {@link CryptographyCli}. The query takes {@code input} and
+ * {@code output}, which select the modes, {@code mode}, the Aes mode, and {@code binary=true},
+ * which processes raw bytes without input and output modes. The key and the Aes IV, which only
+ * CBC takes, are request headers: {@code X-Key} or {@code X-Key-Hex}, and {@code X-Iv} or
+ * {@code X-Iv-Hex}. Query strings end up in access logs and proxy logs, so a key or IV given in
+ * the query is rejected. Headers are read as ISO-8859-1, so a key that is not ASCII must be
+ * given in hexadecimal.
+ * </p>
+ *
+ * <p>
+ * Request bodies are streamed through the cipher in chunks and never held in memory as a
+ * whole. A response that fits in {@link #RESPONSE_BUFFER_SIZE} bytes is sent with its length
+ * once it is complete, so failures are reported with a proper status code. A larger response
+ * is streamed as soon as the buffer is full; if the operation fails after that, the connection
+ * is closed before the response is complete.
+ * </p>
+ *
+ * <p>
+ * Every request occupies a thread while it streams, including the time spent waiting for a slow
+ * client to upload its body. Threads are therefore started on demand, up to a limit in the
+ * thousands, and stop after a minute without work, so slow clients do not hold up the others
+ * until the limit is reached; only then do requests queue. A request whose body does not deliver
+ * a byte for the read timeout is aborted, and its connection closed. Unless
+ * {@code --no-warm-up} is given, {@link #main(String[])} runs {@link Aes#startWarmUp()} so that
+ * the first Aes request does not pay for initializing the JCE.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class CryptographyServer {
+
+    /**
+     * Largest response held back until the operation completes.
+     */
+    static final int RESPONSE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Default largest number of request threads.
+     */
+    static final int DEFAULT_MAX_THREADS = 2048;
+
+    /**
+     * Default longest time, in seconds, a request body may go without delivering a byte.
+     */
+    static final int DEFAULT_READ_TIMEOUT = 30;
+
+    /**
+     * Time after which an idle request thread stops.
+     */
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    /**
+     * Request headers carrying the parameters that must not appear in the query, by parameter.
+     */
+    private static final Map<String, String> HEADER_PARAMETERS = Map.of(
+            "key", "X-Key", "keyHex", "X-Key-Hex", "iv", "X-Iv", "ivHex", "X-Iv-Hex");
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "usage: CryptographyServer [options]",
+            "",
+            "  --host <address>        address to listen on (default 127.0.0.1)",
+            "  --port <port>           port to listen on (default 8080)",
+            "  --threads <n>           largest number of request threads (default " + DEFAULT_MAX_THREADS + ")",
+            "  --read-timeout <secs>   abort a request whose body sends nothing for this long (default "
+                    + DEFAULT_READ_TIMEOUT + ")",
+            "  --no-warm-up            skip preparing the Aes path in the background at startup");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService watchdog;
+    private final long readTimeoutNanos;
+    private final Set<RequestBody> activeBodies = ConcurrentHashMap.newKeySet();
+    private final long startTime = System.nanoTime();
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    /**
+     * Constructs a new {@code CryptographyServer} bound to the given address, with the default
+     * read timeout. The server does not accept requests until {@link #start()} is called.
+     *
+     * @param address the address to listen on
+     * @param threads the largest number of request threads
+     * @throws IOException if the server cannot be bound to the address
+     */
+    public CryptographyServer(InetSocketAddress address, int threads) throws IOException {
+        this(address, threads, DEFAULT_READ_TIMEOUT);
+    }
+
+    /**
+     * Constructs a new {@code CryptographyServer} bound to the given address. The server does
+     * not accept requests until {@link #start()} is called.
+     *
+     * @param address     the address to listen on
+     * @param threads     the largest number of request threads
+     * @param readTimeout the longest time, in seconds, a request body may go without
+     *                    delivering a byte
+     * @throws IOException if the server cannot be bound to the address
+     */
+    public CryptographyServer(InetSocketAddress address, int threads, int readTimeout) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        if (readTimeout < 1) {
+            throw new IllegalArgumentException("Read timeout must be positive: " + readTimeout);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        // A new thread for every request until the limit, which only then start to queue
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> new Thread(task, "cryptography-server-" + threadNumber.incrementAndGet()));
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+        this.readTimeoutNanos = TimeUnit.SECONDS.toNanos(readTimeout);
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "cryptography-server-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(TimeUnit.SECONDS.toMillis(readTimeout) / 4, 100);
+        this.watchdog.scheduleAtFixedRate(this::abortStalledReads, period, period, TimeUnit.MILLISECONDS);
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(executor);
+        for (String algorithm : new String[] {"caesar", "vigenere", "aes"}) {
+            this.server.createContext("/" + algorithm + "/", exchange -> handleCipher(exchange, algorithm));
+        }
+        this.server.createContext("/stats", this::handleStats);
+    }
+
+    /**
+     * Starts the server from the command line.
+     *
+     * @param args the command-line arguments
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        String host = InetAddress.getLoopbackAddress().getHostAddress();
+        int port = 8080;
+        int threads = DEFAULT_MAX_THREADS;
+        int readTimeout = DEFAULT_READ_TIMEOUT;
+        boolean warmUp = true;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--host" -> host = value(args, ++i);
+                    case "--port" -> port = Integer.parseInt(value(args, ++i));
+                    case "--threads" -> threads = Integer.parseInt(value(args, ++i));
+                    case "--read-timeout" -> readTimeout = Integer.parseInt(value(args, ++i));
+                    case "--no-warm-up" -> warmUp = false;
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        CryptographyServer server = new CryptographyServer(new InetSocketAddress(host, port), threads, readTimeout);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        if (warmUp) {
+            Aes.startWarmUp();
+        }
+        server.start();
+        System.err.println("Listening on http://" + host + ":" + server.getPort() + "/");
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to a second for running requests and shuts the
+     * request threads down.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        watchdog.shutdown();
+    }
+
+    /**
+     * Gets the port the server is listening on, which is useful after binding to port 0.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Handles an encrypt or decrypt request.
+     *
+     * @param exchange  the exchange
+     * @param algorithm the name of the cipher
+     * @throws IOException if the exchange fails
+     */
+    private void handleCipher(HttpExchange exchange, String algorithm) throws IOException {
+        requests.increment();
+        activeRequests.incrementAndGet();
+        RequestBody body = new RequestBody(exchange.getRequestBody());
+        try {
+            // Not closed when the operation fails after the response was committed, so the
+            // server drops the connection instead of completing the response. Otherwise the
+            // body is closed first, which drains what the client still sends under the watchdog
+            processCipher(exchange, algorithm, body);
+            body.close();
+            exchange.close();
+        } finally {
+            activeBodies.remove(body);
+            activeRequests.decrementAndGet();
+            // Clears an interrupt of the watchdog that came as the read returned, so that it
+            // does not affect the next request of this thread
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Interrupts the threads blocked in reading a request body for longer than the read
+     * timeout. The request body is read from an interruptible channel, so the read fails and
+     * the connection is closed.
+     */
+    private void abortStalledReads() {
+        long now = System.nanoTime();
+        for (RequestBody body : activeBodies) {
+            body.abortIfStalled(now);
+        }
+    }
+
+    /**
+     * Validates an encrypt or decrypt request and streams its body through the cipher.
+     *
+     * @param exchange  the exchange
+     * @param algorithm the name of the cipher
+     * @param body      the request body
+     * @throws IOException if the exchange fails, or the operation fails after the response was committed
+     */
+    private void processCipher(HttpExchange exchange, String algorithm, RequestBody body) throws IOException {
+        String operation = exchange.getRequestURI().getPath().substring(algorithm.length() + 2);
+        if (!operation.equals("encrypt") && !operation.equals("decrypt")) {
+            sendError(exchange, 404, "Unknown operation: " + operation);
+            return;
+        }
+        if (!exchange.getRequestMethod().equals("POST")) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            sendError(exchange, 405, "Method not allowed: " + exchange.getRequestMethod());
+            return;
+        }
+
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        CryptographyMethod method;
+        try {
+            for (Map.Entry<String, String> parameter : HEADER_PARAMETERS.entrySet()) {
+                if (query.containsKey(parameter.getKey())) {
+                    throw new IllegalArgumentException("Pass " + parameter.getKey() + " in the " + parameter.getValue()
+                            + " header; query strings are logged");
+                }
+                String value = exchange.getRequestHeaders().getFirst(parameter.getValue());
+                if (value != null) {
+                    query.put(parameter.getKey(), value);
+                }
+            }
+            method = createMethod(algorithm, query);
+        } catch (IllegalArgumentException | InvalidKeyLengthException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+
+        boolean encrypt = operation.equals("encrypt");
+        boolean binary = Boolean.parseBoolean(query.get("binary"));
+        ResponseStream response = new ResponseStream(exchange, binary ? "application/octet-stream" : "text/plain; charset=utf-8");
+        try (InputStream in = body) {
+            if (binary) {
+                try (OutputStream sink = encrypt ? method.encryptingOutputStream(response) : method.decryptingOutputStream(response)) {
+                    in.transferTo(sink);
+                }
+            } else if (encrypt) {
+                method.encrypt(in, response);
+            } else {
+                method.decrypt(in, response);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (response.isCommitted()) {
+                failures.increment();
+                throw e instanceof IOException ioException ? ioException : new IOException(e);
+            }
+            sendError(exchange, 422, e.getMessage());
+            return;
+        }
+        response.finish();
+    }
+
+    /**
+     * Handles a request for the statistics, returned as a JSON object.
+     *
+     * @param exchange the exchange
+     * @throws IOException if the exchange fails
+     */
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String stats = "{\"uptimeSeconds\":" + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime)
+                    + ",\"requests\":" + requests.sum()
+                    + ",\"activeRequests\":" + activeRequests.get()
+                    + ",\"failures\":" + failures.sum()
+                    + ",\"bytesIn\":" + bytesIn.sum()
+                    + ",\"bytesOut\":" + bytesOut.sum() + "}";
+            send(exchange, 200, "application/json", stats.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Creates the cipher for a request.
+     *
+     * @param algorithm the name of the cipher
+     * @param query     the request parameters, from the query and the headers
+     * @return the configured cipher
+     * @throws IllegalArgumentException  if a parameter is missing or invalid
+     * @throws InvalidKeyLengthException if the Aes key length is not valid
+     */
+    private static CryptographyMethod createMethod(String algorithm, Map<String, String> query) throws InvalidKeyLengthException {
+        int inputMode = parseMode(query.getOrDefault("input", "plaintext"));
+        int outputMode = parseMode(query.getOrDefault("output", "plaintext"));
+        return switch (algorithm) {
+            case "caesar" -> {
+                String key = require(query, "key");
+                try {
+                    yield new CaesarCipher(inputMode, outputMode, Integer.parseInt(key));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Caesar key must be a number of rotations: " + key);
+                }
+            }
+            case "vigenere" -> new VigenereCipher(inputMode, outputMode, require(query, "key"));
+            case "aes" -> {
+                Aes.Mode mode;
+                try {
+                    mode = Aes.Mode.valueOf(query.getOrDefault("mode", "CBC").toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown Aes mode: " + query.get("mode"));
+                }
+                // CTR and GCM ciphertexts start with their own IV
+                byte[] iv = mode == Aes.Mode.CBC ? bytes(query, "iv") : null;
+                yield new Aes(inputMode, outputMode, mode, bytes(query, "key"), iv);
+            }
+            default -> throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+        };
+    }
+
+    /**
+     * Returns a binary parameter given either as text or, with the {@code Hex} suffix, in
+     * hexadecimal.
+     *
+     * @param query the request parameters
+     * @param name  the name of the parameter
+     * @return the bytes of the parameter
+     * @throws IllegalArgumentException if the parameter is missing or not valid hexadecimal
+     */
+    private static byte[] bytes(Map<String, String> query, String name) {
+        String hex = query.get(name + "Hex");
+        if (hex != null) {
+            return Hex.decode(hex);
+        }
+        return require(query, name).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String require(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static int parseMode(String mode) {
+        return switch (mode.toLowerCase(Locale.ROOT)) {
+            case "0", "plaintext" -> 0;
+            case "1", "base64" -> 1;
+            case "2", "hex" -> 2;
+            default -> throw new IllegalArgumentException("Invalid mode selected!");
+        };
+    }
+
+    /**
+     * Parses a raw query string.
+     *
+     * @param rawQuery the query string, or {@code null}
+     * @return the decoded parameters; of repeated parameters, the last one wins
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = separator < 0 ? parameter : parameter.substring(0, separator);
+            String value = separator < 0 ? "" : parameter.substring(separator + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    /**
+     * Sends an error response with the message as plain text.
+     *
+     * @param exchange the exchange
+     * @param status   the status code
+     * @param message  the error message
+     * @throws IOException if the response cannot be sent
+     */
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        failures.increment();
+        send(exchange, status, "text/plain; charset=utf-8", (message + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a complete response.
+     *
+     * @param exchange    the exchange
+     * @param status      the status code
+     * @param contentType the content type of the body
+     * @param body        the body
+     * @throws IOException if the response cannot be sent
+     */
+    private void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            exchange.getResponseBody().write(body);
+            bytesOut.add(body.length);
+        }
+    }
+
+    /**
+     * Response body that holds the first {@link #RESPONSE_BUFFER_SIZE} bytes back, and
+     * commits to a successful streamed response once more are written.
+     */
+    private final class ResponseStream extends OutputStream {
+        private final HttpExchange exchange;
+        private final String contentType;
+        private final byte[] buffer = new byte[RESPONSE_BUFFER_SIZE];
+        private int count;
+        private OutputStream body;
+
+        private ResponseStream(HttpExchange exchange, String contentType) {
+            this.exchange = exchange;
+            this.contentType = contentType;
+        }
+
+        /**
+         * Returns whether the response headers were sent.
+         *
+         * @return {@code true} once the response is being streamed
+         */
+        boolean isCommitted() {
+            return body != null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (body == null && count + len <= buffer.length) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            if (body == null) {
+                exchange.getResponseHeaders().set("Content-Type", contentType);
+                exchange.sendResponseHeaders(200, 0);
+                body = exchange.getResponseBody();
+                body.write(buffer, 0, count);
+                bytesOut.add(count);
+            }
+            body.write(b, off, len);
+            bytesOut.add(len);
+        }
+
+        /**
+         * Completes a successful response, sending the held back bytes with their length if
+         * the response was not committed yet.
+         *
+         * @throws IOException if the response cannot be sent
+         */
+        void finish() throws IOException {
+            if (body == null) {
+                byte[] complete = new byte[count];
+                System.arraycopy(buffer, 0, complete, 0, count);
+                send(exchange, 200, contentType, complete);
+            } else {
+                body.close();
+            }
+        }
+    }
+
+    /**
+     * Request body that counts the bytes read from it, and is watched by
+     * {@link #abortStalledReads()} until the request completes.
+     */
+    private final class RequestBody extends FilterInputStream {
+        private final Thread reader = Thread.currentThread();
+
+        /** {@link System#nanoTime()} at the start of the read in progress, or 0 between reads. */
+        private volatile long readStart;
+
+        private RequestBody(InputStream in) {
+            super(in);
+            activeBodies.add(this);
+        }
+
+        @Override
+        public int read() throws IOException {
+            readStart = System.nanoTime() | 1;
+            try {
+                int b = in.read();
+                if (b >= 0) {
+                    bytesIn.increment();
+                }
+                return b;
+            } finally {
+                readStart = 0;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            readStart = System.nanoTime() | 1;
+            try {
+                int read = in.read(b, off, len);
+                if (read > 0) {
+                    bytesIn.add(read);
+                }
+                return read;
+            } finally {
+                readStart = 0;
+            }
+        }
+
+        /**
+         * Interrupts the reading thread if the read in progress started before the read
+         * timeout.
+         *
+         * @param now the current {@link System#nanoTime()}
+         */
+        void abortIfStalled(long now) {
+            long start = readStart;
+            if (start != 0 && now - start > readTimeoutNanos) {
+                reader.interrupt();
+            }
+        }
+
+        /**
+         * Closes the body, which reads and discards what the client still sends.
+         *
+         * @throws IOException if the rest of the body cannot be read
+         */
+        @Override
+        public void close() throws IOException {
+            readStart = System.nanoTime() | 1;
+            try {
+                super.close();
+            } finally {
+                readStart = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import javax.security.auth.DestroyFailedException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.io.Serial;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of keys derived from passphrases with PBKDF2-HMAC-SHA256, shared by all threads.
+ *
+ * <p>
+ * PBKDF2 is deliberately slow, so deriving the key of every message again would make each
+ * operation with a passphrase take as long as the derivation. The cache keeps up to
+ * {@link #MAX_ENTRIES} derived keys in least-recently-used order, each for at most
+ * {@link #TIME_TO_LIVE_NANOS}, keyed by the passphrase, salt, iteration count and key length.
+ * </p>
+ *
+ * <p>
+ * The passphrase itself is not kept. Entries are identified by an HMAC of the passphrase under
+ * a random key generated when the class is loaded, which is useless outside of this process.
+ * A key that is evicted, expires or is removed by {@link #clear()} is zeroed in memory. Callers
+ * receive a copy of the key, which only lives as long as their operation, since a cached key
+ * may be zeroed at any time. {@link CipherCache} recognizes these copies with
+ * {@link #isDerived(SecretKey)} and never keeps a cipher initialized with one, so no derived
+ * key outlives its entry here.
+ * </p>
+ *
+ * @see Aes#setPassphrase(char[], int)
+ *
+ * @version 1.0
+ */
+final class DerivedKeyCache {
+
+    /**
+     * Maximum number of derived keys in the cache.
+     */
+    static final int MAX_ENTRIES = 16;
+
+    /**
+     * Time after which a derived key is removed from the cache, in nanoseconds.
+     */
+    static final long TIME_TO_LIVE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private static final String KEY_DERIVATION = "PBKDF2WithHmacSHA256";
+    private static final String FINGERPRINT = "HmacSHA256";
+    private static final SecretKey FINGERPRINT_KEY = createFingerprintKey();
+
+    private static final Map<Key, DerivedKey> ENTRIES = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true);
+
+    private DerivedKeyCache() {
+    }
+
+    /**
+     * Returns the key derived from a passphrase, deriving it unless it is cached.
+     *
+     * @param passphrase the passphrase
+     * @param salt       the salt
+     * @param iterations the PBKDF2 iteration count
+     * @param keyLength  the key length in bits
+     * @return a copy of the derived Aes key
+     * @throws GeneralSecurityException if the key cannot be derived
+     */
+    static SecretKey derive(char[] passphrase, byte[] salt, int iterations, int keyLength) throws GeneralSecurityException {
+        Key key = new Key(fingerprint(passphrase), salt.clone(), iterations, keyLength);
+        synchronized (ENTRIES) {
+            evictExpired(System.nanoTime());
+            DerivedKey cached = ENTRIES.get(key);
+            if (cached != null) {
+                return cached.copy();
+            }
+        }
+
+        // Derive outside the lock, so a slow derivation does not hold up cache hits on other threads
+        DerivedKey derived = new DerivedKey(pbkdf2(passphrase, salt, iterations, keyLength));
+        synchronized (ENTRIES) {
+            DerivedKey cached = ENTRIES.putIfAbsent(key, derived);
+            if (cached != null) {
+                derived.destroy();
+                return cached.copy();
+            }
+            if (ENTRIES.size() > MAX_ENTRIES) {
+                Iterator<DerivedKey> eldest = ENTRIES.values().iterator();
+                eldest.next().destroy();
+                eldest.remove();
+            }
+            return derived.copy();
+        }
+    }
+
+    /**
+     * Returns whether a key is a copy of a key derived from a passphrase.
+     *
+     * @param key the key
+     * @return {@code true} if the key was returned by {@link #derive}
+     */
+    static boolean isDerived(SecretKey key) {
+        return key instanceof DerivedSecretKey;
+    }
+
+    /**
+     * Returns the salt of the most recently used key derived from a passphrase, so that a new
+     * message can be encrypted without deriving another key.
+     *
+     * @param passphrase the passphrase
+     * @param iterations the PBKDF2 iteration count
+     * @param keyLength  the key length in bits
+     * @return a copy of the salt, or {@code null} if no key of the passphrase is cached
+     * @throws GeneralSecurityException if the passphrase cannot be fingerprinted
+     */
+    static byte[] latestSalt(char[] passphrase, int iterations, int keyLength) throws GeneralSecurityException {
+        byte[] fingerprint = fingerprint(passphrase);
+        byte[] salt = null;
+        synchronized (ENTRIES) {
+            evictExpired(System.nanoTime());
+            for (Key key : ENTRIES.keySet()) {
+                if (key.iterations == iterations && key.keyLength == keyLength && Arrays.equals(key.fingerprint, fingerprint)) {
+                    salt = key.salt;
+                }
+            }
+        }
+        return salt == null ? null : salt.clone();
+    }
+
+    /**
+     * Removes and zeroes every derived key.
+     */
+    static void clear() {
+        synchronized (ENTRIES) {
+            ENTRIES.values().forEach(DerivedKey::destroy);
+            ENTRIES.clear();
+        }
+    }
+
+    /**
+     * Removes and zeroes the keys older than {@link #TIME_TO_LIVE_NANOS}.
+     *
+     * @param now the current {@link System#nanoTime()}
+     */
+    static void evictExpired(long now) {
+        synchronized (ENTRIES) {
+            ENTRIES.values().removeIf(key -> {
+                if (now - key.created < TIME_TO_LIVE_NANOS) {
+                    return false;
+                }
+                key.destroy();
+                return true;
+            });
+        }
+    }
+
+    /**
+     * Generates the key of the fingerprints with the shared {@link Aes#RANDOM}, which is
+     * already seeded and never blocks.
+     *
+     * @return the fingerprint key
+     */
+    private static SecretKey createFingerprintKey() {
+        byte[] key = new byte[32];
+        Aes.RANDOM.nextBytes(key);
+        return new SecretKeySpec(key, FINGERPRINT);
+    }
+
+    /**
+     * Derives a key from a passphrase with PBKDF2-HMAC-SHA256.
+     *
+     * @param passphrase the passphrase
+     * @param salt       the salt
+     * @param iterations the iteration count
+     * @param keyLength  the key length in bits
+     * @return the key bytes
+     * @throws GeneralSecurityException if the key cannot be derived
+     */
+    private static byte[] pbkdf2(char[] passphrase, byte[] salt, int iterations, int keyLength) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(passphrase, salt, iterations, keyLength);
+        try {
+            SecretKey secret = SecretKeyFactory.getInstance(KEY_DERIVATION).generateSecret(spec);
+            byte[] encoded = secret.getEncoded();
+            try {
+                secret.destroy();
+            } catch (DestroyFailedException e) {
+                // The provider's copy is zeroed when it is garbage collected instead
+            }
+            return encoded;
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Computes the HMAC identifying a passphrase in the cache.
+     *
+     * @param passphrase the passphrase
+     * @return the fingerprint
+     * @throws GeneralSecurityException if the HMAC cannot be computed
+     */
+    private static byte[] fingerprint(char[] passphrase) throws GeneralSecurityException {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(passphrase));
+        try {
+            Mac mac = Mac.getInstance(FINGERPRINT);
+            mac.init(FINGERPRINT_KEY);
+            mac.update(bytes.duplicate());
+            return mac.doFinal();
+        } finally {
+            Arrays.fill(bytes.array(), (byte) 0);
+        }
+    }
+
+    /**
+     * Identifies a derived key.
+     */
+    private static final class Key {
+        private final byte[] fingerprint;
+        private final byte[] salt;
+        private final int iterations;
+        private final int keyLength;
+
+        private Key(byte[] fingerprint, byte[] salt, int iterations, int keyLength) {
+            this.fingerprint = fingerprint;
+            this.salt = salt;
+            this.iterations = iterations;
+            this.keyLength = keyLength;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && iterations == key.iterations && keyLength == key.keyLength
+                    && Arrays.equals(fingerprint, key.fingerprint) && Arrays.equals(salt, key.salt);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Arrays.hashCode(fingerprint) + Arrays.hashCode(salt)) + iterations;
+        }
+    }
+
+    /**
+     * Cached key bytes that are zeroed when the key leaves the cache.
+     */
+    private static final class DerivedKey {
+        private final byte[] encoded;
+        private final long created = System.nanoTime();
+
+        private DerivedKey(byte[] encoded) {
+            this.encoded = encoded;
+        }
+
+        /**
+         * Returns a copy of the key for one operation.
+         *
+         * @return the Aes key
+         */
+        private SecretKey copy() {
+            return new DerivedSecretKey(encoded);
+        }
+
+        /**
+         * Zeroes the key bytes.
+         */
+        private void destroy() {
+            Arrays.fill(encoded, (byte) 0);
+        }
+    }
+
+    /**
+     * Copy of a derived key handed out for one operation, marked so that it is not cached.
+     */
+    private static final class DerivedSecretKey extends SecretKeySpec {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private DerivedSecretKey(byte[] encoded) {
+            super(encoded, "AES");
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Letter and quadgram statistics of English, used to score candidate decryptions.
+ *
+ * <p>
+ * The statistics are counted once, when the class is loaded, from the public-domain reference
+ * text bundled as {@link #CORPUS}. Only the 26 ASCII letters are counted, case-insensitively,
+ * and everything else is skipped, so quadgrams run across word boundaries the same way they do
+ * in a ciphertext whose spaces and punctuation are ignored.
+ * </p>
+ *
+ * <p>
+ * Letters are numbered from 0 for 'a' to 25 for 'z', and a quadgram of the letters
+ * {@code a, b, c, d} has the index {@code ((a * 26 + b) * 26 + c) * 26 + d}.
+ * </p>
+ *
+ * @see CaesarCracker
+ *
+ * @version 1.0
+ */
+final class EnglishStatistics {
+
+    /** Name of the bundled reference text, relative to this class. */
+    static final String CORPUS = "english-corpus.txt";
+
+    /** Number of different quadgrams. */
+    static final int QUADGRAM_COUNT = 26 * 26 * 26 * 26;
+
+    /** Number of different trigrams, which is the range of a quadgram index without its first letter. */
+    static final int TRIGRAM_COUNT = 26 * 26 * 26;
+
+    /**
+     * Probability of every letter, with one added to every count so that no letter has a
+     * probability of zero.
+     */
+    static final double[] LETTER_FREQUENCIES = new double[26];
+
+    /**
+     * Base-10 logarithm of the probability of every quadgram, indexed by quadgram. Quadgrams
+     * that never occur in the reference text get {@link #QUADGRAM_FLOOR}.
+     */
+    static final float[] QUADGRAMS = new float[QUADGRAM_COUNT];
+
+    /**
+     * Log probability of a quadgram that never occurs in the reference text: that of a
+     * hundredth of an occurrence, which ranks it below every quadgram that does occur.
+     */
+    static final float QUADGRAM_FLOOR;
+
+    /**
+     * Log probability of the most frequent quadgram, which bounds the score that any number of
+     * further quadgrams can add.
+     */
+    static final float MAX_QUADGRAM;
+
+    static {
+        byte[] letters = letters(readCorpus());
+        int[] letterCounts = new int[26];
+        int[] quadgramCounts = new int[QUADGRAM_COUNT];
+        int quadgram = 0;
+        for (int i = 0; i < letters.length; i++) {
+            letterCounts[letters[i]]++;
+            quadgram = quadgram % TRIGRAM_COUNT * 26 + letters[i];
+            if (i >= 3) {
+                quadgramCounts[quadgram]++;
+            }
+        }
+
+        for (int letter = 0; letter < 26; letter++) {
+            LETTER_FREQUENCIES[letter] = (letterCounts[letter] + 1.0) / (letters.length + 26);
+        }
+        double total = letters.length - 3;
+        QUADGRAM_FLOOR = (float) Math.log10(0.01 / total);
+        float max = QUADGRAM_FLOOR;
+        for (int i = 0; i < QUADGRAM_COUNT; i++) {
+            QUADGRAMS[i] = quadgramCounts[i] == 0 ? QUADGRAM_FLOOR : (float) Math.log10(quadgramCounts[i] / total);
+            max = Math.max(max, QUADGRAMS[i]);
+        }
+        MAX_QUADGRAM = max;
+    }
+
+    private EnglishStatistics() {
+    }
+
+    /**
+     * Returns the number of a letter.
+     *
+     * @param c the character
+     * @return the number of the letter from 0 to 25, or a number outside that range if {@code c}
+     *         is not an ASCII letter
+     */
+    static int letter(char c) {
+        // Setting bit 5 maps uppercase letters onto lowercase ones, and nothing else onto a letter
+        return (c | 0x20) - 'a';
+    }
+
+    /**
+     * Returns whether a number returned by {@link #letter(char)} is that of a letter.
+     *
+     * @param letter the number
+     * @return {@code true} if {@code letter} is between 0 and 25
+     */
+    static boolean isLetter(int letter) {
+        return Integer.compareUnsigned(letter, 26) < 0;
+    }
+
+    /**
+     * Returns the numbers of the ASCII letters of a text, skipping every other character.
+     *
+     * @param text the text
+     * @return the letter numbers, from 0 to 25
+     */
+    static byte[] letters(CharSequence text) {
+        byte[] letters = new byte[text.length()];
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int letter = letter(text.charAt(i));
+            if (isLetter(letter)) {
+                letters[count++] = (byte) letter;
+            }
+        }
+        return count == letters.length ? letters : Arrays.copyOf(letters, count);
+    }
+
+    /**
+     * Computes the chi-squared distance between the letter counts of a text and those expected
+     * of English text of the same length. Lower is more English.
+     *
+     * @param counts   the number of every letter, from index {@code offset}
+     * @param offset   the index of the count of 'a' in {@code counts}
+     * @param total    the number of letters
+     * @param rotation the rotation of the letters: the count of the letter {@code p} is read
+     *                 at index {@code p + rotation}, modulo 26
+     * @return the chi-squared score
+     */
+    static double chiSquared(int[] counts, int offset, int total, int rotation) {
+        double sum = 0;
+        for (int letter = 0; letter < 26; letter++) {
+            double expected = total * LETTER_FREQUENCIES[letter];
+            double difference = counts[offset + (letter + rotation) % 26] - expected;
+            sum += difference * difference / expected;
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the base-10 log-likelihood of the quadgrams of the decryption of a text, shifting
+     * each letter back by the shift of its key position as it is read. Higher is more English.
+     *
+     * @param letters the letter numbers of the text
+     * @param length  the number of letters to score
+     * @param shifts  the shift of every key position, from 0 to 25
+     * @return the quadgram score, or 0 if there are fewer than four letters
+     */
+    static double quadgramScore(byte[] letters, int length, byte[] shifts) {
+        double sum = 0;
+        int quadgram = 0;
+        int j = 0;
+        for (int i = 0; i < length; i++) {
+            int letter = letters[i] - shifts[j];
+            letter += (letter >> 31) & 26; // Wrap around without a branch
+            if (++j == shifts.length) {
+                j = 0;
+            }
+            quadgram = quadgram % TRIGRAM_COUNT * 26 + letter;
+            if (i >= 3) {
+                sum += QUADGRAMS[quadgram];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Reads the reference text, skipping the comment lines starting with '#'.
+     *
+     * @return the reference text
+     */
+    private static String readCorpus() {
+        try (InputStream in = Objects.requireNonNull(EnglishStatistics.class.getResourceAsStream(CORPUS), CORPUS)) {
+            StringBuilder text = new StringBuilder();
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                if (!line.startsWith("#")) {
+                    text.append(line).append('\n');
+                }
+            }
+            return text.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + CORPUS, e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+
+/**
+ * Incremental AES-GCM operation that encrypts the input in independently authenticated
+ * segments, so both encryption and decryption run in bounded memory.
+ *
+ * <p>
+ * A single GCM decryption cannot release any plaintext before it has checked the tag at the
+ * very end of the ciphertext, so it has to hold the whole message in memory. Instead, the
+ * plaintext is split into segments of {@link #SEGMENT_SIZE} bytes, and each segment is
+ * encrypted as its own GCM message with its ciphertext followed by a {@link #TAG_LENGTH}-byte
+ * tag. Segment {@code i} uses the 12-byte nonce with {@code i} XORed into its last four bytes,
+ * and its additional authenticated data is a single byte that is {@code 1} for the last
+ * segment and {@code 0} otherwise, so reordered, dropped or truncated segments fail to
+ * decrypt. A message always has at least one segment, and only the last one may be shorter
+ * than {@link #SEGMENT_SIZE}.
+ * </p>
+ *
+ * @see Aes.Mode#GCM
+ *
+ * @version 1.0
+ */
+final class GcmOperation implements CryptographyOperation {
+
+    /**
+     * Number of plaintext bytes in every segment except the last.
+     */
+    static final int SEGMENT_SIZE = 64 * 1024;
+
+    /**
+     * Length of the authentication tag following each segment, in bytes.
+     */
+    static final int TAG_LENGTH = 16;
+
+    private static final byte[] LAST_SEGMENT = { 1 };
+    private static final byte[] INNER_SEGMENT = { 0 };
+
+    private final Cipher cipher;
+    private final int opmode;
+    private final SecretKey key;
+    private final byte[] nonce;
+    private final String failureMessage;
+    private final int segmentLength;
+    private final ByteBuffer pending;
+    private int segment;
+
+    /**
+     * Constructs a new {@code GcmOperation}.
+     *
+     * @param cipher an uninitialized {@code AES/GCM/NoPadding} cipher
+     * @param opmode {@link Cipher#ENCRYPT_MODE} or {@link Cipher#DECRYPT_MODE}
+     * @param key    the secret key
+     * @param nonce  the 12-byte nonce of the message
+     */
+    GcmOperation(Cipher cipher, int opmode, SecretKey key, byte[] nonce) {
+        this.cipher = cipher;
+        this.opmode = opmode;
+        this.key = key;
+        this.nonce = nonce;
+        this.failureMessage = opmode == Cipher.ENCRYPT_MODE ? "Encryption failed" : "Decryption failed";
+        this.segmentLength = opmode == Cipher.ENCRYPT_MODE ? SEGMENT_SIZE : SEGMENT_SIZE + TAG_LENGTH;
+        this.pending = ByteBuffer.allocate(segmentLength);
+    }
+
+    /**
+     * Returns the length of the ciphertext for a plaintext of the given length, or an upper
+     * bound on it.
+     *
+     * @param plaintextLength the number of plaintext bytes
+     * @return the maximum number of ciphertext bytes
+     */
+    static int getEncryptedSize(long plaintextLength) {
+        return (int) Math.min(Integer.MAX_VALUE, plaintextLength + (plaintextLength / SEGMENT_SIZE + 1) * TAG_LENGTH);
+    }
+
+    @Override
+    public int getOutputSize(int inputLength) {
+        long total = (long) pending.position() + inputLength;
+        return opmode == Cipher.ENCRYPT_MODE ? getEncryptedSize(total) : (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    /**
+     * Processes every complete segment that is known not to be the last one. Segments are
+     * read straight from {@code src} when possible; only the tail that might turn out to be
+     * the last segment is copied aside until more input or {@link #doFinal} arrives.
+     *
+     * @param src the input bytes
+     * @param dst the buffer receiving the output bytes
+     */
+    @Override
+    public void update(ByteBuffer src, ByteBuffer dst) {
+        if (pending.position() > 0) {
+            int limit = src.limit();
+            src.limit(src.position() + Math.min(pending.remaining(), src.remaining()));
+            pending.put(src);
+            src.limit(limit);
+            if (pending.hasRemaining() || !src.hasRemaining()) {
+                return;
+            }
+            pending.flip();
+            processSegment(pending, dst, false);
+            pending.clear();
+        }
+
+        while (src.remaining() > segmentLength) {
+            int limit = src.limit();
+            src.limit(src.position() + segmentLength);
+            processSegment(src, dst, false);
+            src.limit(limit);
+        }
+        pending.put(src);
+    }
+
+    @Override
+    public void doFinal(ByteBuffer dst) {
+        pending.flip();
+        processSegment(pending, dst, true);
+        pending.clear();
+    }
+
+    /**
+     * Encrypts or decrypts a single segment.
+     *
+     * @param src  the segment
+     * @param dst  the buffer receiving the output bytes
+     * @param last whether this is the last segment of the message
+     * @throws RuntimeException if the cipher fails, including when a tag does not match
+     */
+    private void processSegment(ByteBuffer src, ByteBuffer dst, boolean last) {
+        try {
+            cipher.init(opmode, key, new GCMParameterSpec(TAG_LENGTH * 8, segmentNonce(segment++)));
+            cipher.updateAAD(last ? LAST_SEGMENT : INNER_SEGMENT);
+            cipher.doFinal(src, dst);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(failureMessage, e);
+        }
+    }
+
+    /**
+     * Returns the nonce of the segment with the given index.
+     *
+     * @param index the segment index
+     * @return the message nonce with {@code index} XORed into its last four bytes
+     */
+    private byte[] segmentNonce(int index) {
+        byte[] segmentNonce = nonce.clone();
+        int end = segmentNonce.length;
+        segmentNonce[end - 4] ^= (byte) (index >>> 24);
+        segmentNonce[end - 3] ^= (byte) (index >>> 16);
+        segmentNonce[end - 2] ^= (byte) (index >>> 8);
+        segmentNonce[end - 1] ^= (byte) index;
+        return segmentNonce;
+    }
+}
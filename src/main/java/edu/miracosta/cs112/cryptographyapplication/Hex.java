@@ -0,0 +1,334 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Table-driven hexadecimal codec working on bytes.
+ *
+ * <p>
+ * Every byte is encoded as exactly two lowercase hexadecimal digits, so the encoding of any
+ * byte sequence can be decoded back to it. Decoding accepts both lowercase and uppercase
+ * digits. The encoded form is ASCII, one byte per digit in the {@link ByteBuffer} methods.
+ * </p>
+ *
+ * <p>
+ * Large inputs can be converted in chunks with {@link #startEncoding()} and
+ * {@link #startDecoding()}, or with the streams built on them, so memory use does not depend
+ * on the size of the input.
+ * </p>
+ *
+ * @see CryptographyMethod#hexEncode(String)
+ *
+ * @version 1.0
+ */
+public final class Hex {
+
+    private static final byte[] DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Value of every ASCII hexadecimal digit, or -1 for every other character.
+     */
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            VALUES['a' + i] = (byte) (10 + i);
+            VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private Hex() {
+    }
+
+    /**
+     * Encodes the given bytes.
+     *
+     * @param bytes the bytes to encode
+     * @return the hexadecimal digits, two for every byte
+     */
+    public static String encode(byte[] bytes) {
+        byte[] digits = new byte[bytes.length * 2];
+        encode(bytes, 0, digits, 0, bytes.length);
+        return new String(digits, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Decodes the given hexadecimal digits.
+     *
+     * @param hex the hexadecimal digits
+     * @return the decoded bytes
+     * @throws IllegalArgumentException if the length is odd or a character is not a hexadecimal digit
+     */
+    public static byte[] decode(CharSequence hex) throws IllegalArgumentException {
+        if (hex.length() % 2 != 0) {
+            throw new IllegalArgumentException("Hexadecimal string length must be even.");
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (value(hex.charAt(2 * i)) << 4 | value(hex.charAt(2 * i + 1)));
+        }
+        return bytes;
+    }
+
+    /**
+     * Encodes the remaining bytes of {@code src} into {@code dst} as ASCII digits.
+     *
+     * @param src the bytes to encode
+     * @param dst the buffer receiving two digits for every byte of {@code src}
+     * @throws BufferOverflowException if {@code dst} has less than twice the remaining bytes of {@code src} remaining
+     */
+    public static void encode(ByteBuffer src, ByteBuffer dst) {
+        int length = src.remaining();
+        if (dst.remaining() / 2 < length) {
+            throw new BufferOverflowException();
+        }
+
+        if (src.hasArray() && dst.hasArray()) {
+            encode(src.array(), src.arrayOffset() + src.position(), dst.array(), dst.arrayOffset() + dst.position(), length);
+            src.position(src.limit());
+            dst.position(dst.position() + 2 * length);
+        } else {
+            while (src.hasRemaining()) {
+                int b = src.get() & 0xFF;
+                dst.put(DIGITS[b >>> 4]);
+                dst.put(DIGITS[b & 0xF]);
+            }
+        }
+    }
+
+    /**
+     * Decodes the remaining ASCII digits of {@code src} into {@code dst}.
+     *
+     * @param src the digits to decode, an even number of them
+     * @param dst the buffer receiving one byte for every two digits of {@code src}
+     * @throws IllegalArgumentException if the number of digits is odd or a byte is not a hexadecimal digit
+     * @throws BufferOverflowException  if {@code dst} has less than half the remaining bytes of {@code src} remaining
+     */
+    public static void decode(ByteBuffer src, ByteBuffer dst) throws IllegalArgumentException {
+        if (src.remaining() % 2 != 0) {
+            throw new IllegalArgumentException("Hexadecimal string length must be even.");
+        }
+        decodePairs(src, dst);
+    }
+
+    /**
+     * Starts an incremental encoding.
+     *
+     * @return a new operation encoding its input into ASCII digits
+     */
+    public static CryptographyOperation startEncoding() {
+        return new Encoding();
+    }
+
+    /**
+     * Starts an incremental decoding. A digit left over at the end of a chunk is combined with
+     * the first digit of the next one. ASCII whitespace, such as the line breaks of piped or
+     * wrapped input, is skipped anywhere, even between the two digits of a byte.
+     *
+     * @return a new operation decoding ASCII digits into bytes
+     */
+    public static CryptographyOperation startDecoding() {
+        return new Decoding();
+    }
+
+    /**
+     * Returns an output stream that encodes everything written to it and writes the digits to
+     * {@code out}.
+     *
+     * @param out the stream receiving the digits
+     * @return the encoding output stream
+     */
+    public static OutputStream encodingOutputStream(OutputStream out) {
+        return new CryptographyOutputStream(out, startEncoding());
+    }
+
+    /**
+     * Returns an output stream that decodes the digits written to it and writes the bytes to
+     * {@code out}. ASCII whitespace between the digits is skipped. Closing it fails if an odd
+     * number of digits was written.
+     *
+     * @param out the stream receiving the decoded bytes
+     * @return the decoding output stream
+     */
+    public static OutputStream decodingOutputStream(OutputStream out) {
+        return new CryptographyOutputStream(out, startDecoding());
+    }
+
+    /**
+     * Returns an input stream that reads bytes from {@code in} and returns their digits.
+     *
+     * @param in the stream providing the bytes
+     * @return the encoding input stream
+     */
+    public static InputStream encodingInputStream(InputStream in) {
+        return new CryptographyInputStream(in, startEncoding());
+    }
+
+    /**
+     * Returns an input stream that reads digits from {@code in} and returns the decoded bytes.
+     * ASCII whitespace between the digits is skipped.
+     *
+     * @param in the stream providing the digits
+     * @return the decoding input stream
+     */
+    public static InputStream decodingInputStream(InputStream in) {
+        return new CryptographyInputStream(in, startDecoding());
+    }
+
+    /**
+     * Encodes a range of bytes into ASCII digits.
+     *
+     * @param src       the bytes to encode
+     * @param srcOffset the index of the first byte to encode
+     * @param dst       the array receiving the digits
+     * @param dstOffset the index of the first digit
+     * @param length    the number of bytes to encode
+     */
+    private static void encode(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            int b = src[srcOffset + i] & 0xFF;
+            dst[dstOffset + 2 * i] = DIGITS[b >>> 4];
+            dst[dstOffset + 2 * i + 1] = DIGITS[b & 0xF];
+        }
+    }
+
+    /**
+     * Decodes every complete pair of digits remaining in {@code src}. A trailing odd digit is
+     * left in {@code src}.
+     *
+     * @param src the digits to decode
+     * @param dst the buffer receiving the bytes
+     * @throws IllegalArgumentException if a byte is not a hexadecimal digit
+     * @throws BufferOverflowException  if {@code dst} is too small
+     */
+    private static void decodePairs(ByteBuffer src, ByteBuffer dst) {
+        int length = src.remaining() / 2;
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        if (src.hasArray() && dst.hasArray()) {
+            byte[] in = src.array();
+            byte[] out = dst.array();
+            int inOffset = src.arrayOffset() + src.position();
+            int outOffset = dst.arrayOffset() + dst.position();
+            for (int i = 0; i < length; i++) {
+                out[outOffset + i] = (byte) (value(in[inOffset + 2 * i]) << 4 | value(in[inOffset + 2 * i + 1]));
+            }
+            src.position(src.position() + 2 * length);
+            dst.position(dst.position() + length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst.put((byte) (value(src.get()) << 4 | value(src.get())));
+            }
+        }
+    }
+
+    /**
+     * Returns the value of a hexadecimal digit.
+     *
+     * @param digit the digit
+     * @return the value, between 0 and 15
+     * @throws IllegalArgumentException if {@code digit} is not a hexadecimal digit
+     */
+    private static int value(int digit) {
+        int value = digit >= 0 && digit < VALUES.length ? VALUES[digit] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid hexadecimal character: " + (char) (digit < 0 ? digit & 0xFF : digit));
+        }
+        return value;
+    }
+
+    /**
+     * Incremental encoding, which needs no state between chunks.
+     */
+    private static final class Encoding implements CryptographyOperation {
+        @Override
+        public int getOutputSize(int inputLength) {
+            return (int) Math.min(Integer.MAX_VALUE, 2L * inputLength);
+        }
+
+        @Override
+        public void update(ByteBuffer src, ByteBuffer dst) {
+            encode(src, dst);
+        }
+
+        @Override
+        public void doFinal(ByteBuffer dst) {
+        }
+    }
+
+    /**
+     * Returns whether a character is ASCII whitespace, which the incremental decoding skips.
+     *
+     * @param c the character
+     * @return {@code true} for a space, tab, line feed, vertical tab, form feed or carriage return
+     */
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    /**
+     * Incremental decoding that skips ASCII whitespace and holds on to an odd digit at the end
+     * of a chunk.
+     */
+    private static final class Decoding implements CryptographyOperation {
+        /** The value of the digit left over from the previous chunk, or -1 if there is none. */
+        private int pending = -1;
+
+        @Override
+        public int getOutputSize(int inputLength) {
+            return (int) ((inputLength + (pending >= 0 ? 1L : 0L)) / 2);
+        }
+
+        @Override
+        public void update(ByteBuffer src, ByteBuffer dst) {
+            int limit = src.limit();
+            while (src.hasRemaining()) {
+                int position = src.position();
+                int digit = src.get(position);
+                if (isWhitespace(digit)) {
+                    src.position(position + 1);
+                } else if (pending >= 0) {
+                    if (!dst.hasRemaining()) {
+                        throw new BufferOverflowException();
+                    }
+                    dst.put((byte) (pending << 4 | value(digit)));
+                    src.position(position + 1);
+                    pending = -1;
+                } else {
+                    // Decode the run of digits up to the next whitespace in one pass
+                    int end = position + 1;
+                    while (end < limit && !isWhitespace(src.get(end))) {
+                        end++;
+                    }
+                    src.limit(end);
+                    try {
+                        decodePairs(src, dst);
+                        if (src.hasRemaining()) {
+                            pending = value(src.get());
+                        }
+                    } finally {
+                        src.limit(limit);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void doFinal(ByteBuffer dst) {
+            if (pending >= 0) {
+                throw new IllegalArgumentException("Hexadecimal string length must be even.");
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, with buckets of bounded relative width in
+ * the manner of HdrHistogram.
+ *
+ * <p>
+ * Every power of two is split into {@link #SUB_BUCKETS} buckets of equal width, so a value is
+ * stored with a relative error of at most 1 / {@link #SUB_BUCKETS} however large it is, and the
+ * bucket of a value is found from its leading zeros with a few shifts. Every bucket is a
+ * {@link LongAdder}, so threads recording at the same time update separate cells instead of
+ * contending for one counter. A value can be recorded with a count, so that the latency of one
+ * operation in a sample stands for all the operations it was drawn from. Values of
+ * {@link #MAX_TRACKABLE} nanoseconds or more, about 69 seconds, are counted in the last bucket.
+ * </p>
+ *
+ * <p>
+ * Reading the histogram while values are recorded gives a consistent enough snapshot for
+ * monitoring, but not an exact one: a value may be counted in its bucket and not yet in the
+ * sum, or the other way around.
+ * </p>
+ *
+ * @see OperationMetrics
+ *
+ * @version 1.0
+ */
+final class LatencyHistogram {
+
+    /** Base-2 logarithm of the number of buckets every power of two is split into. */
+    static final int SUB_BUCKET_BITS = 3;
+
+    /** Number of buckets every power of two is split into. */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Smallest value that is not tracked exactly, 2<sup>36</sup> nanoseconds. */
+    static final long MAX_TRACKABLE = 1L << 36;
+
+    /** Number of buckets: one per value below {@link #SUB_BUCKETS}, then one per sub-bucket of every larger power of two. */
+    static final int BUCKET_COUNT = bucket(MAX_TRACKABLE - 1) + 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * @param value the value, not negative
+     * @return the index of its bucket
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the smallest value of a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the smallest value counted in it
+     */
+    static long lowestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Returns the largest value of a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the largest value counted in it
+     */
+    static long highestValue(int bucket) {
+        return bucket + 1 < BUCKET_COUNT ? lowestValue(bucket + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds; negative values, which a clock adjustment could
+     *              give, are recorded as 0
+     * @param count the number of times to record it, greater than 1 for a latency that stands
+     *              for a sample of operations
+     */
+    void record(long nanos, long count) {
+        long value = Math.max(nanos, 0);
+        buckets[bucket(Math.min(value, MAX_TRACKABLE - 1))].add(count);
+        sum.add(value * count);
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return the count
+     */
+    long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the mean of the recorded latencies.
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded
+     */
+    double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Gets the largest recorded latency.
+     *
+     * @return the maximum in nanoseconds, or 0 if nothing was recorded
+     */
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the latency below or at which a given percentage of the recorded latencies fall.
+     *
+     * @param percentile the percentage, from 0 to 100
+     * @return the highest value of the bucket holding that rank, capped at the maximum, or 0
+     *         if nothing was recorded
+     */
+    long getValueAtPercentile(double percentile) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Forgets every recorded latency.
+     */
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        sum.reset();
+        max.reset();
+    }
+}
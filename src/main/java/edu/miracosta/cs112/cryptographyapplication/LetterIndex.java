@@ -0,0 +1,188 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.util.Arrays;
+
+/**
+ * Index of the number of ASCII letters in a text that is edited in place, answering how many
+ * letters come before a position without scanning the text up to it.
+ *
+ * <p>
+ * The text is divided into blocks of at most {@link #BLOCK_SIZE} characters, and only the
+ * length and letter count of every block is kept. Counting the letters before a position adds
+ * up the counts of the blocks before it and scans the rest of its own block. An edit recounts
+ * only the blocks it touches. Both take time proportional to the number of blocks plus one
+ * block, rather than to the length of the text. Every block but a lone one holds at least
+ * half of {@code BLOCK_SIZE} characters, so edits do not fragment the text into ever more
+ * blocks.
+ * </p>
+ *
+ * <p>
+ * The index does not keep the text itself; the methods that need some of it read it from a
+ * {@link TextRange}. This is what gives a Vigenere key its position at any point of a text.
+ * </p>
+ *
+ * @see VigenereCipher#encrypt(char[], int, char[], int, int, int)
+ * @see LiveEncryption
+ *
+ * @version 1.0
+ */
+final class LetterIndex {
+
+    /** Largest number of characters in a block. */
+    static final int BLOCK_SIZE = 4096;
+
+    private int[] lengths = new int[16];
+    private int[] letters = new int[16];
+    private int blockCount;
+    private int totalLetters;
+
+    /**
+     * Source of the characters in a range of the indexed text.
+     */
+    @FunctionalInterface
+    interface TextRange {
+
+        /**
+         * Returns the characters between {@code start} and {@code end}.
+         *
+         * @param start the index of the first character, inclusive
+         * @param end   the index of the last character, exclusive
+         * @return the characters in the range
+         */
+        String get(int start, int end);
+    }
+
+    /**
+     * Indexes a new text, replacing everything indexed before.
+     *
+     * @param text the text
+     */
+    void reset(CharSequence text) {
+        blockCount = 0;
+        totalLetters = 0;
+        insertBlocks(0, text);
+    }
+
+    /**
+     * Returns the number of letters in the whole text.
+     *
+     * @return the number of letters
+     */
+    int totalLetters() {
+        return totalLetters;
+    }
+
+    /**
+     * Returns the number of blocks the text is divided into.
+     *
+     * @return the number of blocks
+     */
+    int blockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Returns the number of letters before a position of the text.
+     *
+     * @param position the position
+     * @param text     the source of the indexed text
+     * @return the number of letters before {@code position}
+     */
+    int lettersBefore(int position, TextRange text) {
+        int start = 0;
+        int count = 0;
+        for (int i = 0; i < blockCount && start + lengths[i] <= position; i++) {
+            start += lengths[i];
+            count += letters[i];
+        }
+        return start == position ? count : count + countLetters(text.get(start, position), 0, position - start);
+    }
+
+    /**
+     * Updates the index after the characters between {@code start} and {@code oldEnd} were
+     * replaced by the characters between {@code start} and {@code end}.
+     *
+     * <p>
+     * The blocks overlapping the replaced range are split again. When they would make less than
+     * half a block, a neighbouring block joins them, which keeps every block at least half full.
+     * </p>
+     *
+     * @param start  the index of the first replaced character
+     * @param oldEnd the end of the replaced range before the edit
+     * @param end    the end of the replacement after the edit
+     * @param text   the source of the edited text
+     */
+    void replace(int start, int oldEnd, int end, TextRange text) {
+        int first = 0;
+        int firstStart = 0;
+        while (first < blockCount - 1 && firstStart + lengths[first] <= start) {
+            firstStart += lengths[first++];
+        }
+        int last = first;
+        int lastEnd = blockCount == 0 ? 0 : firstStart + lengths[first];
+        while (last < blockCount - 1 && lastEnd < oldEnd) {
+            lastEnd += lengths[++last];
+        }
+        if (lastEnd + end - oldEnd - firstStart < BLOCK_SIZE / 2) {
+            if (last < blockCount - 1) {
+                lastEnd += lengths[++last];
+            } else if (first > 0) {
+                firstStart -= lengths[--first];
+            }
+        }
+
+        int removed = Math.min(blockCount, last + 1) - first;
+        for (int i = first; i < first + removed; i++) {
+            totalLetters -= letters[i];
+        }
+        System.arraycopy(lengths, first + removed, lengths, first, blockCount - first - removed);
+        System.arraycopy(letters, first + removed, letters, first, blockCount - first - removed);
+        blockCount -= removed;
+        insertBlocks(first, text.get(firstStart, lastEnd + end - oldEnd));
+    }
+
+    /**
+     * Splits a range of text into the fewest blocks, of equal lengths give or take one
+     * character, and inserts them before the block at {@code index}. Unless the text fits in a
+     * single block, every block holds at least half of {@link #BLOCK_SIZE} characters.
+     *
+     * @param index the index of the first new block
+     * @param text  the text of the new blocks
+     */
+    private void insertBlocks(int index, CharSequence text) {
+        int count = (text.length() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        if (blockCount + count > lengths.length) {
+            int capacity = Math.max(lengths.length * 2, blockCount + count);
+            lengths = Arrays.copyOf(lengths, capacity);
+            letters = Arrays.copyOf(letters, capacity);
+        }
+        System.arraycopy(lengths, index, lengths, index + count, blockCount - index);
+        System.arraycopy(letters, index, letters, index + count, blockCount - index);
+        for (int i = 0; i < count; i++) {
+            int blockStart = (int) ((long) i * text.length() / count);
+            int blockEnd = (int) ((long) (i + 1) * text.length() / count);
+            lengths[index + i] = blockEnd - blockStart;
+            letters[index + i] = countLetters(text, blockStart, blockEnd);
+            totalLetters += letters[index + i];
+        }
+        blockCount += count;
+    }
+
+    /**
+     * Counts the ASCII letters in a range of a text.
+     *
+     * @param text  the text
+     * @param start the index of the first character, inclusive
+     * @param end   the index of the last character, exclusive
+     * @return the number of letters
+     */
+    static int countLetters(CharSequence text, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            // Setting bit 5 maps uppercase letters onto lowercase ones, and nothing else onto a letter,
+            // so a single unsigned comparison replaces the branches of CaesarCipher.isLetter
+            count += Integer.compareUnsigned((text.charAt(i) | 0x20) - 'a', 26) < 0 ? 1 : 0;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,204 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import javafx.animation.PauseTransition;
+import javafx.scene.control.TextFormatter;
+import javafx.scene.control.TextInputControl;
+import javafx.util.Duration;
+
+/**
+ * Keeps the output of a scene encrypted as the user types, re-encrypting only the part of the
+ * input that changed.
+ *
+ * <p>
+ * A {@link TextFormatter} on the input records every edit into a single dirty range, so a burst
+ * of keystrokes is coalesced into one update. The update runs once the input has not changed
+ * for {@link #DEBOUNCE_DELAY}. Each keystroke therefore only widens the dirty range, and each
+ * update only reads and replaces that range, however long the text is.
+ * </p>
+ *
+ * <p>
+ * Incremental updates require the output to be known to mirror the input, which is the case
+ * after a full recompute in a mode where every character encrypts into one character. Until
+ * then, and whenever the cipher or the modes change, the next update is a full recompute. The
+ * full recompute is started with {@link #beginRecompute()} and, since it may run in the
+ * background, edits made while it runs are recorded and applied once
+ * {@link #endRecompute(boolean)} reports its result.
+ * </p>
+ *
+ * @see CaesarCipherSceneController
+ * @see VigenereCipherSceneController
+ *
+ * @version 1.0
+ */
+final class LiveEncryption {
+
+    /** Time without edits after which the output is updated. */
+    static final Duration DEBOUNCE_DELAY = Duration.millis(150);
+
+    private final TextInputControl input;
+    private final Runnable recompute;
+    private final Updater updater;
+    private final PauseTransition debounce = new PauseTransition(DEBOUNCE_DELAY);
+
+    private boolean enabled;
+    private boolean synced;
+    private boolean recomputing;
+    private int syncedLength;
+    private int dirtyStart = -1;
+    private int dirtyEnd;
+
+    /**
+     * Re-encrypts a changed range of the input into the output.
+     */
+    @FunctionalInterface
+    interface Updater {
+
+        /**
+         * Re-encrypts the input between {@code start} and {@code end}, which replaces the output
+         * between {@code start} and {@code oldEnd}.
+         *
+         * @param start  the index of the first changed character
+         * @param oldEnd the end of the changed range in the output
+         * @param end    the end of the changed range in the input
+         */
+        void update(int start, int oldEnd, int end);
+    }
+
+    /**
+     * Constructs a new {@code LiveEncryption} and installs its {@link TextFormatter} on the input.
+     *
+     * @param input     the control the user types into
+     * @param recompute encrypts the whole input, calling {@link #beginRecompute()} to get it
+     * @param updater   re-encrypts a changed range of the input
+     */
+    LiveEncryption(TextInputControl input, Runnable recompute, Updater updater) {
+        this.input = input;
+        this.recompute = recompute;
+        this.updater = updater;
+        this.debounce.setOnFinished(event -> flush());
+        input.setTextFormatter(new TextFormatter<String>(change -> {
+            if (change.isContentChange()) {
+                record(change.getRangeStart(), change.getRangeEnd(), change.getText().length());
+            }
+            return change;
+        }));
+    }
+
+    /**
+     * Turns live encryption on or off. Turning it on recomputes the whole output.
+     *
+     * @param enabled whether the output follows the input
+     */
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        invalidate();
+        if (!enabled) {
+            debounce.stop();
+        }
+    }
+
+    /**
+     * Makes the next update a full recompute, because the cipher or the modes changed. A full
+     * recompute that is still running is superseded.
+     */
+    void invalidate() {
+        synced = false;
+        recomputing = false;
+        dirtyStart = -1;
+        if (enabled) {
+            debounce.playFromStart();
+        }
+    }
+
+    /**
+     * Starts a full recompute of the output. Edits made from now on are applied on top of its
+     * result.
+     *
+     * @return the input to encrypt
+     */
+    String beginRecompute() {
+        String text = input.getText();
+        recomputing = true;
+        synced = false;
+        syncedLength = text.length();
+        dirtyStart = -1;
+        return text;
+    }
+
+    /**
+     * Finishes the full recompute started by {@link #beginRecompute()}, once its result is in the
+     * output. Nothing happens if the recompute was superseded by {@link #invalidate()}.
+     *
+     * @param incremental whether later edits can be applied to the output one range at a time
+     */
+    void endRecompute(boolean incremental) {
+        if (!recomputing) {
+            return;
+        }
+        recomputing = false;
+        synced = incremental;
+        if (dirtyStart >= 0) {
+            if (synced) {
+                flush();
+            } else {
+                debounce.playFromStart();
+            }
+        }
+    }
+
+    /**
+     * Abandons the full recompute started by {@link #beginRecompute()} because it failed or was
+     * cancelled. The next edit starts a new one.
+     */
+    void cancelRecompute() {
+        recomputing = false;
+        synced = false;
+    }
+
+    /**
+     * Records an edit that replaced the characters between {@code start} and {@code end} with
+     * {@code length} characters, merging it into the dirty range.
+     *
+     * @param start  the index of the first replaced character
+     * @param end    the end of the replaced range, before the edit
+     * @param length the number of inserted characters
+     */
+    private void record(int start, int end, int length) {
+        if (!enabled) {
+            return;
+        }
+        if (synced || recomputing) {
+            int delta = length - (end - start);
+            if (dirtyStart < 0) {
+                dirtyStart = start;
+                dirtyEnd = start + length;
+            } else {
+                dirtyStart = Math.min(dirtyStart, start);
+                dirtyEnd = Math.max(dirtyEnd, end) + delta;
+            }
+        }
+        debounce.playFromStart();
+    }
+
+    /**
+     * Brings the output up to date with the input.
+     */
+    private void flush() {
+        if (!enabled || recomputing) {
+            return;
+        }
+        if (!synced) {
+            recompute.run();
+            return;
+        }
+        if (dirtyStart < 0) {
+            return;
+        }
+        int length = input.getLength();
+        int start = dirtyStart;
+        int end = dirtyEnd;
+        dirtyStart = -1;
+        updater.update(start, end - (length - syncedLength), end);
+        syncedLength = length;
+    }
+}
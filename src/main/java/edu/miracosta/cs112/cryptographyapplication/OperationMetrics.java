@@ -0,0 +1,362 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and a latency histogram for one operation of one algorithm, such as the
+ * encryptions of {@link CaesarCipher}.
+ *
+ * <p>
+ * While metrics are {@link #isEnabled() enabled}, which they are by default, every operation
+ * started through the public API of a {@link CryptographyMethod} is recorded here exactly once:
+ * the {@code String} and {@code byte[]} methods, the encrypting and decrypting streams, which
+ * also carry the {@code InputStream}/{@code OutputStream} methods, and the file methods of
+ * {@link Aes}. Each of them is built on the {@code ByteBuffer} methods and
+ * {@link CryptographyOperation}s, which are not measured themselves, so an operation that goes
+ * through several layers is not counted twice. Every instance is registered on the platform
+ * MBean server under
+ * {@code edu.miracosta.cs112.cryptographyapplication:type=OperationMetrics,algorithm=...,operation=...}
+ * when it is first used, so the metrics of a running application can be read with JConsole or
+ * any other JMX client.
+ * </p>
+ *
+ * <p>
+ * The operations, failures and lengths are counted exactly, in counters of the recording thread
+ * that only it writes and that are added up when they are read, so recording them costs a few
+ * plain stores. The counters of threads that ended are folded into a shared total the next time
+ * the metrics are read or a new thread records. Every bucket of the {@link LatencyHistogram} is
+ * a {@link java.util.concurrent.atomic.LongAdder}. Reading the clock and updating the histogram
+ * cost about as much as encrypting a hundred characters with {@link CaesarCipher}, though, so
+ * only operations on at least {@link #TIMED_LENGTH} characters or bytes, and all stream and file
+ * operations, are always timed. Shorter ones are timed at random, one in {@link #SAMPLE_RATE},
+ * and each timed one is recorded {@link #SAMPLE_RATE} times, so the percentiles estimate those
+ * of all operations without bias.
+ * </p>
+ *
+ * @version 1.0
+ */
+public final class OperationMetrics implements OperationMetricsMBean {
+
+    /** Domain of the names of the MBeans. */
+    public static final String DOMAIN = "edu.miracosta.cs112.cryptographyapplication";
+
+    /** Name of the encryption operation. */
+    public static final String ENCRYPT = "encrypt";
+
+    /** Name of the decryption operation. */
+    public static final String DECRYPT = "decrypt";
+
+    /** Input length from which every operation is timed. */
+    static final int TIMED_LENGTH = 8192;
+
+    /** One in how many operations on shorter inputs are timed. */
+    static final int SAMPLE_RATE = 16;
+
+    private static final ConcurrentMap<String, OperationMetrics> METRICS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = true;
+
+    /** Indexes of the counters in {@link Counters}. */
+    private static final int OPERATIONS = 0;
+    private static final int FAILURES = 1;
+    private static final int BYTES_IN = 2;
+    private static final int BYTES_OUT = 3;
+    private static final int COUNTER_COUNT = 4;
+
+    private final String algorithm;
+    private final String operation;
+    private final ThreadLocal<Counters> counters = ThreadLocal.withInitial(this::addCounters);
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /** Counters of the live threads that recorded an operation, guarded by {@code this}. */
+    private final List<Counters> threadCounters = new ArrayList<>();
+
+    /** Counts of the threads that ended, guarded by {@code this}. */
+    private final long[] retired = new long[COUNTER_COUNT];
+
+    /** Counts at the last {@link #reset()}, subtracted from the totals, guarded by {@code this}. */
+    private final long[] resetCounts = new long[COUNTER_COUNT];
+
+    private OperationMetrics(String algorithm, String operation) {
+        this.algorithm = algorithm;
+        this.operation = operation;
+    }
+
+    /**
+     * Returns whether operations are measured.
+     *
+     * @return {@code true} if operations are measured
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops measuring operations. Counts recorded so far are kept.
+     *
+     * @param enabled whether operations are measured
+     */
+    public static void setEnabled(boolean enabled) {
+        OperationMetrics.enabled = enabled;
+    }
+
+    /**
+     * Returns the metrics of an operation of an algorithm, creating and registering them on
+     * the platform MBean server the first time.
+     *
+     * @param algorithm the name of the algorithm
+     * @param operation {@link #ENCRYPT} or {@link #DECRYPT}
+     * @return the metrics
+     */
+    public static OperationMetrics of(String algorithm, String operation) {
+        return METRICS.computeIfAbsent(algorithm + ':' + operation, key -> register(new OperationMetrics(algorithm, operation)));
+    }
+
+    /**
+     * Returns the metrics of every operation that was measured so far.
+     *
+     * @return the metrics
+     */
+    public static Collection<OperationMetrics> all() {
+        return List.copyOf(METRICS.values());
+    }
+
+    /**
+     * Registers metrics on the platform MBean server. Metrics that cannot be registered, for
+     * example because another copy of this class already registered the same name, are still
+     * recorded and available from {@link #all()}.
+     *
+     * @param metrics the metrics
+     * @return the metrics
+     */
+    private static OperationMetrics register(OperationMetrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, metrics.getObjectName());
+        } catch (JMException | SecurityException e) {
+            // Only the JMX view of the metrics is lost
+        }
+        return metrics;
+    }
+
+    /**
+     * Gets the name of these metrics on the MBean server.
+     *
+     * @return the object name
+     * @throws JMException if the algorithm is not a valid name
+     */
+    ObjectName getObjectName() throws JMException {
+        return new ObjectName(DOMAIN + ":type=OperationMetrics,algorithm=" + algorithm
+                + ",operation=" + operation);
+    }
+
+    /**
+     * Decides whether an operation is timed.
+     *
+     * @param inputLength the length of the input of the operation
+     * @return the number of operations the latency of this one stands for, or 0 if it is not
+     *         timed
+     */
+    static int sampleWeight(long inputLength) {
+        if (inputLength >= TIMED_LENGTH) {
+            return 1;
+        }
+        return ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0 ? SAMPLE_RATE : 0;
+    }
+
+    /**
+     * Records an operation that succeeded.
+     *
+     * @param inputLength  the length of the input
+     * @param outputLength the length of the output
+     * @param weight       the result of {@link #sampleWeight(long)} for the operation, or 1
+     *                     for an operation that is always timed
+     * @param start        the {@link System#nanoTime()} at the start of the operation, if it
+     *                     is timed
+     */
+    void recordSuccess(long inputLength, long outputLength, int weight, long start) {
+        Counters local = counters.get();
+        local.add(OPERATIONS, 1);
+        local.add(BYTES_IN, inputLength);
+        local.add(BYTES_OUT, outputLength);
+        if (weight != 0) {
+            latencies.record(System.nanoTime() - start, weight);
+        }
+    }
+
+    /**
+     * Records an operation that threw an exception.
+     *
+     * @param weight the weight the operation was started with
+     * @param start  the {@link System#nanoTime()} at the start of the operation, if it is timed
+     */
+    void recordFailure(int weight, long start) {
+        Counters local = counters.get();
+        local.add(OPERATIONS, 1);
+        local.add(FAILURES, 1);
+        if (weight != 0) {
+            latencies.record(System.nanoTime() - start, weight);
+        }
+    }
+
+    /**
+     * Creates the counters of the current thread, the first time it records an operation.
+     *
+     * @return the counters
+     */
+    private synchronized Counters addCounters() {
+        retireEndedThreads();
+        Counters local = new Counters(Thread.currentThread());
+        threadCounters.add(local);
+        return local;
+    }
+
+    /**
+     * Folds the counters of the threads that ended into {@link #retired}, so that a pool
+     * replacing its threads does not accumulate counters. A thread that ended cannot record any
+     * more, and its last counts are visible once {@link Thread#isAlive()} returned
+     * {@code false}.
+     */
+    private void retireEndedThreads() {
+        threadCounters.removeIf(local -> {
+            if (local.owner.isAlive()) {
+                return false;
+            }
+            for (int i = 0; i < COUNTER_COUNT; i++) {
+                retired[i] += local.get(i);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Adds up a counter of every thread.
+     *
+     * @param index the index of the counter
+     * @return the count since the last {@link #reset()}
+     */
+    private synchronized long sum(int index) {
+        retireEndedThreads();
+        long sum = retired[index];
+        for (Counters local : threadCounters) {
+            sum += local.get(index);
+        }
+        return sum - resetCounts[index];
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    @Override
+    public String getOperation() {
+        return operation;
+    }
+
+    @Override
+    public long getOperations() {
+        return sum(OPERATIONS);
+    }
+
+    @Override
+    public long getFailures() {
+        return sum(FAILURES);
+    }
+
+    @Override
+    public long getBytesIn() {
+        return sum(BYTES_IN);
+    }
+
+    @Override
+    public long getBytesOut() {
+        return sum(BYTES_OUT);
+    }
+
+    @Override
+    public double getMeanLatency() {
+        return latencies.getMean();
+    }
+
+    @Override
+    public long getLatency50thPercentile() {
+        return latencies.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getLatency90thPercentile() {
+        return latencies.getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getLatency99thPercentile() {
+        return latencies.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getLatency999thPercentile() {
+        return latencies.getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getMaxLatency() {
+        return latencies.getMax();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The counters of the threads are only written by their own thread, so they are not
+     * cleared; the counts at the time of the reset are subtracted from later totals instead.
+     * </p>
+     */
+    @Override
+    public synchronized void reset() {
+        for (int i = 0; i < COUNTER_COUNT; i++) {
+            resetCounts[i] = 0;
+            resetCounts[i] = sum(i);
+        }
+        latencies.reset();
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + " " + operation + ": " + getOperations() + " operations, " + getFailures() + " failures, "
+                + getBytesIn() + " in, " + getBytesOut() + " out, mean " + (long) getMeanLatency() + " ns, p99 "
+                + getLatency99thPercentile() + " ns";
+    }
+
+    /**
+     * Counters of one thread. Only the owner writes them, with opaque stores, so other threads
+     * reading the totals see every count without the owner paying for an atomic update.
+     */
+    private static final class Counters {
+        private static final VarHandle COUNT = MethodHandles.arrayElementVarHandle(long[].class);
+
+        private final Thread owner;
+        private final long[] counts = new long[COUNTER_COUNT];
+
+        private Counters(Thread owner) {
+            this.owner = owner;
+        }
+
+        private void add(int index, long count) {
+            COUNT.setOpaque(counts, index, counts[index] + count);
+        }
+
+        private long get(int index) {
+            return (long) COUNT.getOpaque(counts, index);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+/**
+ * Management interface of {@link OperationMetrics}, read by JConsole and other JMX clients.
+ *
+ * <p>
+ * Lengths are counted in characters of the {@code String} passed to and returned by
+ * {@link CryptographyMethod#encrypt(String)} or {@link CryptographyMethod#decrypt(String)},
+ * which is one byte per character for plaintext, base64 and hex of ASCII text, and in bytes for
+ * the binary, stream and file operations. Latencies are in nanoseconds, and percentiles are
+ * accurate to within an eighth of their value.
+ * </p>
+ *
+ * @version 1.0
+ */
+public interface OperationMetricsMBean {
+
+    /**
+     * Gets the name of the algorithm, such as {@code CaesarCipher} or {@code Aes-GCM}.
+     *
+     * @return the algorithm
+     */
+    String getAlgorithm();
+
+    /**
+     * Gets the measured operation, {@code encrypt} or {@code decrypt}.
+     *
+     * @return the operation
+     */
+    String getOperation();
+
+    /**
+     * Gets the number of operations, including those that failed.
+     *
+     * @return the number of operations
+     */
+    long getOperations();
+
+    /**
+     * Gets the number of operations that threw an exception.
+     *
+     * @return the number of failures
+     */
+    long getFailures();
+
+    /**
+     * Gets the total length of the input of the operations that succeeded.
+     *
+     * @return the number of input characters
+     */
+    long getBytesIn();
+
+    /**
+     * Gets the total length of the output of the operations that succeeded.
+     *
+     * @return the number of output characters
+     */
+    long getBytesOut();
+
+    /**
+     * Gets the mean latency of the operations.
+     *
+     * @return the mean in nanoseconds
+     */
+    double getMeanLatency();
+
+    /**
+     * Gets the median latency of the operations.
+     *
+     * @return the 50th percentile in nanoseconds
+     */
+    long getLatency50thPercentile();
+
+    /**
+     * Gets the 90th percentile of the latency of the operations.
+     *
+     * @return the 90th percentile in nanoseconds
+     */
+    long getLatency90thPercentile();
+
+    /**
+     * Gets the 99th percentile of the latency of the operations.
+     *
+     * @return the 99th percentile in nanoseconds
+     */
+    long getLatency99thPercentile();
+
+    /**
+     * Gets the 99.9th percentile of the latency of the operations.
+     *
+     * @return the 99.9th percentile in nanoseconds
+     */
+    long getLatency999thPercentile();
+
+    /**
+     * Gets the largest latency of the operations.
+     *
+     * @return the maximum in nanoseconds
+     */
+    long getMaxLatency();
+
+    /**
+     * Sets every counter and the latency histogram back to zero.
+     */
+    void reset();
+}
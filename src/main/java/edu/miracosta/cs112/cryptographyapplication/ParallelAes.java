@@ -0,0 +1,296 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.io.Serial;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Multithreaded Aes operations for the modes whose blocks can be processed independently:
+ * CTR encryption and decryption, and CBC decryption.
+ *
+ * <p>
+ * The input is split on block boundaries into segments of at most {@link #SEGMENT_SIZE} bytes,
+ * and each segment gets its own {@link Cipher} from the worker thread's {@link CipherCache},
+ * initialized so that its output is exactly the bytes a single cipher would have produced at
+ * that position. The segments are processed by {@link RecursiveAction}s on a
+ * {@link ForkJoinPool}, so the output is byte-identical to the single-threaded operation.
+ * </p>
+ *
+ * @see Aes
+ *
+ * @version 1.0
+ */
+final class ParallelAes {
+
+    /**
+     * Aes block size in bytes.
+     */
+    static final int BLOCK_SIZE = 16;
+
+    /**
+     * Largest segment processed by a single task. Inputs smaller than two segments are not
+     * worth splitting.
+     */
+    static final int SEGMENT_SIZE = 256 * 1024;
+
+    /**
+     * Transformation used for every CBC segment except the one holding the padding.
+     */
+    private static final String CBC_NO_PADDING = "AES/CBC/NoPadding";
+
+    private ParallelAes() {
+    }
+
+    /**
+     * Encrypts or decrypts the remaining bytes of {@code src} into {@code dst} in CTR mode.
+     *
+     * <p>
+     * Each segment starts with the initial counter block advanced by the number of blocks
+     * that precede it, which is the counter a single CTR cipher would use at that point.
+     * </p>
+     *
+     * @param pool       the pool running the segments
+     * @param key        the secret key
+     * @param iv         the initial counter block
+     * @param firstBlock the index of the first block of {@code src} in the whole message
+     * @param src        the input bytes
+     * @param dst        the buffer receiving the output bytes
+     * @throws ShortBufferException     if {@code dst} has less space remaining than {@code src}
+     * @throws GeneralSecurityException if a cipher cannot be created or initialized
+     */
+    static void ctr(ForkJoinPool pool, SecretKey key, byte[] iv, long firstBlock, ByteBuffer src, ByteBuffer dst)
+            throws GeneralSecurityException {
+        int length = src.remaining();
+        if (dst.remaining() < length) {
+            throw new ShortBufferException("Output buffer too short: " + dst.remaining() + " < " + length);
+        }
+        invoke(pool, new CtrTask(key, iv, firstBlock, src.slice(), dst.slice(dst.position(), length)));
+        src.position(src.limit());
+        dst.position(dst.position() + length);
+    }
+
+    /**
+     * Decrypts the remaining bytes of {@code src} into {@code dst} in CBC mode.
+     *
+     * <p>
+     * Each plaintext block depends only on its own ciphertext block and the one before it, so
+     * every segment is decrypted by its own cipher whose IV is the last ciphertext block of
+     * the previous segment. If {@code last} is set, the final block is decrypted separately
+     * and its PKCS#5 padding is removed; otherwise no padding is expected and the output has
+     * the same length as the input.
+     * </p>
+     *
+     * @param pool the pool running the segments
+     * @param key  the secret key
+     * @param iv   the IV, or the ciphertext block preceding {@code src} in the whole message
+     * @param src  the ciphertext bytes, a multiple of the block size
+     * @param dst  the buffer receiving the plaintext bytes
+     * @param last whether {@code src} ends the message and holds the padding
+     * @return the number of bytes written to {@code dst}
+     * @throws IllegalBlockSizeException if the length of {@code src} is not a multiple of the block size
+     * @throws ShortBufferException      if {@code dst} has less space remaining than {@code src}
+     * @throws GeneralSecurityException  if a cipher cannot be created or initialized, or the padding is invalid
+     */
+    static int cbcDecrypt(ForkJoinPool pool, SecretKey key, byte[] iv, ByteBuffer src, ByteBuffer dst, boolean last)
+            throws GeneralSecurityException {
+        int length = src.remaining();
+        if (length % BLOCK_SIZE != 0) {
+            throw new IllegalBlockSizeException("Input length must be multiple of 16 when decrypting with padded cipher");
+        }
+        if (dst.remaining() < length) {
+            throw new ShortBufferException("Output buffer too short: " + dst.remaining() + " < " + length);
+        }
+        if (length == 0) {
+            return 0;
+        }
+
+        int bodyLength = last ? length - BLOCK_SIZE : length;
+        invoke(pool, new CbcDecryptTask(key, iv, src.slice(src.position(), bodyLength), dst.slice(dst.position(), bodyLength)));
+
+        int written = bodyLength;
+        if (last) {
+            byte[] previous = iv;
+            if (bodyLength > 0) {
+                previous = new byte[BLOCK_SIZE];
+                src.get(src.position() + bodyLength - BLOCK_SIZE, previous);
+            }
+            byte[] finalBlock = new byte[BLOCK_SIZE];
+            src.get(src.position() + bodyLength, finalBlock);
+
+            CipherCache.Entry entry = CipherCache.acquire(Aes.Mode.CBC.getTransformation(), Cipher.DECRYPT_MODE, key, previous);
+            byte[] plaintext = entry.cipher().doFinal(finalBlock);
+            CipherCache.release(entry);
+            dst.put(dst.position() + bodyLength, plaintext);
+            written += plaintext.length;
+        }
+        src.position(src.limit());
+        dst.position(dst.position() + written);
+        return written;
+    }
+
+    /**
+     * Returns the CTR counter block for the block at the given index.
+     *
+     * @param iv    the initial counter block
+     * @param block the block index
+     * @return {@code iv} plus {@code block}, as a 128-bit big-endian integer
+     */
+    static byte[] counter(byte[] iv, long block) {
+        byte[] counter = iv.clone();
+        long carry = block;
+        for (int i = counter.length - 1; i >= 0 && carry != 0; i--) {
+            long sum = (counter[i] & 0xFF) + (carry & 0xFF);
+            counter[i] = (byte) sum;
+            carry = (carry >>> 8) + (sum >>> 8);
+        }
+        return counter;
+    }
+
+    /**
+     * Runs the given task on the pool and rethrows any checked exception it failed with.
+     *
+     * @param pool the pool running the task
+     * @param task the task to run
+     * @throws GeneralSecurityException if a segment failed
+     */
+    private static void invoke(ForkJoinPool pool, SegmentTask task) throws GeneralSecurityException {
+        try {
+            pool.invoke(task);
+        } catch (SegmentException e) {
+            throw (GeneralSecurityException) e.getCause();
+        }
+    }
+
+    /**
+     * Task that splits its buffers in half on a block boundary until they fit in one
+     * segment, then processes the segment.
+     */
+    private abstract static class SegmentTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        final ByteBuffer src;
+        final ByteBuffer dst;
+
+        SegmentTask(ByteBuffer src, ByteBuffer dst) {
+            this.src = src;
+            this.dst = dst;
+        }
+
+        @Override
+        protected void compute() {
+            int length = src.remaining();
+            if (length <= SEGMENT_SIZE) {
+                try {
+                    computeSegment();
+                } catch (GeneralSecurityException e) {
+                    throw new SegmentException(e);
+                }
+                return;
+            }
+            int half = length / 2 / BLOCK_SIZE * BLOCK_SIZE;
+            invokeAll(split(0, half), split(half, length - half));
+        }
+
+        /**
+         * Creates the task for part of this task's buffers.
+         *
+         * @param offset the offset of the part, a multiple of the block size
+         * @param length the length of the part
+         * @return the task for the part
+         */
+        abstract SegmentTask split(int offset, int length);
+
+        /**
+         * Processes the whole of this task's buffers with a single cipher.
+         *
+         * @throws GeneralSecurityException if the cipher fails
+         */
+        abstract void computeSegment() throws GeneralSecurityException;
+    }
+
+    /**
+     * CTR mode segment starting at a known block index.
+     */
+    private static final class CtrTask extends SegmentTask {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final SecretKey key;
+        private final byte[] iv;
+        private final long firstBlock;
+
+        CtrTask(SecretKey key, byte[] iv, long firstBlock, ByteBuffer src, ByteBuffer dst) {
+            super(src, dst);
+            this.key = key;
+            this.iv = iv;
+            this.firstBlock = firstBlock;
+        }
+
+        @Override
+        SegmentTask split(int offset, int length) {
+            return new CtrTask(key, iv, firstBlock + offset / BLOCK_SIZE,
+                    src.slice(offset, length), dst.slice(offset, length));
+        }
+
+        @Override
+        void computeSegment() throws GeneralSecurityException {
+            CipherCache.Entry entry = CipherCache.acquire(Aes.Mode.CTR.getTransformation(), Cipher.ENCRYPT_MODE, key,
+                    counter(iv, firstBlock));
+            entry.cipher().doFinal(src, dst);
+            CipherCache.release(entry);
+        }
+    }
+
+    /**
+     * CBC decryption segment without padding, whose IV is the ciphertext block preceding it.
+     */
+    private static final class CbcDecryptTask extends SegmentTask {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final SecretKey key;
+        private final byte[] iv;
+
+        CbcDecryptTask(SecretKey key, byte[] iv, ByteBuffer src, ByteBuffer dst) {
+            super(src, dst);
+            this.key = key;
+            this.iv = iv;
+        }
+
+        @Override
+        SegmentTask split(int offset, int length) {
+            byte[] previous = iv;
+            if (offset > 0) {
+                previous = new byte[BLOCK_SIZE];
+                src.get(offset - BLOCK_SIZE, previous);
+            }
+            return new CbcDecryptTask(key, previous, src.slice(offset, length), dst.slice(offset, length));
+        }
+
+        @Override
+        void computeSegment() throws GeneralSecurityException {
+            CipherCache.Entry entry = CipherCache.acquire(CBC_NO_PADDING, Cipher.DECRYPT_MODE, key, iv);
+            entry.cipher().doFinal(src, dst);
+            CipherCache.release(entry);
+        }
+    }
+
+    /**
+     * Carries a checked exception out of a {@link RecursiveAction}.
+     */
+    private static final class SegmentException extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        SegmentException(GeneralSecurityException cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Navigation between the views of the application, which share a single {@link Scene}.
+ *
+ * <p>
+ * Every view is loaded from its FXML file only once and then kept, so navigating swaps the
+ * root of the scene instead of parsing the FXML and creating its controller again, and every
+ * view keeps the user's input while another one is shown. The start view is loaded with the
+ * scene. The other views are loaded on a background thread once the first frame has been laid
+ * out, which is allowed because their nodes are not part of a scene yet. A view that is shown
+ * before its background load finished is loaded right away instead.
+ * </p>
+ *
+ * <p>
+ * All methods must be called on the JavaFX Application Thread.
+ * </p>
+ *
+ * @see CryptographyApplication
+ *
+ * @version 1.0
+ */
+final class SceneNavigator {
+
+    /**
+     * The views of the application and their FXML files.
+     */
+    enum View {
+        START("StartScene.fxml"),
+        CAESAR("CaesarCipherScene.fxml"),
+        VIGENERE("VigenereCipherScene.fxml"),
+        AES("AesCipherScene.fxml");
+
+        private final String resource;
+
+        View(String resource) {
+            this.resource = resource;
+        }
+    }
+
+    private static final Map<View, Parent> ROOTS = new EnumMap<>(View.class);
+    private static final Runnable FIRST_LAYOUT_LISTENER = SceneNavigator::onFirstLayout;
+    private static Scene scene;
+    private static boolean preloadStarted;
+
+    private SceneNavigator() {
+    }
+
+    /**
+     * Creates the scene of the application, showing the start view, and starts loading the other
+     * views once it is first laid out.
+     *
+     * @return the scene
+     * @throws IOException if the start view cannot be loaded
+     */
+    static Scene createScene() throws IOException {
+        scene = new Scene(root(View.START));
+        scene.addPostLayoutPulseListener(FIRST_LAYOUT_LISTENER);
+        return scene;
+    }
+
+    /**
+     * Shows a view in the scene.
+     *
+     * @param view the view to show
+     * @throws IOException if the view was not loaded yet and cannot be loaded
+     */
+    static void show(View view) throws IOException {
+        scene.setRoot(root(view));
+    }
+
+    /**
+     * Returns the root of a view, loading it if it was not loaded yet.
+     *
+     * @param view the view
+     * @return the root node of the view
+     * @throws IOException if the view cannot be loaded
+     */
+    private static Parent root(View view) throws IOException {
+        Parent root = ROOTS.get(view);
+        if (root == null) {
+            root = load(view);
+            ROOTS.put(view, root);
+        }
+        return root;
+    }
+
+    /**
+     * Loads a view from its FXML file. This may run on any thread.
+     *
+     * @param view the view
+     * @return the root node of the view
+     * @throws IOException if the FXML file cannot be read or is invalid
+     */
+    private static Parent load(View view) throws IOException {
+        return FXMLLoader.load(Objects.requireNonNull(SceneNavigator.class.getResource(view.resource)));
+    }
+
+    /**
+     * Starts loading every view that is not loaded yet on a background thread, after the first
+     * layout of the scene.
+     */
+    private static void onFirstLayout() {
+        if (preloadStarted) {
+            return;
+        }
+        preloadStarted = true;
+        // Remove the listener once the scene has finished notifying its listeners
+        Platform.runLater(() -> scene.removePostLayoutPulseListener(FIRST_LAYOUT_LISTENER));
+
+        Set<View> views = EnumSet.allOf(View.class);
+        views.removeAll(ROOTS.keySet());
+        Thread thread = new Thread(() -> {
+            for (View view : views) {
+                try {
+                    Parent root = load(view);
+                    Platform.runLater(() -> ROOTS.putIfAbsent(view, root));
+                } catch (IOException e) {
+                    // Leave the view to be loaded when it is shown, which reports the error
+                }
+            }
+        }, "scene-preloader");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+}
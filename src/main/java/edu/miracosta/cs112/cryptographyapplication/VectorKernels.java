@@ -0,0 +1,150 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels for {@link CaesarCipher} and {@link VigenereCipher} built on the incubating
+ * Java Vector API.
+ *
+ * <p>
+ * Each lane holds one byte. A lane is an ASCII letter when its value with the lowercase bit
+ * set lies between {@code 'a'} and {@code 'z'}, and its letter index {@code x} is that value
+ * minus {@code 'a'}. Adding the shift {@code s} and subtracting 26 where {@code x + s}
+ * reaches 26 gives the amount added to the letter lanes only, so every other byte, including
+ * every byte of a multibyte UTF-8 sequence, is left unchanged.
+ * </p>
+ *
+ * <p>
+ * The {@code jdk.incubator.vector} module is only resolved when the application is started
+ * with {@code --add-modules jdk.incubator.vector}. This class must therefore only be loaded
+ * when {@link CaesarCipher#VECTORIZED} is {@code true}; otherwise the ciphers use their scalar
+ * kernels.
+ * </p>
+ *
+ * @version 1.0
+ */
+final class VectorKernels {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private VectorKernels() {
+    }
+
+    /**
+     * Shifts every ASCII letter in a range of bytes forwards by the same amount.
+     *
+     * @param src       the bytes to shift
+     * @param srcOffset the index of the first byte to shift
+     * @param dst       the array receiving the shifted bytes
+     * @param dstOffset the index of the first shifted byte
+     * @param length    the number of bytes to shift
+     * @param shift     the number of positions to shift forwards, between 0 and 25
+     * @param table     the scalar translation table for {@code shift}, used for the tail
+     */
+    static void caesar(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length, int shift, byte[] table) {
+        ByteVector shifts = ByteVector.broadcast(SPECIES, (byte) shift);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            ByteVector v = ByteVector.fromArray(SPECIES, src, srcOffset + i);
+            shift(v, letters(v), shifts).intoArray(dst, dstOffset + i);
+        }
+        for (; i < length; i++) {
+            dst[dstOffset + i] = table[src[srcOffset + i] & 0xFF];
+        }
+    }
+
+    /**
+     * Returns the key shifts repeated so that a full vector of shifts starting at any position
+     * of the key can be loaded with a single vector load.
+     *
+     * @param shifts the shift of every key position
+     * @return the tiled shifts, one vector longer than {@code shifts}
+     */
+    static byte[] tile(byte[] shifts) {
+        byte[] tiled = new byte[shifts.length + SPECIES.length()];
+        for (int i = 0; i < tiled.length; i++) {
+            tiled[i] = shifts[i % shifts.length];
+        }
+        return tiled;
+    }
+
+    /**
+     * Shifts every ASCII letter in a range of bytes by the next position of the key.
+     *
+     * <p>
+     * Within a vector, the key position of a letter lane is the key position of the vector
+     * plus the number of letters in the lanes before it. That count is an exclusive prefix sum
+     * of the letter mask, computed in {@code log2} of the lane count shift-and-add steps, and
+     * is used to rearrange the window of tiled shifts starting at the vector's key position.
+     * </p>
+     *
+     * @param src       the bytes to shift
+     * @param srcOffset the index of the first byte to shift
+     * @param dst       the array receiving the shifted bytes
+     * @param dstOffset the index of the first shifted byte
+     * @param length    the number of bytes to shift
+     * @param tiled     the tiled key shifts returned by {@link #tile(byte[])}
+     * @param tables    the scalar translation table for every key position, used for the tail
+     * @param keyIndex  the position in the key used for the first letter
+     * @return the position in the key used for the letter following the range
+     */
+    static int vigenere(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length,
+                        byte[] tiled, byte[][] tables, int keyIndex) {
+        int keyLength = tables.length;
+        ByteVector zero = ByteVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(length);
+        int j = keyIndex;
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            ByteVector v = ByteVector.fromArray(SPECIES, src, srcOffset + i);
+            VectorMask<Byte> letters = letters(v);
+
+            ByteVector counts = zero.blend((byte) 1, letters);
+            ByteVector before = counts.unslice(1);
+            for (int step = 1; step < SPECIES.length(); step <<= 1) {
+                before = before.add(before.unslice(step));
+            }
+            ByteVector shifts = ByteVector.fromArray(SPECIES, tiled, j).rearrange(before.toShuffle());
+
+            shift(v, letters, shifts).intoArray(dst, dstOffset + i);
+            j = (j + letters.trueCount()) % keyLength;
+        }
+        for (; i < length; i++) {
+            byte b = src[srcOffset + i];
+            dst[dstOffset + i] = tables[j][b & 0xFF];
+            if (CaesarCipher.isLetter(b) && ++j == keyLength) {
+                j = 0;
+            }
+        }
+        return j;
+    }
+
+    /**
+     * Returns the lanes holding an ASCII letter.
+     *
+     * @param v the bytes
+     * @return the mask of the letter lanes
+     */
+    private static VectorMask<Byte> letters(ByteVector v) {
+        ByteVector lower = v.or((byte) 0x20);
+        return lower.compare(VectorOperators.GE, (byte) 'a').and(lower.compare(VectorOperators.LE, (byte) 'z'));
+    }
+
+    /**
+     * Shifts the letter lanes of {@code v} forwards, wrapping around the alphabet.
+     *
+     * @param v       the bytes
+     * @param letters the letter lanes of {@code v}
+     * @param shifts  the shift of every lane, between 0 and 25
+     * @return {@code v} with every letter lane shifted
+     */
+    private static ByteVector shift(ByteVector v, VectorMask<Byte> letters, ByteVector shifts) {
+        ByteVector index = v.or((byte) 0x20).sub((byte) 'a');
+        VectorMask<Byte> wraps = index.add(shifts).compare(VectorOperators.GE, (byte) 26);
+        return v.add(shifts.sub((byte) 26, wraps), letters);
+    }
+}
@@ -0,0 +1,480 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Recovers the key of a Vigenere ciphertext without knowing anything about it.
+ *
+ * <p>
+ * The analysis works on the letters of the ciphertext alone, since {@link VigenereCipher}
+ * only advances the key on letters, and has three steps:
+ * </p>
+ * <ol>
+ * <li>Every key length up to the maximum is evaluated in parallel. A key of length {@code L}
+ * splits the text into {@code L} columns that are each encrypted with a single Caesar shift, so
+ * their index of coincidence is that of English only if {@code L} is a multiple of the key
+ * length. In the same way, repeated trigrams are mostly the same plaintext encrypted with the
+ * same key positions, so the distances between them are mostly multiples of the key length
+ * (Kasiski examination).</li>
+ * <li>For the most likely lengths by either measure, every column is counted and the key
+ * letter whose Caesar decryption of the column is closest to the English letter frequencies is
+ * chosen.</li>
+ * <li>Each recovered key is reduced to its shortest period, since the key of a multiple of the
+ * key length is the key repeated, and is confirmed by decrypting the start of the text and
+ * scoring its quadgrams. The letters of the best-scoring key are then refined one at a time
+ * for as long as that improves the score, which corrects the letters of short columns whose
+ * frequencies were misleading.</li>
+ * </ol>
+ *
+ * <p>
+ * Every statistic comes from counting letter numbers into {@code int[]} counters in a single
+ * pass, and nothing is decrypted with {@link VigenereCipher#decrypt(String)} until the caller
+ * asks for the plaintext. The key lengths are evaluated on the first
+ * {@link #DETECTION_SAMPLE} letters and the keys are confirmed on the first
+ * {@link CaesarCracker#QUADGRAM_SAMPLE} letters, so only the column counts of the few candidate
+ * lengths grow with the length of the text.
+ * </p>
+ *
+ * @see VigenereCipher
+ * @see CaesarCracker
+ *
+ * @version 1.0
+ */
+public final class VigenereAnalyzer {
+
+    /** Default largest key length that is considered. */
+    public static final int DEFAULT_MAX_KEY_LENGTH = 32;
+
+    /**
+     * Largest number of letters used to evaluate the key lengths. With the default maximum key
+     * length, this still leaves about two thousand letters in every column, which estimates its
+     * index of coincidence to within a few percent.
+     */
+    static final int DETECTION_SAMPLE = 1 << 16;
+
+    /**
+     * Fewest letters every column must have for a key length to be considered. The index of
+     * coincidence of shorter columns is too noisy to tell English from random letters.
+     */
+    static final int MIN_COLUMN_LETTERS = 20;
+
+    /** Number of key lengths taken from each ranking to recover and confirm a key for. */
+    static final int CONFIRMED_LENGTHS = 3;
+
+    /** Order of the key lengths, from the most to the least likely. */
+    private static final Comparator<KeyLength> BY_COINCIDENCE =
+            Comparator.comparingDouble(KeyLength::getIndexOfCoincidence).reversed();
+    private static final Comparator<KeyLength> BY_KASISKI =
+            Comparator.comparingDouble(KeyLength::getKasiskiScore).reversed();
+
+    private VigenereAnalyzer() {
+    }
+
+    /**
+     * A possible key length and the statistics of the columns it splits the text into.
+     */
+    public static final class KeyLength {
+        private final int length;
+        private final double indexOfCoincidence;
+        private final double kasiskiScore;
+
+        private KeyLength(int length, double indexOfCoincidence, double kasiskiScore) {
+            this.length = length;
+            this.indexOfCoincidence = indexOfCoincidence;
+            this.kasiskiScore = kasiskiScore;
+        }
+
+        /**
+         * Gets the key length.
+         *
+         * @return the key length
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Gets the average index of coincidence of the columns: the probability that two
+         * letters of the same column are equal. It is about 0.066 for English and 0.038 for
+         * random letters.
+         *
+         * @return the index of coincidence
+         */
+        public double getIndexOfCoincidence() {
+            return indexOfCoincidence;
+        }
+
+        /**
+         * Gets how many more of the distances between repeated trigrams are multiples of the
+         * length than would be by chance. It is about 1 for unrelated lengths.
+         *
+         * @return the Kasiski score
+         */
+        public double getKasiskiScore() {
+            return kasiskiScore;
+        }
+
+        @Override
+        public String toString() {
+            return "Length: " + length + ", Index of coincidence: " + indexOfCoincidence + ", Kasiski score: " + kasiskiScore;
+        }
+    }
+
+    /**
+     * The outcome of an analysis: the recovered key and the statistics that led to it.
+     */
+    public static final class Result {
+        private final String key;
+        private final double quadgramScore;
+        private final List<KeyLength> keyLengths;
+
+        private Result(String key, double quadgramScore, List<KeyLength> keyLengths) {
+            this.key = key;
+            this.quadgramScore = quadgramScore;
+            this.keyLengths = keyLengths;
+        }
+
+        /**
+         * Gets the recovered key.
+         *
+         * @return the key, in lowercase letters
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the quadgram log-likelihood of the start of the text decrypted with the key,
+         * which confirmed it against the keys recovered for the other lengths.
+         *
+         * @return the quadgram score
+         */
+        public double getQuadgramScore() {
+            return quadgramScore;
+        }
+
+        /**
+         * Gets every key length that was evaluated.
+         *
+         * @return the key lengths, from the highest to the lowest index of coincidence
+         */
+        public List<KeyLength> getKeyLengths() {
+            return keyLengths;
+        }
+
+        /**
+         * Decrypts a ciphertext with the recovered key.
+         *
+         * @param ciphertext the ciphertext that was analyzed
+         * @return the decrypted plaintext
+         */
+        public String decrypt(String ciphertext) {
+            return new VigenereCipher(CryptographyMethod.DEFAULT_INPUT_MODE, CryptographyMethod.DEFAULT_OUTPUT_MODE,
+                    key).decrypt(ciphertext);
+        }
+
+        @Override
+        public String toString() {
+            return "Key: " + key + ", Quadgram score: " + quadgramScore;
+        }
+    }
+
+    /**
+     * Recovers the key of a ciphertext, considering keys of up to
+     * {@link #DEFAULT_MAX_KEY_LENGTH} letters, on the common {@link ForkJoinPool}.
+     *
+     * @param ciphertext the ciphertext
+     * @return the result of the analysis
+     * @throws IllegalArgumentException if the ciphertext contains no letters
+     * @see #analyze(String, int, ForkJoinPool)
+     */
+    public static Result analyze(String ciphertext) {
+        return analyze(ciphertext, DEFAULT_MAX_KEY_LENGTH, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Recovers the key of a ciphertext, evaluating the key lengths in parallel on the given
+     * pool. Only the ASCII letters of the ciphertext are considered. Key lengths that leave
+     * fewer than {@link #MIN_COLUMN_LETTERS} letters in a column are not considered.
+     *
+     * @param ciphertext   the ciphertext
+     * @param maxKeyLength the largest key length to consider
+     * @param pool         the pool evaluating the key lengths
+     * @return the result of the analysis
+     * @throws IllegalArgumentException if the ciphertext contains no letters or the maximum key
+     *                                  length is not positive
+     */
+    public static Result analyze(String ciphertext, int maxKeyLength, ForkJoinPool pool) {
+        if (maxKeyLength < 1) {
+            throw new IllegalArgumentException("Maximum key length must be positive: " + maxKeyLength);
+        }
+        byte[] letters = EnglishStatistics.letters(ciphertext);
+        if (letters.length == 0) {
+            throw new IllegalArgumentException("Ciphertext must contain letters!");
+        }
+        int sample = Math.min(letters.length, DETECTION_SAMPLE);
+        int lengths = Math.max(1, Math.min(maxKeyLength, sample / MIN_COLUMN_LETTERS));
+
+        // Evaluate every key length in parallel, sharing the trigram distances
+        int[] distances = trigramDistances(letters, sample);
+        KeyLength[] keyLengths = new KeyLength[lengths];
+        pool.invoke(new KeyLengthTask(letters, sample, distances, keyLengths, 1, lengths + 1));
+
+        // Recover and confirm a key for the best lengths by either measure
+        KeyLength[] byCoincidence = keyLengths.clone();
+        Arrays.sort(byCoincidence, BY_COINCIDENCE);
+        KeyLength[] byKasiski = keyLengths.clone();
+        Arrays.sort(byKasiski, BY_KASISKI);
+        Set<Integer> candidates = new LinkedHashSet<>();
+        for (int i = 0; i < Math.min(CONFIRMED_LENGTHS, lengths); i++) {
+            candidates.add(byCoincidence[i].getLength());
+            candidates.add(byKasiski[i].getLength());
+        }
+
+        int confirmSample = Math.min(letters.length, CaesarCracker.QUADGRAM_SAMPLE);
+        byte[] bestKey = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int length : candidates) {
+            byte[] key = shortestPeriod(recoverKey(letters, length));
+            double score = EnglishStatistics.quadgramScore(letters, confirmSample, key);
+            if (score > bestScore || (score == bestScore && key.length < bestKey.length)) {
+                bestKey = key;
+                bestScore = score;
+            }
+        }
+        bestScore = refine(letters, confirmSample, bestKey, bestScore);
+        return new Result(toKey(bestKey), bestScore, List.of(byCoincidence));
+    }
+
+    /**
+     * Improves a key by trying every letter at every position and keeping each change that
+     * raises the quadgram score, until no single change does.
+     *
+     * @param letters the letter numbers of the ciphertext
+     * @param length  the number of letters to score
+     * @param key     the shift of every key position, which is updated
+     * @param score   the quadgram score of the key
+     * @return the quadgram score of the refined key
+     */
+    static double refine(byte[] letters, int length, byte[] key, double score) {
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < key.length; i++) {
+                byte original = key[i];
+                for (int shift = 0; shift < 26; shift++) {
+                    if (shift == original) {
+                        continue;
+                    }
+                    byte previous = key[i];
+                    key[i] = (byte) shift;
+                    double candidate = EnglishStatistics.quadgramScore(letters, length, key);
+                    if (candidate > score) {
+                        score = candidate;
+                        improved = true;
+                    } else {
+                        key[i] = previous;
+                    }
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Recovers the shift of every key position for a key length, by counting the letters of
+     * every column in one pass and choosing the Caesar shift of each column whose decryption is
+     * closest to the English letter frequencies.
+     *
+     * @param letters the letter numbers of the ciphertext
+     * @param length  the key length
+     * @return the shift of every key position
+     */
+    static byte[] recoverKey(byte[] letters, int length) {
+        int[] counts = new int[length * 26];
+        int column = 0;
+        for (byte letter : letters) {
+            counts[column + letter]++;
+            column += 26;
+            if (column == counts.length) {
+                column = 0;
+            }
+        }
+
+        byte[] key = new byte[length];
+        for (int i = 0; i < length; i++) {
+            int total = (letters.length - i + length - 1) / length;
+            double best = Double.POSITIVE_INFINITY;
+            for (int shift = 0; shift < 26; shift++) {
+                double score = EnglishStatistics.chiSquared(counts, i * 26, total, shift);
+                if (score < best) {
+                    best = score;
+                    key[i] = (byte) shift;
+                }
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Returns the shortest prefix of a key that the key is a repetition of.
+     *
+     * @param key the shift of every key position
+     * @return the shortest period of the key
+     */
+    static byte[] shortestPeriod(byte[] key) {
+        for (int period = 1; period < key.length; period++) {
+            if (key.length % period != 0) {
+                continue;
+            }
+            boolean repeats = true;
+            for (int i = period; i < key.length && repeats; i++) {
+                repeats = key[i] == key[i - period];
+            }
+            if (repeats) {
+                return Arrays.copyOf(key, period);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Returns the key whose letters have the given shifts.
+     *
+     * @param shifts the shift of every key position
+     * @return the key, in lowercase letters
+     */
+    static String toKey(byte[] shifts) {
+        char[] key = new char[shifts.length];
+        for (int i = 0; i < shifts.length; i++) {
+            key[i] = (char) ('a' + shifts[i]);
+        }
+        return new String(key);
+    }
+
+    /**
+     * Finds the distance from every trigram to the previous occurrence of the same trigram, in
+     * one pass that remembers the last position of each of the 17,576 trigrams.
+     *
+     * @param letters the letter numbers of the ciphertext
+     * @param length  the number of letters to examine
+     * @return the distances
+     */
+    private static int[] trigramDistances(byte[] letters, int length) {
+        int[] last = new int[26 * 26 * 26];
+        Arrays.fill(last, -1);
+        int[] distances = new int[Math.max(0, length - 2)];
+        int count = 0;
+        int trigram = 0;
+        for (int i = 0; i < length; i++) {
+            trigram = trigram % (26 * 26) * 26 + letters[i];
+            if (i < 2) {
+                continue;
+            }
+            if (last[trigram] >= 0) {
+                distances[count++] = i - last[trigram];
+            }
+            last[trigram] = i;
+        }
+        return Arrays.copyOf(distances, count);
+    }
+
+    /**
+     * Task that evaluates a range of key lengths, splitting the range in half until it holds a
+     * single length.
+     */
+    private static final class KeyLengthTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] letters;
+        private final int sample;
+        private final int[] distances;
+        private final KeyLength[] results;
+        private final int from;
+        private final int to;
+
+        private KeyLengthTask(byte[] letters, int sample, int[] distances, KeyLength[] results, int from, int to) {
+            this.letters = letters;
+            this.sample = sample;
+            this.distances = distances;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results[from - 1] = new KeyLength(from, indexOfCoincidence(from), kasiskiScore(from));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new KeyLengthTask(letters, sample, distances, results, from, middle),
+                    new KeyLengthTask(letters, sample, distances, results, middle, to));
+        }
+
+        /**
+         * Computes the average index of coincidence of the columns of a key length.
+         *
+         * @param length the key length
+         * @return the index of coincidence
+         */
+        private double indexOfCoincidence(int length) {
+            int[] counts = new int[length * 26];
+            int column = 0;
+            for (int i = 0; i < sample; i++) {
+                counts[column + letters[i]]++;
+                column += 26;
+                if (column == counts.length) {
+                    column = 0;
+                }
+            }
+
+            double sum = 0;
+            int columns = 0;
+            for (int i = 0; i < length; i++) {
+                long total = 0;
+                long pairs = 0;
+                for (int letter = 0; letter < 26; letter++) {
+                    long count = counts[i * 26 + letter];
+                    total += count;
+                    pairs += count * (count - 1);
+                }
+                if (total > 1) {
+                    sum += (double) pairs / (total * (total - 1));
+                    columns++;
+                }
+            }
+            return columns == 0 ? 0 : sum / columns;
+        }
+
+        /**
+         * Computes the ratio of the trigram distances that are multiples of a key length to the
+         * ratio expected by chance.
+         *
+         * @param length the key length
+         * @return the Kasiski score
+         */
+        private double kasiskiScore(int length) {
+            if (distances.length == 0) {
+                return 0;
+            }
+            int multiples = 0;
+            for (int distance : distances) {
+                if (distance % length == 0) {
+                    multiples++;
+                }
+            }
+            return (double) multiples * length / distances.length;
+        }
+    }
+
+}
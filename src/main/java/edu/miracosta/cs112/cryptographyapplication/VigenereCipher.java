@@ -1,5 +1,9 @@
 package edu.miracosta.cs112.cryptographyapplication;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * VigenereCipher class that extends CryptographyMethod to provide encryption and decryption
  * using the Vigenere Cipher algorithm.
@@ -14,6 +18,18 @@ package edu.miracosta.cs112.cryptographyapplication;
  * The default key used if none is provided is "password".
  * </p>
  *
+ * <p>
+ * Setting the key precomputes the {@link CaesarCipher} translation table for every key position,
+ * so encryption and decryption are a single table lookup per character and allocate nothing
+ * beyond their result. They never modify the cipher, so an instance whose key is not changed can
+ * be shared between threads.
+ * </p>
+ *
+ * <p>
+ * When the Vector API is available, byte arrays and ASCII strings are shifted by the SIMD kernel
+ * in {@link VectorKernels}, with the key shifts tiled to the vector width.
+ * </p>
+ *
  * @see CryptographyMethod
  *
  * @version 1.0
@@ -23,6 +39,12 @@ public class VigenereCipher extends CryptographyMethod {
 
     private String key;
 
+    /** Shifts of every key position for encryption. */
+    private KeyShifts encryptionShifts;
+
+    /** Shifts of every key position for decryption. */
+    private KeyShifts decryptionShifts;
+
     /**
      * Constructs a new {@code VigenereCipher} object with the default input and output modes,
      * and the default key.
@@ -52,11 +74,24 @@ public class VigenereCipher extends CryptographyMethod {
      * @throws IllegalArgumentException if the key is null, empty, or contains non-alphabetical characters
      */
     public void setKey(String key) throws IllegalArgumentException {
-        if (key == null || key.isEmpty() || !key.matches("^[a-zA-Z]+$")) {
+        if (key == null || key.isEmpty()) {
             throw new IllegalArgumentException("Key must only contain alphabetical characters!");
-        } else {
-            this.key = key;
         }
+
+        byte[] encryptionShifts = new byte[key.length()];
+        byte[] decryptionShifts = new byte[key.length()];
+        for (int i = 0; i < key.length(); i++) {
+            char keyChar = key.charAt(i);
+            if (keyChar >= 128 || !CaesarCipher.isLetter((byte) keyChar)) {
+                throw new IllegalArgumentException("Key must only contain alphabetical characters!");
+            }
+            int rotations = getRotationFromChar(keyChar);
+            encryptionShifts[i] = (byte) rotations;
+            decryptionShifts[i] = (byte) ((26 - rotations) % 26);
+        }
+        this.key = key;
+        this.encryptionShifts = new KeyShifts(encryptionShifts);
+        this.decryptionShifts = new KeyShifts(decryptionShifts);
     }
 
     /**
@@ -74,7 +109,7 @@ public class VigenereCipher extends CryptographyMethod {
      * @param keyChar the key character
      * @return the rotation value for the key character
      */
-    private int getRotationFromChar(char keyChar) {
+    private static int getRotationFromChar(char keyChar) {
         if (Character.isLowerCase(keyChar)) {
             return keyChar - 'a';
         } else {
@@ -83,87 +118,324 @@ public class VigenereCipher extends CryptographyMethod {
     }
 
     /**
-     * Generates a full-length key based on the provided text and the initial key.
-     * Non-alphabetical characters are replaced with '?'.
+     * Encrypts the plaintext using the Vigenere Cipher algorithm.
      *
-     * @param text the text for which the key is generated
-     * @return the generated key
+     * @param plaintext the plaintext to be encrypted
+     * @return the encrypted ciphertext
      */
-    private String generateKey(String text) {
-        int keyLength = key.length();
-        int j = 0;
-        StringBuilder keyBuilder = new StringBuilder();
+    @Override
+    protected String encryptText(String plaintext) {
+        String text = decodeInput(plaintext); // Decode plaintext based on inputMode
+        return encodeOutput(shift(this.encryptionShifts, text));
+    }
 
-        for (int i = 0; i < text.length(); i++) {
-            if (!String.valueOf(text.charAt(i)).matches("^[a-zA-Z]+$")) {
-                keyBuilder.append("?");
-            } else {
-                keyBuilder.append(key.charAt(j % keyLength));
-                j++;
-            }
-        }
+    /**
+     * Decrypts the ciphertext using the Vigenere Cipher algorithm.
+     *
+     * @param ciphertext the ciphertext to be decrypted
+     * @return the decrypted plaintext
+     */
+    @Override
+    protected String decryptText(String ciphertext) {
+        return encodeOutput(shift(this.decryptionShifts, decodeInput(ciphertext)));
+    }
 
-        return keyBuilder.toString();
+    /**
+     * Encrypts {@code length} characters of {@code src} starting at {@code srcOffset} into
+     * {@code dst} starting at {@code dstOffset}, starting at the first character of the key.
+     *
+     * <p>
+     * Nothing is allocated and the input and output modes are not applied. {@code src} and
+     * {@code dst} may be the same array.
+     * </p>
+     *
+     * @param src       the plaintext characters
+     * @param srcOffset the index of the first plaintext character
+     * @param dst       the array receiving the ciphertext characters
+     * @param dstOffset the index of the first ciphertext character
+     * @param length    the number of characters to encrypt
+     * @throws IndexOutOfBoundsException if a range is outside of its array
+     */
+    public void encrypt(char[] src, int srcOffset, char[] dst, int dstOffset, int length) {
+        shift(this.encryptionShifts.tables, src, srcOffset, dst, dstOffset, length, 0);
     }
 
     /**
-     * Encrypts the plaintext using the Vigenere Cipher algorithm.
+     * Encrypts {@code length} characters of {@code src} starting at {@code srcOffset} into
+     * {@code dst} starting at {@code dstOffset}, starting at the given position in the key.
      *
-     * @param plaintext the plaintext to be encrypted
-     * @return the encrypted ciphertext
+     * <p>
+     * The position of a letter in the key is the number of letters before it modulo the key
+     * length, so a range in the middle of a text encrypts the same as within the whole text when
+     * {@code keyIndex} is the number of letters before the range.
+     * </p>
+     *
+     * @param src       the plaintext characters
+     * @param srcOffset the index of the first plaintext character
+     * @param dst       the array receiving the ciphertext characters
+     * @param dstOffset the index of the first ciphertext character
+     * @param length    the number of characters to encrypt
+     * @param keyIndex  the position in the key used for the first letter, reduced modulo the key length
+     * @return the position in the key used for the letter following the range
+     * @throws IndexOutOfBoundsException if a range is outside of its array
+     * @throws IllegalArgumentException  if {@code keyIndex} is negative
+     * @see #encrypt(char[], int, char[], int, int)
+     */
+    public int encrypt(char[] src, int srcOffset, char[] dst, int dstOffset, int length, int keyIndex) {
+        return shift(this.encryptionShifts.tables, src, srcOffset, dst, dstOffset, length, keyIndex);
+    }
+
+    /**
+     * Decrypts {@code length} characters of {@code src} starting at {@code srcOffset} into
+     * {@code dst} starting at {@code dstOffset}, starting at the first character of the key.
+     *
+     * @param src       the ciphertext characters
+     * @param srcOffset the index of the first ciphertext character
+     * @param dst       the array receiving the plaintext characters
+     * @param dstOffset the index of the first plaintext character
+     * @param length    the number of characters to decrypt
+     * @throws IndexOutOfBoundsException if a range is outside of its array
+     * @see #encrypt(char[], int, char[], int, int)
+     */
+    public void decrypt(char[] src, int srcOffset, char[] dst, int dstOffset, int length) {
+        shift(this.decryptionShifts.tables, src, srcOffset, dst, dstOffset, length, 0);
+    }
+
+    /**
+     * Decrypts {@code length} characters of {@code src} starting at {@code srcOffset} into
+     * {@code dst} starting at {@code dstOffset}, starting at the given position in the key.
+     *
+     * @param src       the ciphertext characters
+     * @param srcOffset the index of the first ciphertext character
+     * @param dst       the array receiving the plaintext characters
+     * @param dstOffset the index of the first plaintext character
+     * @param length    the number of characters to decrypt
+     * @param keyIndex  the position in the key used for the first letter, reduced modulo the key length
+     * @return the position in the key used for the letter following the range
+     * @throws IndexOutOfBoundsException if a range is outside of its array
+     * @throws IllegalArgumentException  if {@code keyIndex} is negative
+     * @see #encrypt(char[], int, char[], int, int, int)
+     */
+    public int decrypt(char[] src, int srcOffset, char[] dst, int dstOffset, int length, int keyIndex) {
+        return shift(this.decryptionShifts.tables, src, srcOffset, dst, dstOffset, length, keyIndex);
+    }
+
+    /**
+     * Encrypts the remaining bytes of {@code src} into {@code dst} using the Vigenere Cipher algorithm.
+     *
+     * <p>
+     * Each ASCII letter is shifted forwards by the next character of the key. Every other byte is
+     * copied unchanged and does not advance the key.
+     * </p>
+     *
+     * @param src the plaintext bytes to be encrypted
+     * @param dst the buffer receiving the ciphertext bytes
+     * @throws BufferOverflowException if {@code dst} has less space remaining than {@code src}
      */
     @Override
-    public String encrypt(String plaintext) {
-        plaintext = decodeInput(plaintext); // Decode plaintext based on inputMode
-        key = generateKey(plaintext);
-        StringBuilder ciphertext = new StringBuilder();
+    public void encrypt(ByteBuffer src, ByteBuffer dst) {
+        shift(this.encryptionShifts, src, dst, 0);
+    }
 
-        for (int i = 0; i < plaintext.length(); i++) {
-            char plaintextChar = plaintext.charAt(i);
-            char keyChar = key.charAt(i);
+    /**
+     * Decrypts the remaining bytes of {@code src} into {@code dst} using the Vigenere Cipher algorithm.
+     *
+     * @param src the ciphertext bytes to be decrypted
+     * @param dst the buffer receiving the plaintext bytes
+     * @throws BufferOverflowException if {@code dst} has less space remaining than {@code src}
+     */
+    @Override
+    public void decrypt(ByteBuffer src, ByteBuffer dst) {
+        shift(this.decryptionShifts, src, dst, 0);
+    }
 
-            if (keyChar == '?') {
-                ciphertext.append(plaintextChar);
-                continue;
-            }
+    /**
+     * Starts an incremental encryption using the current key. The position in the key carries
+     * over from one chunk of input to the next.
+     *
+     * @return a new encryption operation
+     */
+    @Override
+    public CryptographyOperation startEncryption() {
+        return new KeyOperation(this.encryptionShifts);
+    }
 
-            int rotations = getRotationFromChar(keyChar);
+    /**
+     * Starts an incremental decryption using the current key. The position in the key carries
+     * over from one chunk of input to the next.
+     *
+     * @return a new decryption operation
+     */
+    @Override
+    public CryptographyOperation startDecryption() {
+        return new KeyOperation(this.decryptionShifts);
+    }
 
-            CaesarCipher tempCaesar = new CaesarCipher(0, 0, rotations);
-            ciphertext.append(tempCaesar.encrypt(String.valueOf(plaintextChar)));
+    /**
+     * Shifts every ASCII letter of a string by the key, starting at the first character of the key.
+     *
+     * @param shifts the shifts of every key position
+     * @param text   the string to shift
+     * @return the shifted string
+     */
+    private static String shift(KeyShifts shifts, String text) {
+        if (CaesarCipher.VECTORIZED && text.length() >= CaesarCipher.VECTOR_THRESHOLD && CaesarCipher.isAscii(text)) {
+            byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+            shift(shifts, bytes, 0, bytes, 0, bytes.length, 0);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+        char[] chars = text.toCharArray();
+        shift(shifts.tables, chars, 0, chars, 0, chars.length, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Shifts every ASCII letter in the remaining bytes of {@code src} by the key and writes the
+     * result into {@code dst}. Heap buffers are processed directly on their backing arrays.
+     *
+     * @param shifts   the shifts of every key position
+     * @param src      the bytes to shift
+     * @param dst      the buffer receiving the shifted bytes
+     * @param keyIndex the position in the key used for the first letter
+     * @return the position in the key used for the letter following {@code src}
+     * @throws BufferOverflowException if {@code dst} has less space remaining than {@code src}
+     */
+    private static int shift(KeyShifts shifts, ByteBuffer src, ByteBuffer dst, int keyIndex) {
+        int length = src.remaining();
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
         }
 
-        return encodeOutput(ciphertext.toString());
+        int srcPosition = src.position();
+        int dstPosition = dst.position();
+        int j = keyIndex;
+        if (src.hasArray() && dst.hasArray()) {
+            j = shift(shifts, src.array(), src.arrayOffset() + srcPosition, dst.array(), dst.arrayOffset() + dstPosition,
+                    length, keyIndex);
+        } else {
+            byte[][] tables = shifts.tables;
+            for (int i = 0; i < length; i++) {
+                byte b = src.get(srcPosition + i);
+                dst.put(dstPosition + i, tables[j][b & 0xFF]);
+                if (CaesarCipher.isLetter(b) && ++j == tables.length) {
+                    j = 0;
+                }
+            }
+        }
+        src.position(srcPosition + length);
+        dst.position(dstPosition + length);
+        return j;
     }
 
     /**
-     * Decrypts the ciphertext using the Vigenere Cipher algorithm.
+     * Shifts every ASCII letter in a range of bytes by the key.
      *
-     * @param ciphertext the ciphertext to be decrypted
-     * @return the decrypted plaintext
+     * @param shifts    the shifts of every key position
+     * @param src       the bytes to shift
+     * @param srcOffset the index of the first byte to shift
+     * @param dst       the array receiving the shifted bytes
+     * @param dstOffset the index of the first shifted byte
+     * @param length    the number of bytes to shift
+     * @param keyIndex  the position in the key used for the first letter
+     * @return the position in the key used for the letter following the range
      */
-    @Override
-    public String decrypt(String ciphertext) {
-        ciphertext = decodeInput(ciphertext);
-        key = generateKey(ciphertext);
-        StringBuilder plaintext = new StringBuilder();
+    private static int shift(KeyShifts shifts, byte[] src, int srcOffset, byte[] dst, int dstOffset, int length,
+                             int keyIndex) {
+        byte[][] tables = shifts.tables;
+        if (shifts.tiled != null && length >= CaesarCipher.VECTOR_THRESHOLD) {
+            return VectorKernels.vigenere(src, srcOffset, dst, dstOffset, length, shifts.tiled, tables, keyIndex);
+        }
+        int j = keyIndex;
+        for (int i = 0; i < length; i++) {
+            byte b = src[srcOffset + i];
+            dst[dstOffset + i] = tables[j][b & 0xFF];
+            if (CaesarCipher.isLetter(b) && ++j == tables.length) {
+                j = 0;
+            }
+        }
+        return j;
+    }
 
-        for (int i = 0; i < ciphertext.length(); i++) {
-            char ciphertextChar = ciphertext.charAt(i);
-            char keyChar = key.charAt(i);
+    /**
+     * Shifts every ASCII letter in a range of characters by the key, starting at the given
+     * position in the key. Characters outside the ASCII range are copied unchanged.
+     *
+     * @param tables    the translation table for every key position
+     * @param src       the characters to shift
+     * @param srcOffset the index of the first character to shift
+     * @param dst       the array receiving the shifted characters
+     * @param dstOffset the index of the first shifted character
+     * @param length    the number of characters to shift
+     * @param keyIndex  the position in the key used for the first letter, reduced modulo the key length
+     * @return the position in the key used for the letter following the range
+     * @throws IndexOutOfBoundsException if a range is outside of its array
+     * @throws IllegalArgumentException  if {@code keyIndex} is negative
+     */
+    private static int shift(byte[][] tables, char[] src, int srcOffset, char[] dst, int dstOffset, int length,
+                             int keyIndex) {
+        if ((srcOffset | dstOffset | length) < 0 || srcOffset > src.length - length || dstOffset > dst.length - length) {
+            throw new IndexOutOfBoundsException("Range [" + srcOffset + ", " + length + ") -> [" + dstOffset + ", " + length + ")");
+        }
+        if (keyIndex < 0) {
+            throw new IllegalArgumentException("Key index must not be negative: " + keyIndex);
+        }
+        int j = keyIndex % tables.length;
+        for (int i = 0; i < length; i++) {
+            char c = src[srcOffset + i];
+            if (c < 128 && CaesarCipher.isLetter((byte) c)) {
+                c = (char) tables[j][c];
+                if (++j == tables.length) {
+                    j = 0;
+                }
+            }
+            dst[dstOffset + i] = c;
+        }
+        return j;
+    }
 
-            if (keyChar == '?') {
-                plaintext.append(ciphertextChar);
-                continue;
+    /**
+     * Precomputed shifts of every key position in one direction.
+     */
+    private static final class KeyShifts {
+        /** The Caesar translation table of every key position. */
+        private final byte[][] tables;
+
+        /** The shifts tiled for {@link VectorKernels}, or {@code null} without the Vector API. */
+        private final byte[] tiled;
+
+        private KeyShifts(byte[] shifts) {
+            this.tables = new byte[shifts.length][];
+            for (int i = 0; i < shifts.length; i++) {
+                this.tables[i] = CaesarCipher.byteTable(shifts[i]);
             }
+            this.tiled = CaesarCipher.VECTORIZED ? VectorKernels.tile(shifts) : null;
+        }
+    }
 
-            int rotations = getRotationFromChar(keyChar);
+    /**
+     * Incremental Vigenere Cipher operation that remembers its position in the key.
+     */
+    private static final class KeyOperation implements CryptographyOperation {
+        private final KeyShifts shifts;
+        private int keyIndex;
+
+        private KeyOperation(KeyShifts shifts) {
+            this.shifts = shifts;
+        }
 
-            CaesarCipher tempCaesar = new CaesarCipher(0, 0, rotations);
-            plaintext.append(tempCaesar.decrypt(String.valueOf(ciphertextChar)));
+        @Override
+        public int getOutputSize(int inputLength) {
+            return inputLength;
         }
 
-        return encodeOutput(plaintext.toString());
+        @Override
+        public void update(ByteBuffer src, ByteBuffer dst) {
+            this.keyIndex = shift(this.shifts, src, dst, this.keyIndex);
+        }
+
+        @Override
+        public void doFinal(ByteBuffer dst) {
+        }
     }
 
     /**
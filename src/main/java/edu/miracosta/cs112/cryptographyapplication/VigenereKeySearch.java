@@ -0,0 +1,616 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+/**
+ * Searches for the key of a Vigenere ciphertext by trying every word of a wordlist, or every key
+ * up to a given length, and ranking the decryptions by how English they look.
+ *
+ * <p>
+ * Each candidate key is scored by the quadgram log-likelihood of the decryption of the first
+ * {@link #PREFIX_LETTERS} letters only. The decryption is never built: the letters of the
+ * ciphertext are shifted back by the key as they are scored, so trying a key allocates nothing.
+ * Scoring stops as soon as even the most frequent quadgram at every remaining position could
+ * not lift the key into the best ones found so far, which rejects most keys after a fraction
+ * of the prefix. The best keys are finally scored again on a longer part of the text.
+ * </p>
+ *
+ * <p>
+ * The candidates are split between {@link RecursiveTask}s on a {@link ForkJoinPool}, which halve
+ * their range until it is small enough and are balanced by work stealing. Every task keeps its
+ * own best keys in a small heap, and the heaps are merged as the tasks are joined. The tasks
+ * publish the worst score of their full heaps, so each of them can reject keys against the best
+ * threshold any of them has reached.
+ * </p>
+ *
+ * <p>
+ * {@link VigenereCipher#decrypt(String)} is only used to decrypt with a key that was found.
+ * </p>
+ *
+ * @see VigenereAnalyzer
+ *
+ * @version 1.0
+ */
+public final class VigenereKeySearch {
+
+    /** Number of letters of the ciphertext every candidate key is scored on. */
+    static final int PREFIX_LETTERS = 64;
+
+    /** Longest key length that can be searched exhaustively, so that every key has a {@code long} index. */
+    public static final int MAX_EXHAUSTIVE_LENGTH = 12;
+
+    /** Largest number of candidate keys tried by a single task without splitting it. */
+    static final int SEGMENT_SIZE = 1 << 14;
+
+    /** Number of keys a task tries between two reads of the threshold shared by all tasks. */
+    private static final int THRESHOLD_REFRESH = 1024;
+
+    private VigenereKeySearch() {
+    }
+
+    /**
+     * A key that was found and the score of the decryption it gives.
+     */
+    public static final class Match {
+        private final String key;
+        private final double score;
+
+        private Match(String key, double score) {
+            this.key = key;
+            this.score = score;
+        }
+
+        /**
+         * Gets the key.
+         *
+         * @return the key, in lowercase letters
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the quadgram log-likelihood of the start of the text decrypted with the key.
+         * Higher is more likely.
+         *
+         * @return the quadgram score
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Decrypts a ciphertext with the key.
+         *
+         * @param ciphertext the ciphertext that was searched
+         * @return the decrypted plaintext
+         */
+        public String decrypt(String ciphertext) {
+            return new VigenereCipher(CryptographyMethod.DEFAULT_INPUT_MODE, CryptographyMethod.DEFAULT_OUTPUT_MODE,
+                    key).decrypt(ciphertext);
+        }
+
+        @Override
+        public String toString() {
+            return "Key: " + key + ", Score: " + score;
+        }
+    }
+
+    /**
+     * Tries every word of a wordlist as the key, on the common {@link ForkJoinPool}.
+     *
+     * @param ciphertext the ciphertext
+     * @param words      the candidate keys
+     * @param count      the number of best keys to return
+     * @return the best keys, from the most to the least likely
+     * @see #searchWords(String, List, int, ForkJoinPool)
+     */
+    public static List<Match> searchWords(String ciphertext, List<String> words, int count) {
+        return searchWords(ciphertext, words, count, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Tries every word of a wordlist as the key, in parallel on the given pool. Words that
+     * contain anything but ASCII letters are skipped, case is ignored, and words that decrypt
+     * the same way are tried only once.
+     *
+     * @param ciphertext the ciphertext
+     * @param words      the candidate keys
+     * @param count      the number of best keys to return
+     * @param pool       the pool running the search
+     * @return at most {@code count} keys, from the most to the least likely, without two keys
+     *         that decrypt the same way
+     * @throws IllegalArgumentException if the ciphertext contains no letters or {@code count}
+     *                                  is not positive
+     */
+    public static List<Match> searchWords(String ciphertext, List<String> words, int count, ForkJoinPool pool) {
+        byte[] letters = prepare(ciphertext, count);
+        List<byte[]> candidates = distinctKeys(words);
+        Search search = new Search(letters, count);
+        TopKeys best = pool.invoke(new WordTask(search, candidates, 0, candidates.size()));
+
+        List<byte[]> keys = new ArrayList<>();
+        for (int i = 0; i < best.size; i++) {
+            keys.add(candidates.get((int) best.ids[i]));
+        }
+        return rank(letters, keys, count);
+    }
+
+    /**
+     * Converts the words of a wordlist into the distinct keys they stand for. Words that differ
+     * only in case, or that repeat a shorter word such as "byebye", decrypt the same way, so
+     * only the first of them is kept; otherwise they could fill the heap of best keys with
+     * copies of one key and push the next best keys out before the copies are merged.
+     *
+     * @param words the candidate keys
+     * @return the shortest period of every distinct key, in the order of the wordlist
+     */
+    private static List<byte[]> distinctKeys(List<String> words) {
+        int maxLength = 0;
+        for (String word : words) {
+            maxLength = Math.max(maxLength, word.length());
+        }
+        byte[] key = new byte[maxLength];
+        Map<String, byte[]> keys = new LinkedHashMap<>();
+        for (String word : words) {
+            int length = toShifts(word, key);
+            if (length > 0) {
+                byte[] shortest = VigenereAnalyzer.shortestPeriod(Arrays.copyOf(key, length));
+                keys.putIfAbsent(VigenereAnalyzer.toKey(shortest), shortest);
+            }
+        }
+        return new ArrayList<>(keys.values());
+    }
+
+    /**
+     * Tries every key of up to {@code maxKeyLength} letters, on the common {@link ForkJoinPool}.
+     *
+     * @param ciphertext   the ciphertext
+     * @param maxKeyLength the length of the longest keys to try
+     * @param count        the number of best keys to return
+     * @return the best keys, from the most to the least likely
+     * @see #searchAll(String, int, int, ForkJoinPool)
+     */
+    public static List<Match> searchAll(String ciphertext, int maxKeyLength, int count) {
+        return searchAll(ciphertext, maxKeyLength, count, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Tries every key of up to {@code maxKeyLength} letters, in parallel on the given pool.
+     *
+     * <p>
+     * Every key is identified by its index in the order of length and then alphabetical order,
+     * and the tasks split ranges of indices. A task decodes the first key of its range once and
+     * then steps through the rest like an odometer, in place. Keys that repeat a shorter key,
+     * such as "abab", are not ranked, since the shorter key decrypts the same way. There are
+     * 26<sup>n</sup> keys of length n, so every extra letter makes the search 26 times longer.
+     * </p>
+     *
+     * @param ciphertext   the ciphertext
+     * @param maxKeyLength the length of the longest keys to try
+     * @param count        the number of best keys to return
+     * @param pool         the pool running the search
+     * @return at most {@code count} keys, from the most to the least likely
+     * @throws IllegalArgumentException if the ciphertext contains no letters, {@code count} is
+     *                                  not positive, or {@code maxKeyLength} is not between 1
+     *                                  and {@link #MAX_EXHAUSTIVE_LENGTH}
+     */
+    public static List<Match> searchAll(String ciphertext, int maxKeyLength, int count, ForkJoinPool pool) {
+        if (maxKeyLength < 1 || maxKeyLength > MAX_EXHAUSTIVE_LENGTH) {
+            throw new IllegalArgumentException("Invalid maximum key length: " + maxKeyLength
+                    + ". It must be between 1 and " + MAX_EXHAUSTIVE_LENGTH + ".");
+        }
+        byte[] letters = prepare(ciphertext, count);
+        Search search = new Search(letters, count);
+        TopKeys best = pool.invoke(new KeySpaceTask(search, maxKeyLength, 0, firstIndex(maxKeyLength + 1)));
+
+        List<byte[]> keys = new ArrayList<>();
+        for (int i = 0; i < best.size; i++) {
+            byte[] key = new byte[maxKeyLength];
+            keys.add(Arrays.copyOf(key, decode(best.ids[i], key)));
+        }
+        return rank(letters, keys, count);
+    }
+
+    /**
+     * Checks the arguments of a search and returns the letter numbers of the ciphertext.
+     *
+     * @param ciphertext the ciphertext
+     * @param count      the number of best keys to return
+     * @return the letter numbers
+     */
+    private static byte[] prepare(String ciphertext, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Number of keys must be positive: " + count);
+        }
+        byte[] letters = EnglishStatistics.letters(ciphertext);
+        if (letters.length == 0) {
+            throw new IllegalArgumentException("Ciphertext must contain letters!");
+        }
+        return letters;
+    }
+
+    /**
+     * Scores the best keys of a search again on a longer part of the text, drops the keys that
+     * repeat a shorter one, and sorts them.
+     *
+     * @param letters the letter numbers of the ciphertext
+     * @param keys    the shifts of the best keys
+     * @param count   the number of keys to return
+     * @return the matches, from the most to the least likely
+     */
+    private static List<Match> rank(byte[] letters, List<byte[]> keys, int count) {
+        int sample = Math.min(letters.length, CaesarCracker.QUADGRAM_SAMPLE);
+        Map<String, Match> matches = new LinkedHashMap<>();
+        for (byte[] key : keys) {
+            byte[] shortest = VigenereAnalyzer.shortestPeriod(key);
+            String text = VigenereAnalyzer.toKey(shortest);
+            matches.putIfAbsent(text, new Match(text, EnglishStatistics.quadgramScore(letters, sample, shortest)));
+        }
+        List<Match> ranked = new ArrayList<>(matches.values());
+        ranked.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+        return List.copyOf(ranked.subList(0, Math.min(count, ranked.size())));
+    }
+
+    /**
+     * Converts a word into key shifts.
+     *
+     * @param word the word
+     * @param key  the array receiving the shift of every letter
+     * @return the length of the key, or 0 if the word is empty or not only ASCII letters
+     */
+    private static int toShifts(String word, byte[] key) {
+        for (int i = 0; i < word.length(); i++) {
+            int letter = EnglishStatistics.letter(word.charAt(i));
+            if (!EnglishStatistics.isLetter(letter)) {
+                return 0;
+            }
+            key[i] = (byte) letter;
+        }
+        return word.length();
+    }
+
+    /**
+     * Returns the index of the first key of a length, which is the number of shorter keys.
+     *
+     * @param length the key length
+     * @return the index of the key "a...a" of that length
+     */
+    private static long firstIndex(int length) {
+        long index = 0;
+        long keys = 1;
+        for (int i = 1; i < length; i++) {
+            keys *= 26;
+            index += keys;
+        }
+        return index;
+    }
+
+    /**
+     * Decodes the key with an index.
+     *
+     * @param index the index of the key
+     * @param key   the array receiving the shift of every letter
+     * @return the length of the key
+     */
+    private static int decode(long index, byte[] key) {
+        int length = 1;
+        while (firstIndex(length + 1) <= index) {
+            length++;
+        }
+        long rest = index - firstIndex(length);
+        for (int i = length - 1; i >= 0; i--) {
+            key[i] = (byte) (rest % 26);
+            rest /= 26;
+        }
+        return length;
+    }
+
+    /**
+     * Returns whether a key is a shorter key repeated.
+     *
+     * @param key    the shift of every letter
+     * @param length the length of the key
+     * @return {@code true} if the key has a shorter period
+     */
+    private static boolean isPeriodic(byte[] key, int length) {
+        outer:
+        for (int period = 1; period < length; period++) {
+            if (length % period != 0) {
+                continue;
+            }
+            for (int i = period; i < length; i++) {
+                if (key[i] != key[i - period]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * State shared by all tasks of a search.
+     */
+    private static final class Search {
+        private final byte[] letters;
+        private final int prefix;
+        private final int count;
+        private final double[] remaining;
+
+        /** Best threshold reached by any task: the worst score among the best keys of a full heap. */
+        private final DoubleAccumulator threshold = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+
+        private Search(byte[] letters, int count) {
+            this.letters = letters;
+            this.prefix = Math.min(letters.length, PREFIX_LETTERS);
+            this.count = count;
+            // The most that the quadgrams after each position can still add to a score
+            this.remaining = new double[prefix];
+            for (int i = 0; i < prefix; i++) {
+                remaining[i] = (double) (prefix - 1 - i) * EnglishStatistics.MAX_QUADGRAM;
+            }
+        }
+
+        /**
+         * Scores the prefix decrypted with a key, giving up as soon as the score cannot reach
+         * the threshold.
+         *
+         * @param key       the shift of every key position
+         * @param length    the length of the key
+         * @param threshold the score a key must exceed to be kept
+         * @return the score, or negative infinity if the key was rejected
+         */
+        private double score(byte[] key, int length, double threshold) {
+            double sum = 0;
+            int quadgram = 0;
+            int j = 0;
+            for (int i = 0; i < prefix; i++) {
+                int letter = letters[i] - key[j];
+                letter += (letter >> 31) & 26; // Wrap around without a branch
+                if (++j == length) {
+                    j = 0;
+                }
+                quadgram = quadgram % EnglishStatistics.TRIGRAM_COUNT * 26 + letter;
+                if (i >= 3) {
+                    sum += EnglishStatistics.QUADGRAMS[quadgram];
+                    if (sum + remaining[i] <= threshold) {
+                        return Double.NEGATIVE_INFINITY;
+                    }
+                }
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * The best keys found by a task, kept in a min-heap of fixed capacity so that the worst of
+     * them is replaced without allocating.
+     */
+    private static final class TopKeys {
+        private final long[] ids;
+        private final double[] scores;
+        private int size;
+
+        private TopKeys(int capacity) {
+            this.ids = new long[capacity];
+            this.scores = new double[capacity];
+        }
+
+        /**
+         * Returns the score a key must exceed to be kept.
+         *
+         * @return the worst kept score if the heap is full, negative infinity otherwise
+         */
+        private double threshold() {
+            return size == ids.length ? scores[0] : Double.NEGATIVE_INFINITY;
+        }
+
+        /**
+         * Keeps a key if it is among the best ones.
+         *
+         * @param id    the key
+         * @param score its score
+         */
+        private void offer(long id, double score) {
+            if (size < ids.length) {
+                int i = size++;
+                while (i > 0 && scores[(i - 1) >>> 1] > score) {
+                    int parent = (i - 1) >>> 1;
+                    ids[i] = ids[parent];
+                    scores[i] = scores[parent];
+                    i = parent;
+                }
+                ids[i] = id;
+                scores[i] = score;
+            } else if (score > scores[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && scores[child + 1] < scores[child]) {
+                        child++;
+                    }
+                    if (scores[child] >= score) {
+                        break;
+                    }
+                    ids[i] = ids[child];
+                    scores[i] = scores[child];
+                    i = child;
+                }
+                ids[i] = id;
+                scores[i] = score;
+            }
+        }
+
+        /**
+         * Keeps the best keys of another heap too.
+         *
+         * @param other the other heap
+         * @return this heap
+         */
+        private TopKeys merge(TopKeys other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.ids[i], other.scores[i]);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Task that tries a range of candidate keys, splitting the range in half until it holds at
+     * most {@link #SEGMENT_SIZE} keys.
+     */
+    private abstract static class SearchTask extends RecursiveTask<TopKeys> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        final Search search;
+        final long from;
+        final long to;
+
+        SearchTask(Search search, long from, long to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopKeys compute() {
+            if (to - from <= SEGMENT_SIZE) {
+                TopKeys best = new TopKeys(search.count);
+                search(best);
+                return best;
+            }
+            long middle = (from + to) >>> 1;
+            SearchTask second = split(middle, to);
+            second.fork();
+            TopKeys best = split(from, middle).compute();
+            return best.merge(second.join());
+        }
+
+        /**
+         * Creates the task for a part of the range.
+         *
+         * @param from the first candidate, inclusive
+         * @param to   the last candidate, exclusive
+         * @return the task
+         */
+        abstract SearchTask split(long from, long to);
+
+        /**
+         * Tries every candidate of the range.
+         *
+         * @param best the heap receiving the best keys
+         */
+        abstract void search(TopKeys best);
+
+        /**
+         * Returns the threshold a key must exceed, publishing the threshold of this task.
+         *
+         * @param best the best keys of this task
+         * @return the higher of the thresholds of this task and of all tasks
+         */
+        final double refreshThreshold(TopKeys best) {
+            double own = best.threshold();
+            if (own > Double.NEGATIVE_INFINITY) {
+                search.threshold.accumulate(own);
+            }
+            return Math.max(own, search.threshold.get());
+        }
+    }
+
+    /**
+     * Task that tries a range of the distinct keys of a wordlist.
+     */
+    private static final class WordTask extends SearchTask {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final List<byte[]> keys;
+
+        private WordTask(Search search, List<byte[]> keys, long from, long to) {
+            super(search, from, to);
+            this.keys = keys;
+        }
+
+        @Override
+        SearchTask split(long from, long to) {
+            return new WordTask(search, keys, from, to);
+        }
+
+        @Override
+        void search(TopKeys best) {
+            double threshold = refreshThreshold(best);
+            for (int i = (int) from; i < to; i++) {
+                byte[] key = keys.get(i);
+                double score = search.score(key, key.length, threshold);
+                if (score > threshold) {
+                    best.offer(i, score);
+                    threshold = Math.max(threshold, best.threshold());
+                }
+                if ((i & (THRESHOLD_REFRESH - 1)) == 0) {
+                    threshold = refreshThreshold(best);
+                }
+            }
+            refreshThreshold(best);
+        }
+    }
+
+    /**
+     * Task that tries a range of the keys of up to a maximum length, by index.
+     */
+    private static final class KeySpaceTask extends SearchTask {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int maxLength;
+
+        private KeySpaceTask(Search search, int maxLength, long from, long to) {
+            super(search, from, to);
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        SearchTask split(long from, long to) {
+            return new KeySpaceTask(search, maxLength, from, to);
+        }
+
+        @Override
+        void search(TopKeys best) {
+            byte[] key = new byte[maxLength];
+            int length = decode(from, key);
+            double threshold = refreshThreshold(best);
+            for (long index = from; index < to; index++) {
+                double score = search.score(key, length, threshold);
+                if (score > threshold && !isPeriodic(key, length)) {
+                    best.offer(index, score);
+                    threshold = Math.max(threshold, best.threshold());
+                }
+                if ((index & (THRESHOLD_REFRESH - 1)) == 0) {
+                    threshold = refreshThreshold(best);
+                }
+
+                // Step to the next key like an odometer; after "z...z" comes "a...a" one letter longer
+                int i = length - 1;
+                while (i >= 0 && ++key[i] == 26) {
+                    key[i--] = 0;
+                }
+                if (i < 0 && length < maxLength) {
+                    length++;
+                }
+            }
+            refreshThreshold(best);
+        }
+    }
+}
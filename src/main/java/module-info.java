@@ -1,6 +1,9 @@
 module edu.miracosta.cs112.cryptographyapplication {
     requires javafx.controls;
     requires javafx.fxml;
+    requires static jdk.incubator.vector;
+    requires jdk.httpserver;
+    requires java.management;
 
 
     opens edu.miracosta.cs112.cryptographyapplication to javafx.fxml;
@@ -0,0 +1,184 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link Aes}, checking the parallel paths against the JCE ciphers they replace.
+ *
+ * @version 1.0
+ */
+class AesTest {
+
+    private static final byte[] KEY = bytes(16, 1);
+    private static final byte[] IV = bytes(16, 2);
+
+    /** Not a multiple of the block size, and longer than several segments. */
+    private static final int LARGE_LENGTH = 4 * ParallelAes.SEGMENT_SIZE + 13;
+
+    @TempDir
+    Path directory;
+
+    private static byte[] bytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] jce(String transformation, int opmode, byte[] iv, byte[] input) throws Exception {
+        Cipher cipher = Cipher.getInstance(transformation);
+        cipher.init(opmode, new SecretKeySpec(KEY, "AES"), new IvParameterSpec(iv));
+        return cipher.doFinal(input);
+    }
+
+    @Test
+    void parallelCbcDecryptionMatchesJce() throws Exception {
+        for (int length : new int[] { LARGE_LENGTH, 2 * ParallelAes.SEGMENT_SIZE, 2 * ParallelAes.SEGMENT_SIZE - 1 }) {
+            byte[] plaintext = bytes(length, length);
+            byte[] ciphertext = jce(Aes.Mode.CBC.getTransformation(), Cipher.ENCRYPT_MODE, IV, plaintext);
+            Aes aes = new Aes(0, 0, Aes.Mode.CBC, KEY, IV);
+
+            assertArrayEquals(ciphertext, aes.encrypt(plaintext));
+            assertArrayEquals(plaintext, aes.decrypt(ciphertext));
+        }
+    }
+
+    @Test
+    void parallelCbcDecryptionRejectsBadPadding() throws Exception {
+        byte[] ciphertext = jce(Aes.Mode.CBC.getTransformation(), Cipher.ENCRYPT_MODE, IV, bytes(LARGE_LENGTH, 3));
+        ciphertext[ciphertext.length - 1] ^= 1;
+        Aes aes = new Aes(0, 0, Aes.Mode.CBC, KEY, IV);
+
+        assertThrows(RuntimeException.class, () -> aes.decrypt(ciphertext));
+    }
+
+    @Test
+    void parallelCtrMatchesJce() throws Exception {
+        byte[] plaintext = bytes(LARGE_LENGTH, 4);
+        Aes aes = new Aes(0, 0, Aes.Mode.CTR, KEY, null);
+
+        byte[] ciphertext = aes.encrypt(plaintext);
+        assertEquals(16 + plaintext.length, ciphertext.length);
+        byte[] iv = Arrays.copyOf(ciphertext, 16);
+        byte[] body = Arrays.copyOfRange(ciphertext, 16, ciphertext.length);
+        assertArrayEquals(jce(Aes.Mode.CTR.getTransformation(), Cipher.ENCRYPT_MODE, iv, plaintext), body);
+        assertArrayEquals(plaintext, aes.decrypt(ciphertext));
+    }
+
+    @Test
+    void everyModeRoundTripsWithKeyAndPassphrase() throws Exception {
+        for (Aes.Mode mode : Aes.Mode.values()) {
+            for (int length : new int[] { 0, 1, 16, 1000, LARGE_LENGTH }) {
+                byte[] plaintext = bytes(length, length);
+                Aes withKey = new Aes(0, 0, mode, KEY, null);
+                Aes withPassphrase = new Aes(0, 0, mode, "correct horse".toCharArray(), 1000, null);
+
+                assertArrayEquals(plaintext, withKey.decrypt(withKey.encrypt(plaintext)), mode + " " + length);
+                byte[] ciphertext = withPassphrase.encrypt(plaintext);
+                assertArrayEquals(plaintext, withPassphrase.decrypt(ciphertext), mode + " " + length);
+                assertTrue(ciphertext.length >= Aes.HEADER_LENGTH + mode.getIvLength() + length);
+            }
+        }
+    }
+
+    @Test
+    void passphraseMessagesHaveDistinctIvs() {
+        for (Aes.Mode mode : Aes.Mode.values()) {
+            Aes aes = new Aes(0, 0, mode, "correct horse".toCharArray(), 1000, null);
+            byte[] plaintext = bytes(100, 5);
+
+            byte[] first = aes.encrypt(plaintext);
+            byte[] second = aes.encrypt(plaintext);
+            int ivEnd = Aes.HEADER_LENGTH + mode.getIvLength();
+            assertArrayEquals(Arrays.copyOf(first, Aes.HEADER_LENGTH), Arrays.copyOf(second, Aes.HEADER_LENGTH));
+            assertTrue(!Arrays.equals(first, Aes.HEADER_LENGTH, ivEnd, second, Aes.HEADER_LENGTH, ivEnd), mode.name());
+        }
+    }
+
+    @Test
+    void wrongPassphraseFails() {
+        Aes aes = new Aes(0, 0, Aes.Mode.GCM, "correct horse".toCharArray(), 1000, null);
+        Aes other = new Aes(0, 0, Aes.Mode.GCM, "battery staple".toCharArray(), 1000, null);
+
+        byte[] ciphertext = aes.encrypt(bytes(100, 6));
+        assertThrows(RuntimeException.class, () -> other.decrypt(ciphertext));
+    }
+
+    @Test
+    void streamsRoundTripInSmallChunks() throws Exception {
+        for (Aes.Mode mode : Aes.Mode.values()) {
+            Aes aes = new Aes(0, 0, mode, KEY, null);
+            byte[] plaintext = bytes(GcmOperation.SEGMENT_SIZE * 2 + 7, 7);
+
+            Path encrypted = directory.resolve(mode + ".enc");
+            try (OutputStream out = aes.encryptingOutputStream(Files.newOutputStream(encrypted))) {
+                for (int i = 0; i < plaintext.length; i += 997) {
+                    out.write(plaintext, i, Math.min(997, plaintext.length - i));
+                }
+            }
+            assertArrayEquals(aes.decrypt(Files.readAllBytes(encrypted)), plaintext, mode.name());
+            try (InputStream in = aes.decryptingInputStream(Files.newInputStream(encrypted))) {
+                assertArrayEquals(plaintext, in.readAllBytes(), mode.name());
+            }
+        }
+    }
+
+    @Test
+    void filesLargerThanAMappedWindowRoundTrip() throws Exception {
+        byte[] plaintext = bytes(Aes.MAPPED_WINDOW_SIZE + 12345, 8);
+        Path source = Files.write(directory.resolve("plain"), plaintext);
+        Path encrypted = directory.resolve("encrypted");
+        Path decrypted = directory.resolve("decrypted");
+
+        for (Aes.Mode mode : Aes.Mode.values()) {
+            Aes aes = new Aes(0, 0, mode, KEY, null);
+            aes.encryptFile(source, encrypted);
+            assertArrayEquals(plaintext, aes.decrypt(Files.readAllBytes(encrypted)), mode.name());
+            aes.decryptFile(encrypted, decrypted);
+            assertArrayEquals(plaintext, Files.readAllBytes(decrypted), mode.name());
+        }
+    }
+
+    @Test
+    void failedFileDecryptionLeavesTheTargetUnchanged() throws Exception {
+        Aes aes = new Aes(0, 0, Aes.Mode.GCM, KEY, null);
+        Path encrypted = directory.resolve("encrypted");
+        Files.write(encrypted, aes.encrypt(bytes(1000, 9)));
+        Path target = Files.write(directory.resolve("target"), bytes(10, 10));
+        Aes other = new Aes(0, 0, Aes.Mode.GCM, bytes(16, 11), null);
+
+        assertThrows(RuntimeException.class, () -> other.decryptFile(encrypted, target));
+        assertArrayEquals(bytes(10, 10), Files.readAllBytes(target));
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void fileCanBeEncryptedInPlace() throws Exception {
+        byte[] plaintext = bytes(1000, 12);
+        Path file = Files.write(directory.resolve("file"), plaintext);
+
+        for (Aes.Mode mode : Aes.Mode.values()) {
+            Aes aes = new Aes(0, 0, mode, KEY, null);
+            aes.encryptFile(file, file);
+            aes.decryptFile(file, file);
+            assertArrayEquals(plaintext, Files.readAllBytes(file), mode.name());
+        }
+    }
+}
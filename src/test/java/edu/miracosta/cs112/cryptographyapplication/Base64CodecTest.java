@@ -0,0 +1,97 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link Base64Codec}, checking the streaming codec against {@link Base64} on input
+ * split at every position.
+ *
+ * @version 1.0
+ */
+class Base64CodecTest {
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] convert(CryptographyOperation operation, byte[] input, int chunk) {
+        ByteBuffer dst = ByteBuffer.allocate(2 * input.length + 4);
+        for (int i = 0; i < input.length; i += chunk) {
+            operation.update(ByteBuffer.wrap(input, i, Math.min(chunk, input.length - i)), dst);
+        }
+        operation.doFinal(dst);
+        return Arrays.copyOf(dst.array(), dst.position());
+    }
+
+    @Test
+    void chunksOfAnyLengthMatchBase64() {
+        for (int length = 0; length < 10; length++) {
+            byte[] bytes = bytes(length * 100 + length);
+            byte[] encoded = Base64.getEncoder().encode(bytes);
+
+            for (int chunk : new int[] { 1, 2, 3, 4, 5, 7, 64 }) {
+                assertArrayEquals(encoded, convert(Base64Codec.startEncoding(), bytes, chunk), "chunk " + chunk);
+                assertArrayEquals(bytes, convert(Base64Codec.startDecoding(), encoded, chunk), "chunk " + chunk);
+            }
+        }
+    }
+
+    @Test
+    void unpaddedFinalGroupDecodes() {
+        byte[] bytes = bytes(1001);
+        byte[] encoded = Base64.getEncoder().withoutPadding().encode(bytes);
+
+        for (int chunk : new int[] { 1, 3, 4, 1000 }) {
+            assertArrayEquals(bytes, convert(Base64Codec.startDecoding(), encoded, chunk), "chunk " + chunk);
+        }
+    }
+
+    @Test
+    void streamsRoundTripOneByteAtATime() throws IOException {
+        byte[] bytes = bytes(1000);
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (OutputStream out = Base64Codec.encodingOutputStream(encoded)) {
+            for (byte b : bytes) {
+                out.write(b);
+            }
+        }
+        assertArrayEquals(Base64.getEncoder().encode(bytes), encoded.toByteArray());
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        try (InputStream in = Base64Codec.decodingInputStream(new ByteArrayInputStream(encoded.toByteArray()))) {
+            for (int b = in.read(); b >= 0; b = in.read()) {
+                decoded.write(b);
+            }
+        }
+        assertArrayEquals(bytes, decoded.toByteArray());
+    }
+
+    @Test
+    void malformedInputFails() {
+        for (String input : new String[] { "QUJD=", "QQ==QUJD", "QUJ*", "Q" }) {
+            byte[] encoded = input.getBytes(StandardCharsets.US_ASCII);
+            for (int chunk = 1; chunk <= encoded.length; chunk++) {
+                int size = chunk;
+                assertThrows(IllegalArgumentException.class, () -> convert(Base64Codec.startDecoding(), encoded, size),
+                        input + " in chunks of " + chunk);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link CryptographyMethod#encryptAll(List, ForkJoinPool)} and
+ * {@link CryptographyMethod#decryptAll(List, ForkJoinPool)}, which split batches with
+ * {@link BatchTask}.
+ *
+ * @version 1.0
+ */
+class BatchTaskTest {
+
+    /** Enough items for several levels of splitting. */
+    private static final int ITEMS = 5 * BatchTask.SEGMENT_SIZE + 17;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutDownPool() {
+        POOL.shutdown();
+    }
+
+    /**
+     * Returns hexadecimal plaintexts, every 100th of which has an invalid digit.
+     */
+    private static List<String> plaintexts() {
+        List<String> plaintexts = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            String hex = Hex.encode(("message " + i).getBytes(StandardCharsets.US_ASCII));
+            plaintexts.add(i % 100 == 0 ? hex + "zz" : hex);
+        }
+        return plaintexts;
+    }
+
+    @Test
+    void resultsKeepTheOrderOfTheItems() {
+        VigenereCipher cipher = new VigenereCipher(2, 0, "lemon");
+        List<String> plaintexts = plaintexts();
+
+        List<BatchResult> results = cipher.encryptAll(plaintexts, POOL);
+        assertEquals(ITEMS, results.size());
+        for (int i = 0; i < ITEMS; i++) {
+            if (i % 100 != 0) {
+                assertTrue(results.get(i).isSuccess(), results.get(i).toString());
+                assertEquals(cipher.encrypt(plaintexts.get(i)), results.get(i).getValue(), "item " + i);
+            }
+        }
+        List<BatchResult> linked = cipher.encryptAll(new LinkedList<>(plaintexts), POOL);
+        assertEquals(results.stream().map(BatchResult::getValue).toList(),
+                linked.stream().map(BatchResult::getValue).toList());
+    }
+
+    @Test
+    void failedItemsDoNotAffectTheOthers() {
+        VigenereCipher cipher = new VigenereCipher(2, 0, "lemon");
+
+        List<BatchResult> results = cipher.encryptAll(plaintexts(), POOL);
+        for (int i = 0; i < ITEMS; i++) {
+            BatchResult result = results.get(i);
+            if (i % 100 == 0) {
+                assertFalse(result.isSuccess(), "item " + i);
+                assertNull(result.getValue());
+                assertInstanceOf(IllegalArgumentException.class, result.getError());
+                assertThrows(IllegalArgumentException.class, result::orElseThrow);
+            } else {
+                assertEquals("message " + i, new VigenereCipher(0, 0, "lemon").decrypt(result.orElseThrow()));
+            }
+        }
+    }
+
+    @Test
+    void decryptionReversesEncryption() {
+        CaesarCipher cipher = new CaesarCipher(0, 1, 7);
+        List<String> plaintexts = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            plaintexts.add("Message number " + i);
+        }
+
+        List<String> ciphertexts = cipher.encryptAll(plaintexts.stream(), POOL).stream().map(BatchResult::orElseThrow).toList();
+        CaesarCipher decrypting = new CaesarCipher(1, 0, 7);
+        List<BatchResult> decrypted = decrypting.decryptAll(ciphertexts, POOL);
+        assertEquals(plaintexts, decrypted.stream().map(BatchResult::orElseThrow).toList());
+        assertTrue(decrypting.decryptAll(List.of(), POOL).isEmpty());
+    }
+}
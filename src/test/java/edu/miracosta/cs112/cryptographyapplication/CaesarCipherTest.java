@@ -0,0 +1,100 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the translation tables of {@link CaesarCipher}, comparing every path with shifting
+ * one character at a time.
+ *
+ * @version 1.0
+ */
+class CaesarCipherTest {
+
+    private static final String ALPHABET = "abcxyzABCXYZ 09,.\n@[`{é€";
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    private static String shift(String text, int rotations) {
+        StringBuilder shifted = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) ('A' + Math.floorMod(c - 'A' + rotations, 26));
+            } else if (c >= 'a' && c <= 'z') {
+                c = (char) ('a' + Math.floorMod(c - 'a' + rotations, 26));
+            }
+            shifted.append(c);
+        }
+        return shifted.toString();
+    }
+
+    @Test
+    void stringsMatchShiftingEachLetter() {
+        Random random = new Random(1);
+        for (int rotations : new int[] { 0, 1, 3, 13, 25, 26, 27, -1, -29 }) {
+            CaesarCipher cipher = new CaesarCipher(0, 0, rotations);
+            for (int length : new int[] { 0, 1, CaesarCipher.VECTOR_THRESHOLD - 1, CaesarCipher.VECTOR_THRESHOLD, 1000 }) {
+                String plaintext = randomText(random, length);
+                String ascii = plaintext.replaceAll("[^\\x00-\\x7f]", "");
+
+                assertEquals(shift(plaintext, rotations), cipher.encrypt(plaintext), rotations + " " + length);
+                assertEquals(shift(ascii, rotations), cipher.encrypt(ascii), rotations + " " + length);
+                assertEquals(plaintext, cipher.decrypt(cipher.encrypt(plaintext)), rotations + " " + length);
+            }
+        }
+    }
+
+    @Test
+    void characterRangesMatchShiftingEachLetter() {
+        Random random = new Random(2);
+        CaesarCipher cipher = new CaesarCipher(0, 0, 7);
+        String plaintext = randomText(random, 500);
+        char[] chars = plaintext.toCharArray();
+
+        char[] encrypted = new char[chars.length + 10];
+        cipher.encrypt(chars, 20, encrypted, 5, 300);
+        assertEquals(shift(plaintext.substring(20, 320), 7), new String(encrypted, 5, 300));
+
+        cipher.encrypt(chars, 0, chars, 0, chars.length);
+        assertEquals(shift(plaintext, 7), new String(chars));
+        cipher.decrypt(chars, 0, chars, 0, chars.length);
+        assertEquals(plaintext, new String(chars));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> cipher.encrypt(chars, 400, encrypted, 0, 200));
+    }
+
+    @Test
+    void heapAndDirectBuffersMatchShiftingEachLetter() {
+        Random random = new Random(3);
+        CaesarCipher cipher = new CaesarCipher(0, 0, 11);
+        for (int length : new int[] { 0, 1, CaesarCipher.VECTOR_THRESHOLD, 1000 }) {
+            String plaintext = randomText(random, length);
+            byte[] bytes = plaintext.getBytes(StandardCharsets.UTF_8);
+            byte[] expected = shift(plaintext, 11).getBytes(StandardCharsets.UTF_8);
+
+            assertArrayEquals(expected, cipher.encrypt(bytes), "heap " + length);
+            assertArrayEquals(bytes, cipher.decrypt(cipher.encrypt(bytes)), "heap " + length);
+
+            ByteBuffer src = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+            ByteBuffer dst = ByteBuffer.allocateDirect(bytes.length);
+            cipher.encrypt(src, dst);
+            byte[] actual = new byte[bytes.length];
+            dst.flip().get(actual);
+            assertArrayEquals(expected, actual, "direct " + length);
+            assertEquals(bytes.length, src.position());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link CaesarCracker}, encrypting English texts with known rotations and checking
+ * that the best candidate recovers them.
+ *
+ * @version 1.0
+ */
+class CaesarCrackerTest {
+
+    private static final String[] PLAINTEXTS = {
+            "Meet me at noon",
+            "Attack at dawn!",
+            "The quick brown fox jumps over the lazy dog.",
+            "It was the best of times, it was the worst of times, it was the age of wisdom, it was the age of"
+                    + " foolishness, it was the epoch of belief, it was the epoch of incredulity.",
+    };
+
+    @Test
+    void bestCandidateRecoversTheRotations() {
+        for (String plaintext : PLAINTEXTS) {
+            for (int rotations = 0; rotations < 26; rotations++) {
+                String ciphertext = new CaesarCipher(0, 0, rotations).encrypt(plaintext);
+
+                List<CaesarCracker.Candidate> candidates = CaesarCracker.crack(ciphertext);
+                assertEquals(26, candidates.size());
+                assertEquals(rotations, candidates.get(0).getRotations(), plaintext);
+                assertEquals(plaintext, candidates.get(0).decrypt(ciphertext));
+            }
+        }
+    }
+
+    @Test
+    void longTextsAreScoredOnASample() {
+        StringBuilder plaintext = new StringBuilder();
+        while (plaintext.length() < 4 * CaesarCracker.QUADGRAM_SAMPLE) {
+            plaintext.append(PLAINTEXTS[3]).append(' ');
+        }
+        String ciphertext = new CaesarCipher(0, 0, 11).encrypt(plaintext.toString());
+
+        assertEquals(11, CaesarCracker.crack(ciphertext).get(0).getRotations());
+    }
+
+    @Test
+    void batchesKeepTheOrderOfTheCiphertexts() {
+        List<String> ciphertexts = new ArrayList<>();
+        for (int i = 0; i < 5 * CaesarCracker.SEGMENT_SIZE + 3; i++) {
+            ciphertexts.add(new CaesarCipher(0, 0, i % 26).encrypt(PLAINTEXTS[i % PLAINTEXTS.length]));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<List<CaesarCracker.Candidate>> results = CaesarCracker.crackAll(new LinkedList<>(ciphertexts), pool);
+            assertEquals(ciphertexts.size(), results.size());
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i % 26, results.get(i).get(0).getRotations(), "ciphertext " + i);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void ciphertextWithoutLettersFails() {
+        for (String ciphertext : new String[] { "", "1234, 5678!", "éè" }) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> CaesarCracker.crack(ciphertext));
+            assertEquals("Ciphertext must contain letters!", e.getMessage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> CaesarCracker.crackAll(List.of("Khoor", "42")));
+    }
+}
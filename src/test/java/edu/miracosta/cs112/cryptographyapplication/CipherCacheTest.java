@@ -0,0 +1,74 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests of {@link CipherCache}, checking when a cipher is reused and when it is dropped.
+ *
+ * @version 1.0
+ */
+class CipherCacheTest {
+
+    private static final String CBC = Aes.Mode.CBC.getTransformation();
+    private static final SecretKey KEY = new SecretKeySpec(new byte[16], "AES");
+    private static final byte[] IV = new byte[16];
+
+    @AfterEach
+    void clear() {
+        CipherCache.clear();
+    }
+
+    private static Cipher use() throws Exception {
+        CipherCache.Entry entry = CipherCache.acquire(CBC, Cipher.ENCRYPT_MODE, KEY, IV);
+        CipherCache.release(entry);
+        return entry.cipher();
+    }
+
+    @Test
+    void releasedCipherIsReused() throws Exception {
+        assertSame(use(), use());
+    }
+
+    @Test
+    void acquiredCipherIsNotShared() throws Exception {
+        CipherCache.Entry first = CipherCache.acquire(CBC, Cipher.ENCRYPT_MODE, KEY, IV);
+        CipherCache.Entry second = CipherCache.acquire(CBC, Cipher.ENCRYPT_MODE, KEY, IV);
+
+        assertNotSame(first.cipher(), second.cipher());
+    }
+
+    @Test
+    void ciphersOfDerivedKeysAreNotKept() throws Exception {
+        SecretKey derived = DerivedKeyCache.derive("passphrase".toCharArray(), new byte[16], 1, 128);
+        CipherCache.Entry entry = CipherCache.acquire(CBC, Cipher.ENCRYPT_MODE, derived, IV);
+        CipherCache.release(entry);
+
+        assertNotSame(entry.cipher(), CipherCache.acquire(CBC, Cipher.ENCRYPT_MODE, derived, IV).cipher());
+    }
+
+    @Test
+    void idleCipherIsDropped() throws Exception {
+        Cipher cipher = use();
+        CipherCache.evictIdle(System.nanoTime() + CipherCache.IDLE_TIMEOUT_NANOS / 2);
+        assertSame(cipher, use());
+
+        CipherCache.evictIdle(System.nanoTime() + CipherCache.IDLE_TIMEOUT_NANOS);
+        assertNotSame(cipher, use());
+    }
+
+    @Test
+    void clearDropsTheCiphersOfTheThread() throws Exception {
+        Cipher cipher = use();
+        Aes.clearCaches();
+
+        assertNotSame(cipher, use());
+    }
+}
@@ -0,0 +1,111 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link CryptographyCli}, running it over in-memory standard streams and checking its
+ * output and exit status.
+ *
+ * @version 1.0
+ */
+class CryptographyCliTest {
+
+    @TempDir
+    Path directory;
+
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+    private int run(String stdin, String... args) {
+        return CryptographyCli.run(args, new ByteArrayInputStream(stdin.getBytes(StandardCharsets.UTF_8)), stdout,
+                new PrintStream(stderr, true, StandardCharsets.UTF_8));
+    }
+
+    private String output() {
+        return stdout.toString(StandardCharsets.UTF_8);
+    }
+
+    private String errors() {
+        return stderr.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void pipedTextIsEncrypted() {
+        assertEquals(0, run("Hello, World!\n", "vigenere", "encrypt", "--key", "lemon"));
+        assertEquals("Sixzb, Hsdzq!\n", output());
+        assertEquals("", errors());
+    }
+
+    @Test
+    void newlineTerminatedHexAndBase64AreDecoded() {
+        assertEquals(0, run("48656c6c6f\n", "caesar", "encrypt", "-k", "3", "-i", "hex"));
+        assertEquals("Khoor", output());
+
+        stdout.reset();
+        assertEquals(0, run("4865\r\n6c6c\n6f\n", "caesar", "encrypt", "-k", "3", "-i", "hex"));
+        assertEquals("Khoor", output());
+
+        stdout.reset();
+        assertEquals(0, run("SGVs\nbG8=\r\n", "caesar", "encrypt", "-k", "3", "-i", "base64", "-o", "hex"));
+        assertEquals("4b686f6f72", output());
+    }
+
+    @Test
+    void binaryFilesRoundTrip() throws Exception {
+        byte[] plaintext = new byte[100_000];
+        new Random(1).nextBytes(plaintext);
+        Path plain = Files.write(directory.resolve("plain"), plaintext);
+        Path encrypted = directory.resolve("encrypted");
+        Path decrypted = directory.resolve("decrypted");
+        String key = Hex.encode(new byte[16]);
+
+        assertEquals(0, run("", "aes", "encrypt", "--key-hex", key, "-m", "gcm", "--binary",
+                "--in", plain.toString(), "--out", encrypted.toString()));
+        assertEquals(0, run("", "aes", "decrypt", "--key-hex", key, "-m", "gcm", "--binary",
+                "--in", encrypted.toString(), "--out", decrypted.toString()));
+        assertArrayEquals(plaintext, Files.readAllBytes(decrypted));
+    }
+
+    @Test
+    void invalidArgumentsExitWithTwo() {
+        assertEquals(2, run("", "caesar"));
+        assertEquals(2, run("", "caesar", "encrypt", "--unknown"));
+        assertEquals(2, run("", "caesar", "encrypt"));
+        assertEquals(2, run("", "caesar", "encrypt", "-k", "three"));
+        assertEquals(2, run("", "vigenere", "encrypt", "-k", "lem0n"));
+        assertEquals(2, run("", "rot13", "encrypt", "-k", "13"));
+        assertEquals(2, run("", "caesar", "encrypt", "-k", "3", "-i", "octal"));
+        assertEquals(2, run("", "aes", "decrypt", "--key-hex", Hex.encode(new byte[16])));
+        assertEquals("", output());
+        assertTrue(errors().contains("usage:"));
+    }
+
+    @Test
+    void failedOperationsExitWithOne() {
+        assertEquals(1, run("48656c6c6fz\n", "caesar", "encrypt", "-k", "3", "-i", "hex"));
+        assertTrue(errors().contains("Invalid hexadecimal character"), errors());
+        assertEquals(1, run("", "caesar", "encrypt", "-k", "3", "--in", directory.resolve("missing").toString()));
+        assertTrue(errors().contains("No such file"), errors());
+        assertEquals(1, run("0123456789abcdef0123456789abcdef", "aes", "decrypt", "--key-hex", Hex.encode(new byte[16]),
+                "-m", "gcm", "-i", "hex"));
+    }
+
+    @Test
+    void helpExitsWithZero() {
+        assertEquals(0, run("", "--help"));
+        assertTrue(errors().contains("usage:"));
+    }
+}
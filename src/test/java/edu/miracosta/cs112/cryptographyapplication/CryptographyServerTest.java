@@ -0,0 +1,127 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link CryptographyServer}, sending requests to a server on an ephemeral port.
+ *
+ * @version 1.0
+ */
+class CryptographyServerTest {
+
+    private CryptographyServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new CryptographyServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop();
+    }
+
+    /**
+     * A response's status code and body.
+     */
+    private record Response(int status, byte[] body) {
+        String text() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private Response request(String method, String path, Map<String, String> headers, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        headers.forEach(connection::setRequestProperty);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new Response(status, in.readAllBytes());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static long stat(String stats, String name) {
+        String prefix = "\"" + name + "\":";
+        int start = stats.indexOf(prefix) + prefix.length();
+        int end = start;
+        while (end < stats.length() && Character.isDigit(stats.charAt(end))) {
+            end++;
+        }
+        return Long.parseLong(stats.substring(start, end));
+    }
+
+    @Test
+    void textRoundTripsAndIsCounted() throws IOException {
+        byte[] plaintext = "Hello, World!".getBytes(StandardCharsets.UTF_8);
+
+        Response encrypted = request("POST", "/vigenere/encrypt?output=hex", Map.of("X-Key", "lemon"), plaintext);
+        assertEquals(200, encrypted.status());
+        assertEquals(Hex.encode("Sixzb, Hsdzq!".getBytes(StandardCharsets.UTF_8)), encrypted.text());
+
+        Response decrypted = request("POST", "/vigenere/decrypt?input=hex", Map.of("X-Key", "lemon"), encrypted.body());
+        assertEquals(200, decrypted.status());
+        assertArrayEquals(plaintext, decrypted.body());
+
+        Response stats = request("GET", "/stats", Map.of(), null);
+        assertEquals(200, stats.status());
+        assertTrue(stats.text().startsWith("{") && stats.text().endsWith("}"), stats.text());
+        assertEquals(2, stat(stats.text(), "requests"));
+        assertEquals(0, stat(stats.text(), "activeRequests"));
+        assertEquals(0, stat(stats.text(), "failures"));
+        assertEquals(plaintext.length + encrypted.body().length, stat(stats.text(), "bytesIn"));
+        assertEquals(encrypted.body().length + plaintext.length, stat(stats.text(), "bytesOut"));
+    }
+
+    @Test
+    void responsesLargerThanTheBufferAreStreamed() throws IOException {
+        byte[] plaintext = new byte[3 * CryptographyServer.RESPONSE_BUFFER_SIZE + 5];
+        new Random(1).nextBytes(plaintext);
+        String key = Hex.encode(new byte[16]);
+
+        Response encrypted = request("POST", "/aes/encrypt?mode=GCM&binary=true", Map.of("X-Key-Hex", key), plaintext);
+        assertEquals(200, encrypted.status());
+        Response decrypted = request("POST", "/aes/decrypt?mode=GCM&binary=true", Map.of("X-Key-Hex", key), encrypted.body());
+        assertEquals(200, decrypted.status());
+        assertArrayEquals(plaintext, decrypted.body());
+    }
+
+    @Test
+    void invalidRequestsAreRejected() throws IOException {
+        byte[] body = "abc".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(400, request("POST", "/caesar/encrypt?key=3", Map.of(), body).status());
+        assertEquals(400, request("POST", "/caesar/encrypt", Map.of(), body).status());
+        assertEquals(404, request("POST", "/caesar/sign", Map.of("X-Key", "3"), body).status());
+        assertEquals(405, request("GET", "/caesar/encrypt", Map.of("X-Key", "3"), null).status());
+        assertEquals(422, request("POST", "/caesar/encrypt?input=hex", Map.of("X-Key", "3"), body).status());
+
+        assertEquals(5, stat(request("GET", "/stats", Map.of(), null).text(), "failures"));
+    }
+}
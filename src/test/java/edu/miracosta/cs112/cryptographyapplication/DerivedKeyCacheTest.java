@@ -0,0 +1,93 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link DerivedKeyCache}, checking which passphrases are still cached through
+ * {@link DerivedKeyCache#latestSalt(char[], int, int)}.
+ *
+ * @version 1.0
+ */
+class DerivedKeyCacheTest {
+
+    private static final int ITERATIONS = 1000;
+    private static final int KEY_LENGTH = 128;
+
+    @BeforeEach
+    @AfterEach
+    void clearCache() {
+        DerivedKeyCache.clear();
+    }
+
+    private static char[] passphrase(int i) {
+        return ("passphrase " + i).toCharArray();
+    }
+
+    private static byte[] salt(int i) {
+        return new byte[] { (byte) i, 1, 2, 3, 4, 5, 6, 7 };
+    }
+
+    private static SecretKey derive(int i) throws Exception {
+        return DerivedKeyCache.derive(passphrase(i), salt(i), ITERATIONS, KEY_LENGTH);
+    }
+
+    private static boolean isCached(int i) throws Exception {
+        return DerivedKeyCache.latestSalt(passphrase(i), ITERATIONS, KEY_LENGTH) != null;
+    }
+
+    @Test
+    void derivedKeysMatchPbkdf2() throws Exception {
+        byte[] expected = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256")
+                .generateSecret(new PBEKeySpec(passphrase(1), salt(1), ITERATIONS, KEY_LENGTH)).getEncoded();
+
+        SecretKey derived = derive(1);
+        assertArrayEquals(expected, derived.getEncoded());
+        assertArrayEquals(expected, derive(1).getEncoded());
+        assertTrue(DerivedKeyCache.isDerived(derived));
+        assertArrayEquals(salt(1), DerivedKeyCache.latestSalt(passphrase(1), ITERATIONS, KEY_LENGTH));
+        assertNull(DerivedKeyCache.latestSalt(passphrase(1), ITERATIONS + 1, KEY_LENGTH));
+    }
+
+    @Test
+    void leastRecentlyUsedKeyIsEvicted() throws Exception {
+        for (int i = 0; i < DerivedKeyCache.MAX_ENTRIES; i++) {
+            derive(i);
+        }
+        derive(0);
+        derive(DerivedKeyCache.MAX_ENTRIES);
+
+        assertTrue(isCached(0));
+        assertFalse(isCached(1));
+        for (int i = 2; i <= DerivedKeyCache.MAX_ENTRIES; i++) {
+            assertTrue(isCached(i), "passphrase " + i);
+        }
+    }
+
+    @Test
+    void keysExpireAfterTheirTimeToLive() throws Exception {
+        SecretKey derived = derive(1);
+        byte[] encoded = derived.getEncoded();
+
+        DerivedKeyCache.evictExpired(System.nanoTime() + DerivedKeyCache.TIME_TO_LIVE_NANOS / 2);
+        assertTrue(isCached(1));
+        DerivedKeyCache.evictExpired(System.nanoTime() + DerivedKeyCache.TIME_TO_LIVE_NANOS);
+        assertFalse(isCached(1));
+
+        // Copies handed out stay usable until their operation ends
+        assertArrayEquals(encoded, derived.getEncoded());
+        assertNotNull(derive(1));
+        assertTrue(isCached(1));
+    }
+}
@@ -0,0 +1,108 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the segmented format of {@link GcmOperation}.
+ *
+ * @version 1.0
+ */
+class GcmOperationTest {
+
+    private static final SecretKey KEY = new SecretKeySpec(new byte[16], "AES");
+    private static final byte[] NONCE = new byte[12];
+    private static final int ENCRYPTED_SEGMENT = GcmOperation.SEGMENT_SIZE + GcmOperation.TAG_LENGTH;
+
+    private static byte[] run(int opmode, byte[] input, int chunk) throws Exception {
+        CryptographyOperation operation = new GcmOperation(Cipher.getInstance("AES/GCM/NoPadding"), opmode, KEY, NONCE);
+        ByteBuffer dst = ByteBuffer.allocate(input.length + ENCRYPTED_SEGMENT);
+        for (int i = 0; i < input.length; i += chunk) {
+            operation.update(ByteBuffer.wrap(input, i, Math.min(chunk, input.length - i)), dst);
+        }
+        operation.doFinal(dst);
+        return Arrays.copyOf(dst.array(), dst.position());
+    }
+
+    private static byte[] plaintext(int length) {
+        byte[] plaintext = new byte[length];
+        new Random(length).nextBytes(plaintext);
+        return plaintext;
+    }
+
+    @Test
+    void segmentsAreFollowedByTheirTags() throws Exception {
+        for (int length : new int[] { 0, 1, GcmOperation.SEGMENT_SIZE, 3 * GcmOperation.SEGMENT_SIZE + 100 }) {
+            byte[] plaintext = plaintext(length);
+            byte[] ciphertext = run(Cipher.ENCRYPT_MODE, plaintext, Integer.MAX_VALUE);
+
+            int segments = Math.max(1, (length + GcmOperation.SEGMENT_SIZE - 1) / GcmOperation.SEGMENT_SIZE);
+            assertEquals(length + segments * GcmOperation.TAG_LENGTH, ciphertext.length);
+            assertTrue(ciphertext.length <= GcmOperation.getEncryptedSize(length));
+            assertArrayEquals(plaintext, run(Cipher.DECRYPT_MODE, ciphertext, Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void segmentIsAGcmMessageWithItsIndexInTheNonce() throws Exception {
+        byte[] plaintext = plaintext(2 * GcmOperation.SEGMENT_SIZE + 5);
+        byte[] ciphertext = run(Cipher.ENCRYPT_MODE, plaintext, Integer.MAX_VALUE);
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        byte[] nonce = NONCE.clone();
+        nonce[11] ^= 1;
+        cipher.init(Cipher.DECRYPT_MODE, KEY, new GCMParameterSpec(GcmOperation.TAG_LENGTH * 8, nonce));
+        cipher.updateAAD(new byte[] { 0 });
+        byte[] segment = cipher.doFinal(ciphertext, ENCRYPTED_SEGMENT, ENCRYPTED_SEGMENT);
+        assertArrayEquals(Arrays.copyOfRange(plaintext, GcmOperation.SEGMENT_SIZE, 2 * GcmOperation.SEGMENT_SIZE), segment);
+    }
+
+    @Test
+    void chunkingDoesNotChangeTheOutput() throws Exception {
+        byte[] plaintext = plaintext(2 * GcmOperation.SEGMENT_SIZE + 17);
+        byte[] ciphertext = run(Cipher.ENCRYPT_MODE, plaintext, Integer.MAX_VALUE);
+
+        for (int chunk : new int[] { 1, 15, 4096, GcmOperation.SEGMENT_SIZE, ENCRYPTED_SEGMENT }) {
+            assertArrayEquals(ciphertext, run(Cipher.ENCRYPT_MODE, plaintext, chunk), "chunk " + chunk);
+            assertArrayEquals(plaintext, run(Cipher.DECRYPT_MODE, ciphertext, chunk), "chunk " + chunk);
+        }
+    }
+
+    @Test
+    void droppingTheLastSegmentFails() throws Exception {
+        byte[] ciphertext = run(Cipher.ENCRYPT_MODE, plaintext(3 * GcmOperation.SEGMENT_SIZE), Integer.MAX_VALUE);
+        byte[] truncated = Arrays.copyOf(ciphertext, 2 * ENCRYPTED_SEGMENT);
+
+        assertThrows(RuntimeException.class, () -> run(Cipher.DECRYPT_MODE, truncated, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void reorderedSegmentsFail() throws Exception {
+        byte[] ciphertext = run(Cipher.ENCRYPT_MODE, plaintext(3 * GcmOperation.SEGMENT_SIZE), Integer.MAX_VALUE);
+        byte[] swapped = ciphertext.clone();
+        System.arraycopy(ciphertext, 0, swapped, ENCRYPTED_SEGMENT, ENCRYPTED_SEGMENT);
+        System.arraycopy(ciphertext, ENCRYPTED_SEGMENT, swapped, 0, ENCRYPTED_SEGMENT);
+
+        assertThrows(RuntimeException.class, () -> run(Cipher.DECRYPT_MODE, swapped, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void modifiedCiphertextFails() throws Exception {
+        byte[] ciphertext = run(Cipher.ENCRYPT_MODE, plaintext(GcmOperation.SEGMENT_SIZE + 1), Integer.MAX_VALUE);
+        ciphertext[10] ^= 1;
+
+        assertThrows(RuntimeException.class, () -> run(Cipher.DECRYPT_MODE, ciphertext, Integer.MAX_VALUE));
+    }
+}
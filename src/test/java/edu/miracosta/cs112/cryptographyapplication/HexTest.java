@@ -0,0 +1,122 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link Hex}, checking the streaming decoder on input split at every position.
+ *
+ * @version 1.0
+ */
+class HexTest {
+
+    private static final byte[] BYTES = new byte[1000];
+
+    static {
+        new Random(1).nextBytes(BYTES);
+    }
+
+    private static byte[] convert(CryptographyOperation operation, byte[] input, int chunk) {
+        ByteBuffer dst = ByteBuffer.allocate(2 * input.length);
+        for (int i = 0; i < input.length; i += chunk) {
+            operation.update(ByteBuffer.wrap(input, i, Math.min(chunk, input.length - i)), dst);
+        }
+        operation.doFinal(dst);
+        return Arrays.copyOf(dst.array(), dst.position());
+    }
+
+    @Test
+    void encodingMatchesHexFormat() {
+        String hex = HexFormat.of().formatHex(BYTES);
+
+        assertEquals(hex, Hex.encode(BYTES));
+        assertArrayEquals(BYTES, Hex.decode(hex));
+        assertArrayEquals(BYTES, Hex.decode(hex.toUpperCase()));
+    }
+
+    @Test
+    void chunksOfAnyLengthDecode() {
+        byte[] hex = Hex.encode(BYTES).getBytes(StandardCharsets.US_ASCII);
+
+        for (int chunk : new int[] { 1, 2, 3, 7, 64, 999 }) {
+            assertArrayEquals(hex, convert(Hex.startEncoding(), BYTES, chunk), "chunk " + chunk);
+            assertArrayEquals(BYTES, convert(Hex.startDecoding(), hex, chunk), "chunk " + chunk);
+        }
+    }
+
+    @Test
+    void streamsDecodeOneByteAtATime() throws IOException {
+        byte[] hex = Hex.encode(BYTES).getBytes(StandardCharsets.US_ASCII);
+
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        try (OutputStream out = Hex.decodingOutputStream(decoded)) {
+            for (byte digit : hex) {
+                out.write(digit);
+            }
+        }
+        assertArrayEquals(BYTES, decoded.toByteArray());
+
+        try (InputStream in = Hex.decodingInputStream(new ByteArrayInputStream(hex))) {
+            ByteArrayOutputStream read = new ByteArrayOutputStream();
+            for (int b = in.read(); b >= 0; b = in.read()) {
+                read.write(b);
+            }
+            assertArrayEquals(BYTES, read.toByteArray());
+        }
+    }
+
+    @Test
+    void whitespaceIsSkippedInChunks() {
+        String hex = Hex.encode(BYTES);
+        StringBuilder wrapped = new StringBuilder();
+        for (int i = 0; i < hex.length(); i += 61) {
+            // An odd line length also splits the digits of a byte
+            wrapped.append(hex, i, Math.min(i + 61, hex.length())).append(i % 2 == 0 ? "\n" : " \t\r\n");
+        }
+        byte[] input = wrapped.toString().getBytes(StandardCharsets.US_ASCII);
+
+        for (int chunk : new int[] { 1, 2, 3, 62, 999, input.length }) {
+            assertArrayEquals(BYTES, convert(Hex.startDecoding(), input, chunk), "chunk " + chunk);
+        }
+        assertThrows(IllegalArgumentException.class, () -> convert(Hex.startDecoding(), "ab c\n".getBytes(StandardCharsets.US_ASCII), 1));
+    }
+
+    @Test
+    void oddLengthFails() throws IOException {
+        byte[] hex = "abc".getBytes(StandardCharsets.US_ASCII);
+
+        assertThrows(IllegalArgumentException.class, () -> Hex.decode("abc"));
+        for (int chunk = 1; chunk <= hex.length; chunk++) {
+            int size = chunk;
+            assertThrows(IllegalArgumentException.class, () -> convert(Hex.startDecoding(), hex, size));
+        }
+        IOException e = assertThrows(IOException.class, () -> Hex.decodingInputStream(new ByteArrayInputStream(hex)).readAllBytes());
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        OutputStream out = Hex.decodingOutputStream(new ByteArrayOutputStream());
+        out.write(hex);
+        assertThrows(IOException.class, out::close);
+    }
+
+    @Test
+    void invalidDigitFails() {
+        byte[] hex = "0g".getBytes(StandardCharsets.US_ASCII);
+
+        assertThrows(IllegalArgumentException.class, () -> Hex.decode("0g"));
+        assertThrows(IllegalArgumentException.class, () -> convert(Hex.startDecoding(), hex, 1));
+    }
+}
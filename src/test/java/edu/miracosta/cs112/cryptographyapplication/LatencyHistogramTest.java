@@ -0,0 +1,84 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link LatencyHistogram}, checking that the buckets cover every value without gaps
+ * and within their relative error, and that percentiles are read from them.
+ *
+ * @version 1.0
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void smallValuesHaveTheirOwnBuckets() {
+        for (int value = 0; value < LatencyHistogram.SUB_BUCKETS; value++) {
+            assertEquals(value, LatencyHistogram.bucket(value));
+            assertEquals(value, LatencyHistogram.lowestValue(value));
+            assertEquals(value, LatencyHistogram.highestValue(value));
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousAndNarrow() {
+        assertEquals(0, LatencyHistogram.lowestValue(0));
+        for (int bucket = 1; bucket < LatencyHistogram.BUCKET_COUNT; bucket++) {
+            long lowest = LatencyHistogram.lowestValue(bucket);
+            assertEquals(LatencyHistogram.highestValue(bucket - 1) + 1, lowest, "bucket " + bucket);
+            assertEquals(bucket, LatencyHistogram.bucket(lowest), "bucket " + bucket);
+            assertEquals(bucket - 1, LatencyHistogram.bucket(lowest - 1), "bucket " + bucket);
+            if (bucket + 1 < LatencyHistogram.BUCKET_COUNT) {
+                long highest = LatencyHistogram.highestValue(bucket);
+                assertEquals(bucket, LatencyHistogram.bucket(highest), "bucket " + bucket);
+                assertTrue(highest - lowest + 1 <= Math.max(1, lowest / LatencyHistogram.SUB_BUCKETS),
+                        "bucket " + bucket);
+            }
+        }
+        int last = LatencyHistogram.BUCKET_COUNT - 1;
+        assertEquals(last, LatencyHistogram.bucket(LatencyHistogram.MAX_TRACKABLE - 1));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(last));
+    }
+
+    @Test
+    void randomValuesFallInsideTheirBucket() {
+        Random random = new Random(25);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong(LatencyHistogram.MAX_TRACKABLE) >>> random.nextInt(36);
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(LatencyHistogram.lowestValue(bucket) <= value, "value " + value);
+            assertTrue(value <= LatencyHistogram.highestValue(bucket), "value " + value);
+        }
+    }
+
+    @Test
+    void percentilesAreReadFromTheBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000, 1);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_500, histogram.getMean());
+        assertEquals(1_000_000, histogram.getMax());
+        for (int percentile : new int[] { 1, 50, 90, 99 }) {
+            long exact = percentile * 10_000L;
+            long value = histogram.getValueAtPercentile(percentile);
+            assertTrue(exact <= value && value <= exact + exact / LatencyHistogram.SUB_BUCKETS,
+                    percentile + "th percentile " + value);
+        }
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+
+        histogram.reset();
+        histogram.record(-1, 3);
+        histogram.record(2 * LatencyHistogram.MAX_TRACKABLE, 1);
+        assertEquals(4, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(75));
+        assertEquals(2 * LatencyHistogram.MAX_TRACKABLE, histogram.getValueAtPercentile(100));
+    }
+}
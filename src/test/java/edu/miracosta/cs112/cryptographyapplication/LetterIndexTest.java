@@ -0,0 +1,129 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link LetterIndex}, comparing it after random edits with counting the letters of
+ * the whole text.
+ *
+ * @version 1.0
+ */
+class LetterIndexTest {
+
+    private static final String ALPHABET = "abcXYZ 1,.\n";
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    private static void assertMatches(LetterIndex index, StringBuilder text, Random random) {
+        assertEquals(LetterIndex.countLetters(text, 0, text.length()), index.totalLetters());
+        assertTrue(index.blockCount() <= Math.max(1, 2 * text.length() / LetterIndex.BLOCK_SIZE),
+                index.blockCount() + " blocks for " + text.length() + " characters");
+        for (int i = 0; i < 20; i++) {
+            int position = random.nextInt(text.length() + 1);
+            assertEquals(LetterIndex.countLetters(text, 0, position), index.lettersBefore(position, text::substring),
+                    "letters before " + position);
+        }
+    }
+
+    @Test
+    void resetCountsEveryBlock() {
+        Random random = new Random(1);
+        for (int length : new int[] { 0, 1, LetterIndex.BLOCK_SIZE, 3 * LetterIndex.BLOCK_SIZE + 17 }) {
+            StringBuilder text = new StringBuilder(randomText(random, length));
+            LetterIndex index = new LetterIndex();
+            index.reset(text);
+
+            assertMatches(index, text, random);
+        }
+    }
+
+    @Test
+    void replacementsAcrossBlockBoundariesKeepTheCounts() {
+        Random random = new Random(2);
+        StringBuilder text = new StringBuilder(randomText(random, 5 * LetterIndex.BLOCK_SIZE + 123));
+        LetterIndex index = new LetterIndex();
+        index.reset(text);
+
+        for (int edit = 0; edit < 500; edit++) {
+            int start;
+            int oldEnd;
+            if (edit % 2 == 0 && text.length() > LetterIndex.BLOCK_SIZE) {
+                // Straddle a multiple of the block size, where the first blocks start
+                int boundary = LetterIndex.BLOCK_SIZE * (1 + random.nextInt(text.length() / LetterIndex.BLOCK_SIZE));
+                start = Math.max(0, boundary - random.nextInt(100));
+                oldEnd = Math.min(text.length(), boundary + random.nextInt(2 * LetterIndex.BLOCK_SIZE));
+            } else {
+                start = random.nextInt(text.length() + 1);
+                oldEnd = start + random.nextInt(text.length() - start + 1);
+            }
+            String replacement = randomText(random, random.nextInt(edit % 10 == 0 ? 3 * LetterIndex.BLOCK_SIZE : 50));
+            text.replace(start, oldEnd, replacement);
+            index.replace(start, oldEnd, start + replacement.length(), text::substring);
+
+            assertMatches(index, text, random);
+        }
+    }
+
+    @Test
+    void typingAndDeletingCharactersDoesNotFragmentTheBlocks() {
+        Random random = new Random(4);
+        StringBuilder text = new StringBuilder(randomText(random, 4 * LetterIndex.BLOCK_SIZE));
+        LetterIndex index = new LetterIndex();
+        index.reset(text);
+
+        for (int edit = 0; edit < 20_000; edit++) {
+            int start = random.nextInt(text.length() + 1);
+            if (edit % 3 == 2 && start < text.length()) {
+                text.deleteCharAt(start);
+                index.replace(start, start + 1, start, text::substring);
+            } else {
+                text.insert(start, randomText(random, 1));
+                index.replace(start, start, start + 1, text::substring);
+            }
+            if (edit % 1000 == 0) {
+                assertMatches(index, text, random);
+            }
+        }
+        assertMatches(index, text, random);
+
+        while (text.length() > 0) {
+            int start = random.nextInt(text.length());
+            int oldEnd = Math.min(text.length(), start + 1 + random.nextInt(500));
+            text.delete(start, oldEnd);
+            index.replace(start, oldEnd, start, text::substring);
+            assertMatches(index, text, random);
+        }
+    }
+
+    @Test
+    void replacingEverythingAndGrowingFromEmpty() {
+        Random random = new Random(3);
+        StringBuilder text = new StringBuilder(randomText(random, 2 * LetterIndex.BLOCK_SIZE));
+        LetterIndex index = new LetterIndex();
+        index.reset(text);
+
+        int oldLength = text.length();
+        text.setLength(0);
+        index.replace(0, oldLength, 0, text::substring);
+        assertMatches(index, text, random);
+
+        for (int i = 0; i < 3 * LetterIndex.BLOCK_SIZE; i += 1000) {
+            String typed = randomText(random, 1000);
+            int end = text.length();
+            text.append(typed);
+            index.replace(end, end, text.length(), text::substring);
+        }
+        assertMatches(index, text, random);
+    }
+}
@@ -0,0 +1,116 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests of {@link VectorKernels}, comparing them with translating one byte at a time through the
+ * scalar tables of {@link CaesarCipher}. The tests are skipped unless the Vector API module is
+ * resolved, which the Surefire configuration does.
+ *
+ * @version 1.0
+ */
+class VectorKernelsTest {
+
+    /** Lengths around the common vector sizes, so that both the vector loop and the tail run. */
+    private static final int[] LENGTHS = { 0, 1, 15, 16, 17, 31, 32, 33, 63, 64, 65, 127, 128, 129, 1000 };
+
+    private static final String ALPHABET = "abmnyzABMNYZ@[`{ 09\n\u007fé€";
+
+    private final Random random = new Random(1);
+
+    @BeforeEach
+    void requireTheVectorApi() {
+        assumeTrue(CaesarCipher.VECTORIZED, "jdk.incubator.vector is not resolved");
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        if (random.nextBoolean()) {
+            random.nextBytes(bytes);
+            return bytes;
+        }
+        StringBuilder text = new StringBuilder();
+        while (text.length() < length) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        byte[] utf8 = text.toString().getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(utf8, 0, bytes, 0, length);
+        return bytes;
+    }
+
+    @Test
+    void caesarMatchesTheScalarTables() {
+        for (int shift = 0; shift < 26; shift++) {
+            byte[] table = CaesarCipher.byteTable(shift);
+            for (int length : LENGTHS) {
+                int srcOffset = random.nextInt(8);
+                int dstOffset = random.nextInt(8);
+                byte[] src = randomBytes(srcOffset + length + 5);
+                byte[] expected = new byte[dstOffset + length + 5];
+                for (int i = 0; i < length; i++) {
+                    expected[dstOffset + i] = table[src[srcOffset + i] & 0xFF];
+                }
+
+                byte[] actual = new byte[expected.length];
+                VectorKernels.caesar(src, srcOffset, actual, dstOffset, length, shift, table);
+                assertArrayEquals(expected, actual, "shift " + shift + " length " + length);
+            }
+        }
+    }
+
+    @Test
+    void caesarTranslatesInPlace() {
+        byte[] table = CaesarCipher.byteTable(3);
+        byte[] bytes = randomBytes(300);
+        byte[] expected = bytes.clone();
+        for (int i = 10; i < 290; i++) {
+            expected[i] = table[bytes[i] & 0xFF];
+        }
+
+        VectorKernels.caesar(bytes, 10, bytes, 10, 280, 3, table);
+        assertArrayEquals(expected, bytes);
+    }
+
+    @Test
+    void vigenereMatchesTheScalarTables() {
+        for (int keyLength : new int[] { 1, 2, 5, 16, 31, 64, 100 }) {
+            byte[] shifts = new byte[keyLength];
+            byte[][] tables = new byte[keyLength][];
+            for (int k = 0; k < keyLength; k++) {
+                shifts[k] = (byte) random.nextInt(26);
+                tables[k] = CaesarCipher.byteTable(shifts[k]);
+            }
+            byte[] tiled = VectorKernels.tile(shifts);
+
+            for (int length : LENGTHS) {
+                int keyIndex = random.nextInt(keyLength);
+                int srcOffset = random.nextInt(8);
+                int dstOffset = random.nextInt(8);
+                byte[] src = randomBytes(srcOffset + length + 5);
+                byte[] expected = new byte[dstOffset + length + 5];
+                int j = keyIndex;
+                for (int i = 0; i < length; i++) {
+                    byte b = src[srcOffset + i];
+                    expected[dstOffset + i] = tables[j][b & 0xFF];
+                    if (CaesarCipher.isLetter(b)) {
+                        j = (j + 1) % keyLength;
+                    }
+                }
+
+                byte[] actual = new byte[expected.length];
+                int next = VectorKernels.vigenere(src, srcOffset, actual, dstOffset, length, tiled, tables, keyIndex);
+                String message = "key length " + keyLength + " length " + length + " key index " + keyIndex;
+                assertArrayEquals(expected, actual, message);
+                assertEquals(j, next, message);
+            }
+        }
+    }
+}
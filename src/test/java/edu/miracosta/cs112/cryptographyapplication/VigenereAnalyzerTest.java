@@ -0,0 +1,59 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link VigenereAnalyzer}, encrypting an English text with known keys and checking
+ * that the analysis recovers them.
+ *
+ * @version 1.0
+ */
+class VigenereAnalyzerTest {
+
+    /** English prose that is not part of the corpus the statistics are counted from. */
+    static final String PLAINTEXT = """
+            The lighthouse keeper climbed the narrow stairs every evening just before the sun went down. \
+            He carried a small can of oil, a clean cloth and a notebook in which he wrote the weather, the \
+            ships he had seen and anything else that seemed worth remembering. Most nights were quiet. The \
+            wind pushed against the glass, the waves broke on the rocks below, and the great lamp turned \
+            slowly above his head, throwing its beam far across the water. In the winter the storms came one \
+            after another, and for weeks at a time no boat could reach the island. Then he lived on tinned \
+            food and the potatoes he grew behind the cottage, and he read the same few books again and again. \
+            He did not mind. He had chosen the work because he liked to be alone, and because he believed \
+            that keeping the light burning was one of the few jobs in the world that mattered to everyone and \
+            asked nothing of anybody. When the supply boat finally arrived in the spring, the young sailors \
+            would ask him whether he had been lonely, and he would laugh and tell them that a man who has the \
+            sea and the sky for company is never really by himself. They never believed him, but they always \
+            left him an extra bag of coffee, and he was grateful for that.""";
+
+    private static final String[] KEYS = { "lemon", "key", "lighthouse", "cryptography", "a" };
+
+    @Test
+    void knownKeysAreRecovered() {
+        for (String key : KEYS) {
+            String ciphertext = new VigenereCipher(0, 0, key).encrypt(PLAINTEXT);
+
+            VigenereAnalyzer.Result result = VigenereAnalyzer.analyze(ciphertext);
+            assertEquals(key, result.getKey());
+            assertEquals(PLAINTEXT, result.decrypt(ciphertext));
+        }
+    }
+
+    @Test
+    void uppercaseKeysAreRecoveredInLowercase() {
+        String ciphertext = new VigenereCipher(0, 0, "SeaBird").encrypt(PLAINTEXT);
+
+        assertEquals("seabird", VigenereAnalyzer.analyze(ciphertext, 16, ForkJoinPool.commonPool()).getKey());
+    }
+
+    @Test
+    void invalidArgumentsFail() {
+        assertThrows(IllegalArgumentException.class, () -> VigenereAnalyzer.analyze("1234, 5678!"));
+        assertThrows(IllegalArgumentException.class, () -> VigenereAnalyzer.analyze(PLAINTEXT, 0, ForkJoinPool.commonPool()));
+    }
+}
@@ -0,0 +1,117 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link VigenereCipher}, comparing every path with shifting one letter at a time and
+ * advancing the key only on letters.
+ *
+ * @version 1.0
+ */
+class VigenereCipherTest {
+
+    private static final String ALPHABET = "abcxyzABCXYZ 09,.\n@[`{é€";
+    private static final String KEY = "LeMon";
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    private static String shift(String text, String key, int keyIndex) {
+        StringBuilder shifted = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            int rotations = Character.toLowerCase(key.charAt(keyIndex % key.length())) - 'a';
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) ('A' + (c - 'A' + rotations) % 26);
+                keyIndex++;
+            } else if (c >= 'a' && c <= 'z') {
+                c = (char) ('a' + (c - 'a' + rotations) % 26);
+                keyIndex++;
+            }
+            shifted.append(c);
+        }
+        return shifted.toString();
+    }
+
+    @Test
+    void stringsMatchShiftingEachLetter() {
+        Random random = new Random(1);
+        for (String key : new String[] { "a", "B", KEY, "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ" }) {
+            VigenereCipher cipher = new VigenereCipher(0, 0, key);
+            for (int length : new int[] { 0, 1, CaesarCipher.VECTOR_THRESHOLD - 1, CaesarCipher.VECTOR_THRESHOLD, 1000 }) {
+                String plaintext = randomText(random, length);
+                String ascii = plaintext.replaceAll("[^\\x00-\\x7f]", "");
+
+                assertEquals(shift(plaintext, key, 0), cipher.encrypt(plaintext), key + " " + length);
+                assertEquals(shift(ascii, key, 0), cipher.encrypt(ascii), key + " " + length);
+                assertEquals(plaintext, cipher.decrypt(cipher.encrypt(plaintext)), key + " " + length);
+            }
+        }
+    }
+
+    @Test
+    void rangesContinueFromTheKeyIndex() {
+        Random random = new Random(2);
+        VigenereCipher cipher = new VigenereCipher(0, 0, KEY);
+        String plaintext = randomText(random, 1000);
+        String expected = shift(plaintext, KEY, 0);
+
+        char[] chars = plaintext.toCharArray();
+        int keyIndex = 0;
+        for (int start = 0; start < chars.length; start += 37) {
+            int length = Math.min(37, chars.length - start);
+            int next = cipher.encrypt(chars, start, chars, start, length, keyIndex);
+            assertEquals((keyIndex + LetterIndex.countLetters(plaintext, start, start + length)) % KEY.length(), next);
+            keyIndex = next;
+        }
+        assertEquals(expected, new String(chars));
+
+        char[] middle = new char[100];
+        cipher.encrypt(plaintext.toCharArray(), 450, middle, 0, 100,
+                LetterIndex.countLetters(plaintext, 0, 450));
+        assertEquals(expected.substring(450, 550), new String(middle));
+
+        cipher.decrypt(chars, 0, chars, 0, chars.length);
+        assertEquals(plaintext, new String(chars));
+        assertThrows(IllegalArgumentException.class, () -> cipher.encrypt(chars, 0, chars, 0, 1, -1));
+    }
+
+    @Test
+    void streamsKeepTheKeyPositionAcrossWrites() throws Exception {
+        Random random = new Random(3);
+        VigenereCipher cipher = new VigenereCipher(0, 0, KEY);
+        for (int chunk : new int[] { 1, 7, CaesarCipher.VECTOR_THRESHOLD + 3, 4096 }) {
+            String plaintext = randomText(random, 3000);
+            byte[] bytes = plaintext.getBytes(StandardCharsets.UTF_8);
+
+            ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+            try (OutputStream out = cipher.encryptingOutputStream(encrypted)) {
+                for (int i = 0; i < bytes.length; i += chunk) {
+                    out.write(bytes, i, Math.min(chunk, bytes.length - i));
+                }
+            }
+            assertArrayEquals(cipher.encrypt(bytes), encrypted.toByteArray(), "chunk " + chunk);
+            assertEquals(shift(plaintext, KEY, 0), encrypted.toString(StandardCharsets.UTF_8), "chunk " + chunk);
+        }
+    }
+
+    @Test
+    void keysMustBeAsciiLetters() {
+        for (String key : new String[] { null, "", "lem0n", "key word", "é" }) {
+            assertThrows(IllegalArgumentException.class, () -> new VigenereCipher(0, 0, key), String.valueOf(key));
+        }
+    }
+}
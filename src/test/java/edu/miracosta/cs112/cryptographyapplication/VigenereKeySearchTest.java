@@ -0,0 +1,70 @@
+package edu.miracosta.cs112.cryptographyapplication;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link VigenereKeySearch}, encrypting a sentence too short for
+ * {@link VigenereAnalyzer} with known keys and checking that the search ranks them first.
+ *
+ * @version 1.0
+ */
+class VigenereKeySearchTest {
+
+    private static final String PLAINTEXT =
+            "The lighthouse keeper climbed the narrow stairs every evening just before the sun went down.";
+
+    /** Every distinct word of a longer text, which the key is added to. */
+    private static List<String> wordlist() {
+        List<String> words = new ArrayList<>(Arrays.asList(VigenereAnalyzerTest.PLAINTEXT.split("[^A-Za-z]+")));
+        words.removeIf(String::isEmpty);
+        return words;
+    }
+
+    @Test
+    void searchWordsRanksTheKeyFirst() {
+        for (String key : new String[] { "harbor", "Beacon", "sailors" }) {
+            List<String> words = wordlist();
+            words.add(words.size() / 2, key);
+            words.add(key.toUpperCase());
+            String ciphertext = new VigenereCipher(0, 0, key).encrypt(PLAINTEXT);
+
+            List<VigenereKeySearch.Match> matches = VigenereKeySearch.searchWords(ciphertext, words, 5);
+            assertEquals(5, matches.size());
+            assertEquals(key.toLowerCase(), matches.get(0).getKey());
+            assertEquals(PLAINTEXT, matches.get(0).decrypt(ciphertext));
+            // The uppercase copy of the key is the same key and does not take a second place
+            assertNotEquals(matches.get(0).getKey(), matches.get(1).getKey());
+            assertTrue(matches.get(0).getScore() >= matches.get(1).getScore());
+        }
+    }
+
+    @Test
+    void searchAllFindsEveryShortKey() {
+        for (String key : new String[] { "x", "sea", "moon" }) {
+            String ciphertext = new VigenereCipher(0, 0, key).encrypt(PLAINTEXT);
+
+            List<VigenereKeySearch.Match> matches = VigenereKeySearch.searchAll(ciphertext, 4, 3);
+            assertEquals(3, matches.size());
+            assertEquals(key, matches.get(0).getKey());
+            assertEquals(PLAINTEXT, matches.get(0).decrypt(ciphertext));
+        }
+    }
+
+    @Test
+    void invalidArgumentsFail() {
+        assertThrows(IllegalArgumentException.class, () -> VigenereKeySearch.searchWords("1234", wordlist(), 1));
+        assertThrows(IllegalArgumentException.class, () -> VigenereKeySearch.searchWords(PLAINTEXT, wordlist(), 0));
+        assertThrows(IllegalArgumentException.class, () -> VigenereKeySearch.searchAll(PLAINTEXT, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> VigenereKeySearch.searchAll(PLAINTEXT, VigenereKeySearch.MAX_EXHAUSTIVE_LENGTH + 1, 1));
+    }
+}